@@ -0,0 +1,83 @@
+package com.seeyon.A8ContractPost.benchmark;
+
+import com.seeyon.A8ContractPost.model.AreaResolution;
+import com.seeyon.A8ContractPost.service.AreaCodeConverter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 区域编码转换基准：每个合同及其区域提交前都要转换、校验一次区域编码
+ * 轮流使用一组不同的区域编码，避免总是命中同一个哈希桶
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(3)
+@State(Scope.Benchmark)
+public class AreaCodeConverterBenchmark {
+
+    private static final int CODE_SETS = 1024;
+
+    private AreaCodeConverter converter;
+    private String[][] validCodes;
+    private String[][] repairedCodes;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        converter = BenchmarkFixtures.areaCodeConverter();
+        validCodes = new String[CODE_SETS][];
+        repairedCodes = new String[CODE_SETS][];
+        for (int i = 0; i < CODE_SETS; i++) {
+            String[] codes = BenchmarkFixtures.oaAreaCodes(i * 7);
+            validCodes[i] = codes;
+            // 镇街编码在目标系统中不存在，需要按前缀修正为区县
+            repairedCodes[i] = new String[]{codes[0], codes[1], codes[2], codes[2] + "999"};
+        }
+        AreaResolution check = converter.resolve(validCodes[0][0], validCodes[0][1], validCodes[0][2], validCodes[0][3]);
+        if (!check.isValid() || check.isRepaired()) {
+            throw new IllegalStateException("基准数据的区域编码应全部有效: " + check.getMessage());
+        }
+    }
+
+    private String[] nextCodes(String[][] codeSets) {
+        next = (next + 1) & (CODE_SETS - 1);
+        return codeSets[next];
+    }
+
+    /**
+     * 四级convert*格式转换，不查询区域层级
+     */
+    @Benchmark
+    public void convertCodes(Blackhole blackhole) {
+        String[] codes = nextCodes(validCodes);
+        blackhole.consume(converter.convertProvCode(codes[0]));
+        blackhole.consume(converter.convertCityCode(codes[1]));
+        blackhole.consume(converter.convertCountyCode(codes[2]));
+        blackhole.consume(converter.convertTownCode(codes[3]));
+    }
+
+    @Benchmark
+    public AreaResolution resolveValid() {
+        String[] codes = nextCodes(validCodes);
+        return converter.resolve(codes[0], codes[1], codes[2], codes[3]);
+    }
+
+    @Benchmark
+    public AreaResolution resolveRepaired() {
+        String[] codes = nextCodes(repairedCodes);
+        return converter.resolve(codes[0], codes[1], codes[2], codes[3]);
+    }
+}
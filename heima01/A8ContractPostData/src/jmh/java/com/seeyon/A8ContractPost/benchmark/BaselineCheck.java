@@ -0,0 +1,120 @@
+package com.seeyon.A8ContractPost.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 将本次JMH结果与提交在仓库中的基线比较，任一基准变慢超过阈值（且超出两次结果的误差范围）时以非0状态退出，使构建失败
+ * 用法：BaselineCheck 基线文件 本次结果文件 [阈值，默认0.2即20%]
+ * 基线记录的是绝对耗时，只有与本次结果在同一台机器、同一JDK上得到时比较才有意义；
+ * 两者的JDK不同时照常比较但给出提示。换机器或升级JDK后用本次结果文件覆盖基线文件重新记录
+ */
+public final class BaselineCheck {
+
+    private BaselineCheck() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("用法: BaselineCheck <基线文件> <本次结果文件> [阈值]");
+            System.exit(2);
+        }
+        File baselineFile = new File(args[0]);
+        File resultFile = new File(args[1]);
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 0.2;
+        if (!baselineFile.isFile()) {
+            System.out.println("没有基线文件，跳过比较: " + baselineFile);
+            return;
+        }
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        Map<String, JsonNode> baseline = index(objectMapper.readTree(baselineFile));
+        Map<String, JsonNode> current = index(objectMapper.readTree(resultFile));
+        warnIfDifferentJvm(baseline, current);
+
+        int regressions = 0;
+        System.out.println(String.format("%-75s %14s %14s %9s", "基准", "基线", "本次", "变化"));
+        for (Map.Entry<String, JsonNode> entry : current.entrySet()) {
+            JsonNode result = entry.getValue();
+            double score = result.path("primaryMetric").path("score").asDouble();
+            String unit = result.path("primaryMetric").path("scoreUnit").asText();
+            JsonNode base = baseline.get(entry.getKey());
+            if (base == null) {
+                System.out.println(String.format("%-75s %14s %14.3f %9s  %s", entry.getKey(), "-", score, "新增", unit));
+                continue;
+            }
+            double baseScore = base.path("primaryMetric").path("score").asDouble();
+            double change = (score - baseScore) / baseScore;
+            // 吞吐量模式越大越好，其余模式（耗时）越小越好；差值在两次结果的误差范围内时视为测量波动
+            boolean higherIsBetter = "thrpt".equals(result.path("mode").asText());
+            double error = scoreError(result) + scoreError(base);
+            boolean regressed = (higherIsBetter ? change < -threshold : change > threshold)
+                    && Math.abs(score - baseScore) > error;
+            if (regressed) {
+                regressions++;
+            }
+            System.out.println(String.format("%-75s %14.3f %14.3f %+8.1f%%  %s%s", entry.getKey(), baseScore, score,
+                    change * 100, unit, regressed ? "  <-- 性能下降" : ""));
+        }
+
+        if (regressions > 0) {
+            System.out.println(String.format("有 %d 个基准比基线慢超过 %.0f%%", regressions, threshold * 100));
+            System.exit(1);
+        }
+        System.out.println(String.format("所有基准均未比基线慢超过 %.0f%%", threshold * 100));
+    }
+
+    /**
+     * 基线与本次结果的JDK不同时提示比较结果仅供参考（无法判断是否为同一台机器）
+     */
+    private static void warnIfDifferentJvm(Map<String, JsonNode> baseline, Map<String, JsonNode> current) {
+        if (baseline.isEmpty() || current.isEmpty()) {
+            return;
+        }
+        String baseJvm = jvmOf(baseline.values().iterator().next());
+        String currentJvm = jvmOf(current.values().iterator().next());
+        if (!baseJvm.equals(currentJvm)) {
+            System.out.println("注意: 基线在 " + baseJvm + " 上记录，本次为 " + currentJvm
+                    + "，比较结果仅供参考，请在本环境重新记录基线");
+        }
+    }
+
+    private static String jvmOf(JsonNode result) {
+        return result.path("vmName").asText() + " " + result.path("jdkVersion").asText();
+    }
+
+    /**
+     * 99.9%置信区间的半宽，只有一次测量迭代时为NaN，按0处理
+     */
+    private static double scoreError(JsonNode result) {
+        double error = result.path("primaryMetric").path("scoreError").asDouble(0);
+        return Double.isNaN(error) ? 0 : error;
+    }
+
+    /**
+     * 以 基准方法名 + 参数 为键索引结果
+     */
+    private static Map<String, JsonNode> index(JsonNode results) {
+        Map<String, JsonNode> indexed = new LinkedHashMap<>();
+        for (JsonNode result : results) {
+            StringBuilder key = new StringBuilder(result.path("benchmark").asText()
+                    .replace("com.seeyon.A8ContractPost.", ""));
+            Iterator<Map.Entry<String, JsonNode>> params = result.path("params").fields();
+            while (params.hasNext()) {
+                Map.Entry<String, JsonNode> param = params.next();
+                key.append(key.indexOf("{") < 0 ? "{" : ",").append(param.getKey()).append('=').append(param.getValue().asText());
+            }
+            if (key.indexOf("{") >= 0) {
+                key.append('}');
+            }
+            indexed.put(key.toString(), result);
+        }
+        return indexed;
+    }
+}
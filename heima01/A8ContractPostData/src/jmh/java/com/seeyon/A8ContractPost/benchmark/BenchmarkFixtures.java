@@ -0,0 +1,303 @@
+package com.seeyon.A8ContractPost.benchmark;
+
+import com.seeyon.A8ContractPost.dao.AreaCodeDao;
+import com.seeyon.A8ContractPost.model.AreaCode;
+import com.seeyon.A8ContractPost.model.AreaSnapshotMeta;
+import com.seeyon.A8ContractPost.model.Contract;
+import com.seeyon.A8ContractPost.model.ContractDataRequest;
+import com.seeyon.A8ContractPost.model.TownshipArea;
+import com.seeyon.A8ContractPost.service.AreaCodeConverter;
+import com.seeyon.A8ContractPost.service.AreaCodeStore;
+import com.seeyon.A8ContractPost.util.JsonUtil;
+import org.h2.tools.SimpleResultSet;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 基准测试数据
+ * 合同字段取值的长度与OA中的实际数据相近；全国区域数据按34个省、每省12个市、每市8个区县、每区县12个镇街生成，
+ * 共约4万条镇街，与目标系统返回的数据量一致。所有数据由序号决定，每次生成结果相同
+ */
+public final class BenchmarkFixtures {
+
+    public static final int PROVINCES = 34;
+    public static final int CITIES_PER_PROVINCE = 12;
+    public static final int COUNTIES_PER_CITY = 8;
+    public static final int TOWNS_PER_COUNTY = 12;
+
+    /**
+     * 合同查询结果的列，与ContractDaoImpl.CONTRACT_COLUMNS一致
+     */
+    private static final String[] CONTRACT_COLUMNS = {
+            "order_no", "contract_name", "signcontract_date", "first_check", "recheck", "signcontract_man",
+            "property", "cust_no", "contract_type", "project_type", "link_yes", "pur_unit", "zhanl_name",
+            "industry", "industry_dw", "project", "project_name", "project_addr", "contract_amount", "begin_date",
+            "end_date", "o_unit", "contract_num", "note", "create_code", "Code_prov", "Code_city", "Code_coun",
+            "Code_town", "dealer_agreement", "year_contract", "been_signed", "ass_rat"
+    };
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * 生成一个全部字段都有值的合同
+     *
+     * @param index 序号
+     * @return 合同
+     */
+    public static Contract contract(int index) {
+        Contract contract = new Contract();
+        Object[] row = contractRow(index);
+        contract.setOrder_no((String) row[0]);
+        contract.setContract_name((String) row[1]);
+        contract.setSigncontract_date((String) row[2]);
+        contract.setFirst_check((String) row[3]);
+        contract.setRecheck((String) row[4]);
+        contract.setSigncontract_man((String) row[5]);
+        contract.setProperty((String) row[6]);
+        contract.setCust_no((String) row[7]);
+        contract.setContract_type((String) row[8]);
+        contract.setProject_type((String) row[9]);
+        contract.setLink_yes((String) row[10]);
+        contract.setPur_unit((String) row[11]);
+        contract.setZhanl_name((String) row[12]);
+        contract.setIndustry((String) row[13]);
+        contract.setIndustry_dw((String) row[14]);
+        contract.setProject((String) row[15]);
+        contract.setProject_name((String) row[16]);
+        contract.setProject_addr((String) row[17]);
+        contract.setContract_amount((String) row[18]);
+        contract.setBegin_date((String) row[19]);
+        contract.setEnd_date((String) row[20]);
+        contract.setO_unit((String) row[21]);
+        contract.setContract_num((String) row[22]);
+        contract.setNote((String) row[23]);
+        contract.setCreate_code((String) row[24]);
+        contract.setCode_prov((String) row[25]);
+        contract.setCode_city((String) row[26]);
+        contract.setCode_coun((String) row[27]);
+        contract.setCode_town((String) row[28]);
+        contract.setDealer_agreement((String) row[29]);
+        contract.setYear_contract((String) row[30]);
+        contract.setBeen_signed((String) row[31]);
+        contract.setAss_rat((String) row[32]);
+        contract.setModify_time((Timestamp) row[33]);
+        return contract;
+    }
+
+    /**
+     * 生成提交合同接口的请求
+     *
+     * @param records 合同数
+     * @return 请求
+     */
+    public static ContractDataRequest<Contract> contractRequest(int records) {
+        List<Contract> contracts = new ArrayList<>(records);
+        for (int i = 0; i < records; i++) {
+            contracts.add(contract(i));
+        }
+        ContractDataRequest<Contract> request = new ContractDataRequest<>();
+        request.setToken("3f6c1a0e-58d2-4b8e-9a67-0c2f4e1d7b95");
+        request.setLangz_Code("zh");
+        request.setPreviousDataList(contracts);
+        return request;
+    }
+
+    /**
+     * 生成合同查询结果集，可通过beforeFirst重复读取
+     *
+     * @param rows 行数
+     * @return 结果集
+     */
+    public static SimpleResultSet contractResultSet(int rows) {
+        SimpleResultSet resultSet = new SimpleResultSet();
+        resultSet.setAutoClose(false);
+        for (String column : CONTRACT_COLUMNS) {
+            resultSet.addColumn(column, Types.VARCHAR, 200, 0);
+        }
+        resultSet.addColumn("modify_time", Types.TIMESTAMP, 23, 3);
+        for (int i = 0; i < rows; i++) {
+            resultSet.addRow(contractRow(i));
+        }
+        return resultSet;
+    }
+
+    private static Object[] contractRow(int index) {
+        String[] area = oaAreaCodes(index);
+        return new Object[]{
+                String.format("HT%s%06d", "2024", index),
+                "广东省" + (index % 21) + "号经销商" + (2024 + index % 3) + "年度销售合同",
+                "2024-03-" + String.format("%02d", 1 + index % 28),
+                "张" + (index % 50), "李" + (index % 40), "王" + (index % 60),
+                "经销", String.format("KH%08d", 10000 + index % 9973), "年度合同", "工程项目", "1",
+                "深圳市某某建设工程有限公司第" + (index % 97) + "分公司", "华南大区战略客户",
+                "建筑施工", "万元", "城市更新项目" + (index % 200), "某某片区城市更新一期工程第" + (index % 13) + "标段",
+                "广东省深圳市南山区科技园南区某某路" + (index % 500) + "号",
+                String.valueOf(100000 + index * 37L % 9000000) + ".00",
+                "2024-01-01", "2024-12-31", "华南销售事业部", String.format("CN%07d", index),
+                "年度框架合同，按季度考核回款，质保金为合同金额的百分之五", String.format("U%05d", index % 997),
+                area[0], area[1], area[2], area[3],
+                "是", "2024", "1", "0.35",
+                new Timestamp(1704038400000L + index * 60000L)
+        };
+    }
+
+    /**
+     * 合同使用的OA区域编码（省2位、市4位、区县6位、镇街9位），均在全国区域数据中存在
+     *
+     * @param index 序号
+     * @return OA区域编码
+     */
+    public static String[] oaAreaCodes(int index) {
+        int province = index % PROVINCES;
+        int city = index / PROVINCES % CITIES_PER_PROVINCE;
+        int county = index / (PROVINCES * CITIES_PER_PROVINCE) % COUNTIES_PER_CITY;
+        int town = index % TOWNS_PER_COUNTY;
+        String prov = provCode(province);
+        String cityCode = prov + String.format("%02d", city + 1);
+        String countyCode = cityCode + String.format("%02d", county + 1);
+        return new String[]{prov, cityCode, countyCode, countyCode + String.format("%03d", town + 1)};
+    }
+
+    private static String provCode(int province) {
+        return String.valueOf(11 + province);
+    }
+
+    /**
+     * 生成全国区域数据（目标系统ContractTownshipArea接口的InfoList，每条记录为一个镇街及其上级）
+     *
+     * @return 区域记录
+     */
+    public static List<TownshipArea> nationalAreas() {
+        List<TownshipArea> areas = new ArrayList<>(PROVINCES * CITIES_PER_PROVINCE * COUNTIES_PER_CITY * TOWNS_PER_COUNTY);
+        for (int p = 0; p < PROVINCES; p++) {
+            String prov = provCode(p);
+            for (int c = 1; c <= CITIES_PER_PROVINCE; c++) {
+                String city = prov + String.format("%02d", c);
+                for (int d = 1; d <= COUNTIES_PER_CITY; d++) {
+                    String county = city + String.format("%02d", d);
+                    for (int t = 1; t <= TOWNS_PER_COUNTY; t++) {
+                        TownshipArea area = new TownshipArea();
+                        area.setCode_prov(prov + "0000");
+                        area.setName_prov("省份" + prov);
+                        area.setCode_city(city + "00");
+                        area.setName_city("地级市" + city);
+                        area.setCode_coun(county);
+                        area.setName_coun("区县" + county);
+                        area.setCode_town(county + String.format("%03d", t));
+                        area.setName_town("街道办事处" + t);
+                        areas.add(area);
+                    }
+                }
+            }
+        }
+        return areas;
+    }
+
+    /**
+     * 全国区域数据接口的完整响应体
+     *
+     * @return UTF-8编码的JSON
+     */
+    public static byte[] nationalAreaResponse() {
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("state", 1);
+        response.put("mess", "");
+        response.put("InfoList", nationalAreas());
+        ByteArrayOutputStream out = new ByteArrayOutputStream(8 * 1024 * 1024);
+        JsonUtil.writeJson(out, response);
+        return out.toByteArray();
+    }
+
+    /**
+     * 全国区域数据去重后的区域列表，父级在子级之前
+     *
+     * @return 区域列表
+     */
+    public static List<AreaCode> nationalAreaCodes() {
+        Map<String, AreaCode> areaCodes = new LinkedHashMap<>();
+        for (TownshipArea area : nationalAreas()) {
+            add(areaCodes, area.getCode_prov(), area.getName_prov(), "0", 1);
+            add(areaCodes, area.getCode_city(), area.getName_city(), area.getCode_prov(), 2);
+            add(areaCodes, area.getCode_coun(), area.getName_coun(), area.getCode_city(), 3);
+            add(areaCodes, area.getCode_town(), area.getName_town(), area.getCode_coun(), 4);
+        }
+        return new ArrayList<>(areaCodes.values());
+    }
+
+    private static void add(Map<String, AreaCode> areaCodes, String code, String name, String parentCode, int level) {
+        areaCodes.computeIfAbsent(code, key -> {
+            AreaCode areaCode = new AreaCode();
+            areaCode.setCode(code);
+            areaCode.setName(name);
+            areaCode.setParentCode(parentCode);
+            areaCode.setLevel(level);
+            return areaCode;
+        });
+    }
+
+    /**
+     * 创建已加载全国区域数据的区域编码转换器，区域数据来自内存中的快照，不访问目标系统和数据库
+     *
+     * @return 区域编码转换器
+     */
+    public static AreaCodeConverter areaCodeConverter() {
+        AreaCodeDao areaCodeDao = new SnapshotAreaCodeDao(nationalAreaCodes());
+        AreaCodeStore areaCodeStore = new AreaCodeStore(null, null, areaCodeDao);
+        // 快照永不过期，不触发后台刷新
+        ReflectionTestUtils.setField(areaCodeStore, "cacheTtl", Long.MAX_VALUE);
+        areaCodeStore.getHierarchy();
+
+        AreaCodeConverter converter = new AreaCodeConverter(areaCodeStore, areaCodeDao);
+        converter.init();
+        return converter;
+    }
+
+    /**
+     * 只读的区域快照DAO，带两条特殊映射
+     */
+    private static final class SnapshotAreaCodeDao implements AreaCodeDao {
+
+        private final List<AreaCode> areaCodes;
+
+        SnapshotAreaCodeDao(List<AreaCode> areaCodes) {
+            this.areaCodes = areaCodes;
+        }
+
+        @Override
+        public AreaSnapshotMeta getSnapshotMeta() {
+            return new AreaSnapshotMeta("benchmark", new Timestamp(System.currentTimeMillis()), areaCodes.size());
+        }
+
+        @Override
+        public List<AreaCode> getSnapshotAreaCodes() {
+            return areaCodes;
+        }
+
+        @Override
+        public void saveSnapshot(Collection<AreaCode> areaCodes, String version, Timestamp fetchTime) {
+        }
+
+        @Override
+        public int touchSnapshot(Timestamp fetchTime) {
+            return 0;
+        }
+
+        @Override
+        public Map<String, String> getSpecialMappings() {
+            Map<String, String> mappings = new HashMap<>();
+            mappings.put("110101406", "110101001");
+            mappings.put("440305406", "440305001");
+            return mappings;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.seeyon.A8ContractPost.benchmark;
+
+import com.seeyon.A8ContractPost.dao.ContractRowMappers;
+import com.seeyon.A8ContractPost.model.Contract;
+import org.h2.tools.SimpleResultSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.jdbc.core.BeanPropertyRowMapper;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 合同行映射基准：读取一批OA合同查询结果并映射为Contract
+ * 结果集在内存中，只衡量映射本身；beanProperty为按反射映射的BeanPropertyRowMapper（改用显式映射前的做法），
+ * explicit为ContractRowMappers.CONTRACT
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(3)
+@State(Scope.Benchmark)
+public class ContractRowMapperBenchmark {
+
+    @Param({"500"})
+    private int rows;
+
+    private SimpleResultSet resultSet;
+    private RowMapper<Contract> beanPropertyRowMapper;
+
+    @Setup
+    public void setUp() {
+        resultSet = BenchmarkFixtures.contractResultSet(rows);
+        beanPropertyRowMapper = new BeanPropertyRowMapper<>(Contract.class);
+    }
+
+    /**
+     * 每次查询都新建BeanPropertyRowMapper，与DAO中的用法一致
+     */
+    @Benchmark
+    public void beanProperty(Blackhole blackhole) throws SQLException {
+        map(new BeanPropertyRowMapper<>(Contract.class), blackhole);
+    }
+
+    /**
+     * 复用同一个BeanPropertyRowMapper，只衡量逐行映射
+     */
+    @Benchmark
+    public void beanPropertyReused(Blackhole blackhole) throws SQLException {
+        map(beanPropertyRowMapper, blackhole);
+    }
+
+    @Benchmark
+    public void explicit(Blackhole blackhole) throws SQLException {
+        map(ContractRowMappers.CONTRACT, blackhole);
+    }
+
+    private void map(RowMapper<Contract> rowMapper, Blackhole blackhole) throws SQLException {
+        resultSet.beforeFirst();
+        int rowNum = 0;
+        while (resultSet.next()) {
+            blackhole.consume(rowMapper.mapRow(resultSet, rowNum++));
+        }
+    }
+}
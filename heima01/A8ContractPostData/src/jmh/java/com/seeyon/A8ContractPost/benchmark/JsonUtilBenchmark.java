@@ -0,0 +1,61 @@
+package com.seeyon.A8ContractPost.benchmark;
+
+import com.seeyon.A8ContractPost.model.Contract;
+import com.seeyon.A8ContractPost.model.ContractDataRequest;
+import com.seeyon.A8ContractPost.util.JsonUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 请求体序列化基准：每次提交合同、任务等接口时都要序列化ContractDataRequest，每个合同还要计算一次内容摘要
+ * records=1对应逐条提交合同（contract-chunk-size默认值），records=50对应批量提交（chunk-size默认值）
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(3)
+@State(Scope.Benchmark)
+public class JsonUtilBenchmark {
+
+    @Param({"1", "50"})
+    private int records;
+
+    private ContractDataRequest<Contract> request;
+    private Contract contract;
+
+    @Setup
+    public void setUp() {
+        request = BenchmarkFixtures.contractRequest(records);
+        contract = request.getPreviousDataList().get(0);
+    }
+
+    @Benchmark
+    public String toJson() {
+        return JsonUtil.toJson(request);
+    }
+
+    @Benchmark
+    public byte[] toJsonBytes() {
+        return JsonUtil.toJsonBytes(request);
+    }
+
+    /**
+     * 与records无关，只计算一个合同的摘要
+     */
+    @Benchmark
+    public String digestContract() {
+        return JsonUtil.digest(contract);
+    }
+}
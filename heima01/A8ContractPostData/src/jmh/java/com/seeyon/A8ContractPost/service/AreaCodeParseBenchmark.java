@@ -0,0 +1,58 @@
+package com.seeyon.A8ContractPost.service;
+
+import com.seeyon.A8ContractPost.benchmark.BenchmarkFixtures;
+import com.seeyon.A8ContractPost.model.AreaCode;
+import com.seeyon.A8ContractPost.model.AreaHierarchy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 全国区域数据加载基准：解析ContractTownshipArea接口的完整响应（约4万条镇街，逐条去重为区域列表），
+ * 以及由区域列表建立层级索引。区域数据刷新、从快照加载时各执行一次，耗时决定刷新期间的CPU和内存占用
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(3)
+@State(Scope.Benchmark)
+public class AreaCodeParseBenchmark {
+
+    private AreaCodeStore areaCodeStore;
+    private byte[] response;
+    private List<AreaCode> areaCodes;
+
+    @Setup
+    public void setUp() {
+        areaCodeStore = new AreaCodeStore(null, null, null);
+        response = BenchmarkFixtures.nationalAreaResponse();
+        areaCodes = BenchmarkFixtures.nationalAreaCodes();
+        int parsed = parseAreaCodes().size();
+        if (parsed != areaCodes.size()) {
+            throw new IllegalStateException("解析的区域数 " + parsed + " 与预期 " + areaCodes.size() + " 不一致");
+        }
+    }
+
+    @Benchmark
+    public Collection<AreaCode> parseAreaCodes() {
+        return areaCodeStore.parseAreaCodes(new ByteArrayInputStream(response));
+    }
+
+    @Benchmark
+    public AreaHierarchy buildHierarchy() {
+        return new AreaHierarchy(areaCodes, "benchmark", 0L);
+    }
+}
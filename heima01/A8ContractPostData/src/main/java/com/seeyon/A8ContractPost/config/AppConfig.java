@@ -1,14 +1,18 @@
 package com.seeyon.A8ContractPost.config;
 
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.jdbc.DataSourceBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import javax.sql.DataSource;
+import java.util.concurrent.ThreadPoolExecutor;
 
 /**
  * 应用配置类
@@ -51,4 +55,25 @@ public class AppConfig {
     public JdbcTemplate localJdbcTemplate(@Qualifier("localDataSource") DataSource dataSource) {
         return new JdbcTemplate(dataSource);
     }
-} 
\ No newline at end of file
+
+    /**
+     * 合同同步线程池
+     * 工作线程数即对目标系统的最大并发请求数；队列满时由提交线程自行执行，形成背压。
+     * 启用虚拟线程时由VirtualThreadConfig提供同名执行器
+     */
+    @Bean(name = "syncExecutor")
+    @ConditionalOnProperty(name = "contract.sync.virtual-threads.enabled", havingValue = "false", matchIfMissing = true)
+    public ThreadPoolTaskExecutor syncExecutor(@Value("${contract.sync.worker-threads:8}") int workerThreads,
+                                               @Value("${contract.sync.queue-capacity:100}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workerThreads);
+        executor.setMaxPoolSize(workerThreads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("contract-sync-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(60);
+        executor.initialize();
+        return executor;
+    }
+}
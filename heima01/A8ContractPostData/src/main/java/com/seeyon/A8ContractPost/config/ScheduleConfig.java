@@ -1,6 +1,6 @@
 package com.seeyon.A8ContractPost.config;
 
-import com.seeyon.A8ContractPost.service.SyncService;
+import com.seeyon.A8ContractPost.service.SyncJobManager;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
@@ -8,18 +8,32 @@ import org.springframework.scheduling.annotation.Scheduled;
 
 /**
  * 定时任务配置类
+ * 定时任务只负责向SyncJobManager提交同步任务，与手动触发的任务依次执行，不会重叠；
+ * 同一任务仍在排队或执行中时不会重复提交
  */
 @Slf4j
 @Configuration
 public class ScheduleConfig {
 
-    private final SyncService syncService;
+    private final SyncJobManager syncJobManager;
     
     @Value("${contract.sync.batch-size:50}")
     private int batchSize;
 
-    public ScheduleConfig(SyncService syncService) {
-        this.syncService = syncService;
+    @Value("${contract.sync.incremental.enabled:false}")
+    private boolean incrementalEnabled;
+
+    @Value("${contract.sync.incremental.page-size:200}")
+    private int incrementalPageSize;
+
+    @Value("${contract.sync.retry.enabled:true}")
+    private boolean retryEnabled;
+
+    @Value("${contract.sync.retry.batch-size:50}")
+    private int retryBatchSize;
+
+    public ScheduleConfig(SyncJobManager syncJobManager) {
+        this.syncJobManager = syncJobManager;
     }
 
     /**
@@ -28,12 +42,44 @@ public class ScheduleConfig {
      */
     @Scheduled(cron = "${contract.sync.cron}")
     public void scheduledSync() {
-        log.info("开始执行定时同步任务");
+        log.info("提交定时同步任务");
+        try {
+            syncJobManager.submit(SyncJobManager.TYPE_SYNC, batchSize, SyncJobManager.TRIGGER_SCHEDULED);
+        } catch (Exception e) {
+            log.error("提交定时同步任务异常", e);
+        }
+    }
+
+    /**
+     * 定时增量同步合同数据
+     * 每隔poll-interval毫秒提交一次，上一次仍在排队或执行中时不重复提交
+     */
+    @Scheduled(fixedDelayString = "${contract.sync.incremental.poll-interval:60000}")
+    public void scheduledIncrementalSync() {
+        if (!incrementalEnabled) {
+            return;
+        }
+        log.debug("提交增量同步任务");
+        try {
+            syncJobManager.submit(SyncJobManager.TYPE_INCREMENTAL, incrementalPageSize, SyncJobManager.TRIGGER_SCHEDULED);
+        } catch (Exception e) {
+            log.error("提交增量同步任务异常", e);
+        }
+    }
+
+    /**
+     * 定时重试同步失败的合同
+     * 只处理重试队列中已到重试时间的合同，不扫描OA
+     */
+    @Scheduled(fixedDelayString = "${contract.sync.retry.poll-interval:30000}")
+    public void scheduledRetry() {
+        if (!retryEnabled) {
+            return;
+        }
         try {
-            String result = syncService.sync(batchSize);
-            log.info("定时同步任务执行结果: {}", result);
+            syncJobManager.submit(SyncJobManager.TYPE_RETRY, retryBatchSize, SyncJobManager.TRIGGER_SCHEDULED);
         } catch (Exception e) {
-            log.error("定时同步任务执行异常", e);
+            log.error("提交失败重试任务异常", e);
         }
     }
-} 
\ No newline at end of file
+}
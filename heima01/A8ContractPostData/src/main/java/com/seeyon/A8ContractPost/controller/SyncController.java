@@ -1,11 +1,14 @@
 package com.seeyon.A8ContractPost.controller;
 
+import com.seeyon.A8ContractPost.service.SyncJobManager;
 import com.seeyon.A8ContractPost.service.SyncService;
+import com.seeyon.A8ContractPost.service.SyncShardManager;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -17,35 +20,155 @@ import java.util.Map;
 public class SyncController {
 
     private final SyncService syncService;
+
+    private final SyncJobManager syncJobManager;
+
+    private final SyncShardManager syncShardManager;
     
     @Value("${contract.sync.batch-size:50}")
     private int defaultBatchSize;
 
-    public SyncController(SyncService syncService) {
+    public SyncController(SyncService syncService, SyncJobManager syncJobManager,
+                          SyncShardManager syncShardManager) {
         this.syncService = syncService;
+        this.syncJobManager = syncJobManager;
+        this.syncShardManager = syncShardManager;
     }
 
     /**
      * 手动触发同步
+     * 提交后立即返回任务ID，进度通过 GET /api/sync/jobs/{jobId} 查询
      * 
      * @param batchSize 批量大小，可选参数
-     * @return 同步结果
+     * @return 任务信息
      */
     @PostMapping
     public Map<String, Object> triggerSync(@RequestParam(required = false) Integer batchSize) {
         log.info("手动触发同步任务，批量大小: {}", batchSize != null ? batchSize : defaultBatchSize);
+        return submitJob(SyncJobManager.TYPE_SYNC, batchSize != null ? batchSize : defaultBatchSize);
+    }
+
+    /**
+     * 立即重试重试队列中已到期的失败合同
+     * 提交后立即返回任务ID
+     * 
+     * @param limit 重试的合同数，可选参数
+     * @return 任务信息
+     */
+    @PostMapping("/retry")
+    public Map<String, Object> triggerRetry(@RequestParam(required = false) Integer limit) {
+        log.info("手动触发失败重试任务，数量: {}", limit);
+        return submitJob(SyncJobManager.TYPE_RETRY, limit != null ? limit : defaultBatchSize);
+    }
+
+    /**
+     * 将已放弃重试的合同重新放回重试队列
+     * 
+     * @param orderNo 合同号，可选参数，不传时处理全部已放弃的合同
+     * @return 处理结果
+     */
+    @PostMapping("/retry/requeue")
+    public Map<String, Object> requeueDead(@RequestParam(required = false) String orderNo) {
+        log.info("手动重新加入重试队列: {}", orderNo);
         
         Map<String, Object> result = new HashMap<>();
         try {
-            String syncResult = syncService.sync(batchSize != null ? batchSize : defaultBatchSize);
             result.put("success", true);
-            result.put("message", syncResult);
+            result.put("message", syncService.requeueDead(orderNo));
         } catch (Exception e) {
-            log.error("手动同步任务执行异常", e);
+            log.error("重新加入重试队列失败", e);
             result.put("success", false);
-            result.put("message", "同步失败: " + e.getMessage());
+            result.put("message", "处理失败: " + e.getMessage());
+        }
+        
+        return result;
+    }
+
+    /**
+     * 查询同步统计
+     * 服务启动以来因内容未变化而跳过的合同数、记录数、字节数，以及各类同步运行最近一次的摘要；
+     * 详细的耗时指标见 /actuator/prometheus
+     * 
+     * @return 统计信息
+     */
+    @GetMapping("/report")
+    public Map<String, Object> getSyncReport() {
+        return syncService.getSyncReport();
+    }
+
+    /**
+     * 查询多实例分片持有情况
+     * 本实例持有的分片、在线实例以及全部分片的租约
+     * 
+     * @return 分片信息
+     */
+    @GetMapping("/shards")
+    public Map<String, Object> getShards() {
+        return syncShardManager.getShardReport();
+    }
+
+    /**
+     * 手动触发全量回填
+     * 提交后立即返回任务ID，回填耗时较长，可随时通过 POST /api/sync/jobs/{jobId}/cancel 取消
+     * 
+     * @param chunkSize 分块大小，可选参数
+     * @return 任务信息
+     */
+    @PostMapping("/backfill")
+    public Map<String, Object> triggerBackfill(@RequestParam(required = false) Integer chunkSize) {
+        log.info("手动触发全量回填任务，分块大小: {}", chunkSize);
+        return submitJob(SyncJobManager.TYPE_BACKFILL, chunkSize != null ? chunkSize : 0);
+    }
+
+    /**
+     * 查询最近的同步任务，最新提交的在前
+     * 
+     * @return 任务列表
+     */
+    @GetMapping("/jobs")
+    public List<Map<String, Object>> listJobs() {
+        return syncJobManager.listJobs();
+    }
+
+    /**
+     * 查询同步任务的状态和进度
+     * 
+     * @param jobId 任务ID
+     * @return 任务信息
+     */
+    @GetMapping("/jobs/{jobId}")
+    public Map<String, Object> getJob(@PathVariable String jobId) {
+        Map<String, Object> job = syncJobManager.getJob(jobId);
+        if (job == null) {
+            return jobNotFound(jobId);
+        }
+        
+        Map<String, Object> result = new HashMap<>();
+        result.put("success", true);
+        result.put("job", job);
+        return result;
+    }
+
+    /**
+     * 取消同步任务
+     * 排队中的任务直接取消；执行中的任务在正在同步的合同完成后停止
+     * 
+     * @param jobId 任务ID
+     * @return 任务信息
+     */
+    @PostMapping("/jobs/{jobId}/cancel")
+    public Map<String, Object> cancelJob(@PathVariable String jobId) {
+        log.info("手动取消同步任务: {}", jobId);
+        
+        Map<String, Object> job = syncJobManager.cancel(jobId);
+        if (job == null) {
+            return jobNotFound(jobId);
         }
         
+        Map<String, Object> result = new HashMap<>();
+        result.put("success", true);
+        result.put("message", "已请求取消同步任务");
+        result.put("job", job);
         return result;
     }
 
@@ -72,4 +195,29 @@ public class SyncController {
         
         return result;
     }
+
+    private Map<String, Object> submitJob(String type, int size) {
+        Map<String, Object> result = new HashMap<>();
+        try {
+            Map<String, Object> job = syncJobManager.submit(type, size, SyncJobManager.TRIGGER_MANUAL);
+            result.put("success", true);
+            result.put("jobId", job.get("jobId"));
+            result.put("message", Boolean.TRUE.equals(job.get("deduplicated"))
+                    ? "已有相同的同步任务在排队或执行中，未重复提交" : "同步任务已提交");
+            result.put("job", job);
+        } catch (Exception e) {
+            log.error("提交同步任务失败", e);
+            result.put("success", false);
+            result.put("message", "提交失败: " + e.getMessage());
+        }
+        
+        return result;
+    }
+
+    private Map<String, Object> jobNotFound(String jobId) {
+        Map<String, Object> result = new HashMap<>();
+        result.put("success", false);
+        result.put("message", "同步任务不存在或已过期: " + jobId);
+        return result;
+    }
 } 
\ No newline at end of file
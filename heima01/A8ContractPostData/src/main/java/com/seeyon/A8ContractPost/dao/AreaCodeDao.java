@@ -0,0 +1,53 @@
+package com.seeyon.A8ContractPost.dao;
+
+import com.seeyon.A8ContractPost.model.AreaCode;
+import com.seeyon.A8ContractPost.model.AreaSnapshotMeta;
+
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 区域数据本地快照DAO接口
+ */
+public interface AreaCodeDao {
+    
+    /**
+     * 获取快照信息
+     *
+     * @return 快照信息，不存在时返回null
+     */
+    AreaSnapshotMeta getSnapshotMeta();
+    
+    /**
+     * 获取快照中的区域数据
+     *
+     * @return 区域列表，父级在子级之前
+     */
+    List<AreaCode> getSnapshotAreaCodes();
+    
+    /**
+     * 替换快照
+     *
+     * @param areaCodes 区域列表，父级在子级之前
+     * @param version   数据版本
+     * @param fetchTime 获取时间
+     */
+    void saveSnapshot(Collection<AreaCode> areaCodes, String version, Timestamp fetchTime);
+    
+    /**
+     * 仅更新快照的获取时间（远程数据未变化时）
+     *
+     * @param fetchTime 获取时间
+     * @return 更新行数
+     */
+    int touchSnapshot(Timestamp fetchTime);
+    
+    /**
+     * 获取区域编码特殊映射
+     *
+     * @return OA系统编码到目标系统编码的映射
+     */
+    Map<String, String> getSpecialMappings();
+}
@@ -0,0 +1,192 @@
+package com.seeyon.A8ContractPost.dao;
+
+import com.seeyon.A8ContractPost.model.AreaCode;
+import com.seeyon.A8ContractPost.model.AreaSnapshotMeta;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 区域数据本地快照DAO实现类
+ * 快照保存在本地H2库中，启动时直接从本地加载，不必等待远程接口
+ */
+@Slf4j
+@Repository
+public class AreaCodeDaoImpl implements AreaCodeDao {
+
+    /**
+     * 快照信息表中唯一一行的主键
+     */
+    private static final int META_ID = 1;
+
+    private static final int BATCH_SIZE = 1000;
+
+    private final JdbcTemplate localJdbcTemplate;
+
+    public AreaCodeDaoImpl(@Qualifier("localJdbcTemplate") JdbcTemplate localJdbcTemplate) {
+        this.localJdbcTemplate = localJdbcTemplate;
+
+        // 初始化本地数据库表
+        initLocalTables();
+    }
+
+    /**
+     * 初始化本地数据库表
+     */
+    private void initLocalTables() {
+        try {
+            // 创建区域快照表，seq保存原始顺序，保证父级在子级之前
+            localJdbcTemplate.execute("CREATE TABLE IF NOT EXISTS area_code_snapshot (" +
+                    "seq INT PRIMARY KEY, " +
+                    "code VARCHAR(20), " +
+                    "name VARCHAR(100), " +
+                    "parent_code VARCHAR(20), " +
+                    "area_level INT" +
+                    ")");
+
+            // 创建区域快照信息表
+            localJdbcTemplate.execute("CREATE TABLE IF NOT EXISTS area_code_snapshot_meta (" +
+                    "id INT PRIMARY KEY, " +
+                    "version VARCHAR(64), " +
+                    "fetch_time TIMESTAMP, " +
+                    "record_count INT, " +
+                    "update_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP" +
+                    ")");
+
+            // 创建区域编码特殊映射表，用于修正OA系统中目标系统不认可的编码
+            localJdbcTemplate.execute("CREATE TABLE IF NOT EXISTS area_code_mapping (" +
+                    "oa_code VARCHAR(20) PRIMARY KEY, " +
+                    "target_code VARCHAR(20) NOT NULL, " +
+                    "remark VARCHAR(200), " +
+                    "update_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP" +
+                    ")");
+        } catch (Exception e) {
+            log.error("初始化区域快照表失败", e);
+            throw new RuntimeException("初始化区域快照表失败", e);
+        }
+    }
+
+    @Override
+    public AreaSnapshotMeta getSnapshotMeta() {
+        String sql = "SELECT version, fetch_time, record_count FROM area_code_snapshot_meta WHERE id = ?";
+
+        try {
+            List<AreaSnapshotMeta> metas = localJdbcTemplate.query(sql,
+                    (rs, rowNum) -> new AreaSnapshotMeta(rs.getString("version"),
+                            rs.getTimestamp("fetch_time"), rs.getInt("record_count")),
+                    META_ID);
+            return metas.isEmpty() ? null : metas.get(0);
+        } catch (Exception e) {
+            log.error("获取区域快照信息失败", e);
+            throw new RuntimeException("获取区域快照信息失败", e);
+        }
+    }
+
+    @Override
+    public List<AreaCode> getSnapshotAreaCodes() {
+        String sql = "SELECT code, name, parent_code, area_level FROM area_code_snapshot ORDER BY seq";
+
+        try {
+            return localJdbcTemplate.query(sql, (rs, rowNum) -> {
+                AreaCode areaCode = new AreaCode();
+                areaCode.setCode(rs.getString("code"));
+                areaCode.setName(rs.getString("name"));
+                areaCode.setParentCode(rs.getString("parent_code"));
+                areaCode.setLevel(rs.getInt("area_level"));
+                return areaCode;
+            });
+        } catch (Exception e) {
+            log.error("获取区域快照数据失败", e);
+            throw new RuntimeException("获取区域快照数据失败", e);
+        }
+    }
+
+    @Override
+    public void saveSnapshot(Collection<AreaCode> areaCodes, String version, Timestamp fetchTime) {
+        try {
+            // 在同一个事务中替换快照，读取方不会看到只写了一半的数据
+            localJdbcTemplate.execute((ConnectionCallback<Void>) con -> {
+                boolean autoCommit = con.getAutoCommit();
+                con.setAutoCommit(false);
+                try (Statement statement = con.createStatement();
+                     PreparedStatement insert = con.prepareStatement(
+                             "INSERT INTO area_code_snapshot (seq, code, name, parent_code, area_level) VALUES (?, ?, ?, ?, ?)");
+                     PreparedStatement meta = con.prepareStatement(
+                             "MERGE INTO area_code_snapshot_meta (id, version, fetch_time, record_count, update_time) " +
+                                     "KEY (id) VALUES (?, ?, ?, ?, CURRENT_TIMESTAMP)")) {
+                    statement.execute("DELETE FROM area_code_snapshot");
+
+                    int seq = 0;
+                    for (AreaCode areaCode : areaCodes) {
+                        insert.setInt(1, seq++);
+                        insert.setString(2, areaCode.getCode());
+                        insert.setString(3, areaCode.getName());
+                        insert.setString(4, areaCode.getParentCode());
+                        insert.setInt(5, areaCode.getLevel());
+                        insert.addBatch();
+                        if (seq % BATCH_SIZE == 0) {
+                            insert.executeBatch();
+                        }
+                    }
+                    insert.executeBatch();
+
+                    meta.setInt(1, META_ID);
+                    meta.setString(2, version);
+                    meta.setTimestamp(3, fetchTime);
+                    meta.setInt(4, areaCodes.size());
+                    meta.executeUpdate();
+
+                    con.commit();
+                } catch (Exception e) {
+                    con.rollback();
+                    throw e;
+                } finally {
+                    con.setAutoCommit(autoCommit);
+                }
+                return null;
+            });
+            log.info("区域快照已保存，版本: {}, 共 {} 条", version, areaCodes.size());
+        } catch (Exception e) {
+            log.error("保存区域快照失败", e);
+            throw new RuntimeException("保存区域快照失败", e);
+        }
+    }
+
+    @Override
+    public int touchSnapshot(Timestamp fetchTime) {
+        String sql = "UPDATE area_code_snapshot_meta SET fetch_time = ?, update_time = CURRENT_TIMESTAMP WHERE id = ?";
+
+        try {
+            return localJdbcTemplate.update(sql, fetchTime, META_ID);
+        } catch (Exception e) {
+            log.error("更新区域快照时间失败", e);
+            throw new RuntimeException("更新区域快照时间失败", e);
+        }
+    }
+
+    @Override
+    public Map<String, String> getSpecialMappings() {
+        String sql = "SELECT oa_code, target_code FROM area_code_mapping";
+
+        try {
+            Map<String, String> mappings = new HashMap<>();
+            localJdbcTemplate.query(sql, rs -> {
+                mappings.put(rs.getString("oa_code"), rs.getString("target_code"));
+            });
+            return mappings;
+        } catch (Exception e) {
+            log.error("获取区域编码特殊映射失败", e);
+            throw new RuntimeException("获取区域编码特殊映射失败", e);
+        }
+    }
+}
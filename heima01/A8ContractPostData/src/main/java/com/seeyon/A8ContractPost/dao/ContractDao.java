@@ -4,8 +4,14 @@ import com.seeyon.A8ContractPost.model.Contract;
 import com.seeyon.A8ContractPost.model.ContractArea;
 import com.seeyon.A8ContractPost.model.ContractGuarantee;
 import com.seeyon.A8ContractPost.model.ContractTask;
+import com.seeyon.A8ContractPost.model.SyncDigest;
+import com.seeyon.A8ContractPost.model.SyncLog;
+import com.seeyon.A8ContractPost.model.SyncStatus;
+import com.seeyon.A8ContractPost.model.SyncWatermark;
 
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * 合同DAO接口
@@ -13,12 +19,64 @@ import java.util.List;
 public interface ContractDao {
     
     /**
-     * 获取待同步的合同列表
+     * 增量获取修改时间在水位线之后的合同（按修改时间、合同号升序的键集分页）
      *
-     * @param limit 限制数量
+     * @param watermark 上次同步到的水位线，为null时从头开始
+     * @param limit     限制数量
      * @return 合同列表
      */
-    List<Contract> getContractsToSync(int limit);
+    List<Contract> getChangedContracts(SyncWatermark watermark, int limit);
+    
+    /**
+     * 按合同号批量获取合同
+     *
+     * @param orderNos 合同号列表
+     * @return 合同列表
+     */
+    List<Contract> getContractsByOrderNos(List<String> orderNos);
+    
+    /**
+     * 流式读取OA中的全部合同，按固定大小分块交给consumer处理
+     * consumer处理完一块后才会继续读取，内存占用与合同总数无关
+     * consumer抛出CancellationException时停止读取并原样抛出
+     *
+     * @param fetchSize     每次从数据库获取的行数
+     * @param chunkSize     每块合同数
+     * @param chunkConsumer 分块处理器
+     */
+    void streamContracts(int fetchSize, int chunkSize, Consumer<List<Contract>> chunkConsumer);
+    
+    /**
+     * 获取增量同步水位线
+     *
+     * @param entityType 数据类型
+     * @return 水位线，不存在时返回null
+     */
+    SyncWatermark getWatermark(String entityType);
+    
+    /**
+     * 保存增量同步水位线
+     *
+     * @param watermark 水位线
+     * @return 更新行数
+     */
+    int saveWatermark(SyncWatermark watermark);
+    
+    /**
+     * 批量获取合同上次成功同步的内容摘要
+     *
+     * @param orderNos 合同号列表
+     * @return 按合同号索引的摘要，从未同步成功的合同不在结果中
+     */
+    Map<String, SyncDigest> getSyncDigests(List<String> orderNos);
+    
+    /**
+     * 批量保存合同成功同步的内容摘要
+     *
+     * @param digests 摘要列表
+     * @return 各条语句的更新行数
+     */
+    int[] batchSaveSyncDigests(List<SyncDigest> digests);
     
     /**
      * 获取合同的任务列表
@@ -44,6 +102,30 @@ public interface ContractDao {
      */
     List<ContractArea> getContractAreas(String orderNo);
     
+    /**
+     * 批量获取多个合同的任务列表
+     *
+     * @param orderNos 合同号列表
+     * @return 按合同号分组的任务列表
+     */
+    Map<String, List<ContractTask>> getContractTasksByOrderNos(List<String> orderNos);
+    
+    /**
+     * 批量获取多个合同的保证金列表
+     *
+     * @param orderNos 合同号列表
+     * @return 按合同号分组的保证金列表
+     */
+    Map<String, List<ContractGuarantee>> getContractGuaranteesByOrderNos(List<String> orderNos);
+    
+    /**
+     * 批量获取多个合同的区域列表
+     *
+     * @param orderNos 合同号列表
+     * @return 按合同号分组的区域列表
+     */
+    Map<String, List<ContractArea>> getContractAreasByOrderNos(List<String> orderNos);
+    
     /**
      * 更新合同同步状态
      *
@@ -63,4 +145,20 @@ public interface ContractDao {
      * @return 插入行数
      */
     int logSync(String orderNo, String type, String content);
-} 
\ No newline at end of file
+    
+    /**
+     * 批量更新合同同步状态
+     *
+     * @param statuses 同步状态列表
+     * @return 各条语句的更新行数
+     */
+    int[] batchUpdateContractSyncStatus(List<SyncStatus> statuses);
+    
+    /**
+     * 批量记录同步日志
+     *
+     * @param logs 同步日志列表
+     * @return 各条语句的插入行数
+     */
+    int[] batchLogSync(List<SyncLog> logs);
+}
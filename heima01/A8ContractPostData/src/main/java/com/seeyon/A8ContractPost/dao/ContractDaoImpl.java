@@ -4,48 +4,130 @@ import com.seeyon.A8ContractPost.model.Contract;
 import com.seeyon.A8ContractPost.model.ContractArea;
 import com.seeyon.A8ContractPost.model.ContractGuarantee;
 import com.seeyon.A8ContractPost.model.ContractTask;
+import com.seeyon.A8ContractPost.model.SyncDigest;
+import com.seeyon.A8ContractPost.model.SyncLog;
+import com.seeyon.A8ContractPost.model.SyncStatus;
+import com.seeyon.A8ContractPost.model.SyncWatermark;
+import com.seeyon.A8ContractPost.util.SyncMetrics;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
-import org.springframework.jdbc.core.BeanPropertyRowMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Repository;
 
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
  * 合同DAO实现类
+ * 合同数据从OA库读取；同步日志和水位线保存在本地库中。同步状态、内容摘要默认也保存在本地库中，
+ * 启用多实例分片时保存在各实例共用的OA库中（由 db/shard-schema.sql 预先建好），分片转给其他实例后，
+ * 新的持有实例据此跳过已提交的合同、沿用目标系统订单号，不会再次调用新增接口
  */
 @Slf4j
 @Repository
 public class ContractDaoImpl implements ContractDao {
 
+    /**
+     * 单次IN查询的最大参数个数
+     */
+    private static final int MAX_IN_PARAMS = 1000;
+
+    /**
+     * OA合同表查询字段，日期列取日期部分（CAST AS DATE，读出为yyyy-MM-dd），SQL Server与H2通用
+     * contract_no作为order_no，与同步状态表、子表的关联键保持一致
+     */
+    private static final String CONTRACT_COLUMNS = "c.contract_no as order_no, " +
+            "c.contract_name, " +
+            "CAST(c.signcontract_date AS DATE) as signcontract_date, " +
+            "c.first_check, " +
+            "c.recheck, " +
+            "c.signcontract_man, " +
+            "c.property, " +
+            "c.cust_no, " +
+            "c.contract_type, " +
+            "c.project_type, " +
+            "c.link_yes, " +
+            "c.pur_unit, " +
+            "c.zhanl_name, " +
+            "c.industry, " +
+            "c.industry_dw, " +
+            "c.project, " +
+            "c.project_name, " +
+            "c.project_addr, " +
+            "c.contract_amount, " +
+            "CAST(c.begin_date AS DATE) as begin_date, " +
+            "CAST(c.end_date AS DATE) as end_date, " +
+            "c.o_unit, " +
+            "c.contract_num, " +
+            "c.note, " +
+            "c.create_code, " +
+            "c.Code_prov, " +
+            "c.Code_city, " +
+            "c.Code_coun, " +
+            "c.Code_town, " +
+            "c.dealer_agreement, " +
+            "c.year_contract, " +
+            "c.been_signed, " +
+            "c.ass_rat, " +
+            "c.modify_time ";
+
     private final JdbcTemplate oaJdbcTemplate;
     private final JdbcTemplate localJdbcTemplate;
+    /**
+     * 同步状态、内容摘要所在的库
+     */
+    private final JdbcTemplate stateJdbcTemplate;
+    private final SyncMetrics syncMetrics;
 
     public ContractDaoImpl(@Qualifier("oaJdbcTemplate") JdbcTemplate oaJdbcTemplate,
-                           @Qualifier("localJdbcTemplate") JdbcTemplate localJdbcTemplate) {
+                           @Qualifier("localJdbcTemplate") JdbcTemplate localJdbcTemplate,
+                           @Value("${contract.sync.shard.enabled:false}") boolean shardEnabled,
+                           SyncMetrics syncMetrics) {
         this.oaJdbcTemplate = oaJdbcTemplate;
         this.localJdbcTemplate = localJdbcTemplate;
+        this.stateJdbcTemplate = shardEnabled ? oaJdbcTemplate : localJdbcTemplate;
+        this.syncMetrics = syncMetrics;
         
         // 初始化本地数据库表
-        initLocalTables();
+        initLocalTables(!shardEnabled);
+        if (shardEnabled) {
+            SyncSharedSchema.requireTable(stateJdbcTemplate, "contract_sync_status");
+            SyncSharedSchema.requireTable(stateJdbcTemplate, "contract_sync_digest");
+        }
     }
 
     /**
      * 初始化本地数据库表
+     *
+     * @param withState 是否同时创建同步状态表和内容摘要表（未启用多实例分片时）
      */
-    private void initLocalTables() {
+    private void initLocalTables(boolean withState) {
         try {
             // 创建同步状态表
-            localJdbcTemplate.execute("CREATE TABLE IF NOT EXISTS contract_sync_status (" +
-                    "order_no VARCHAR(50) PRIMARY KEY, " +
-                    "status INT DEFAULT 0, " +
-                    "message VARCHAR(500), " +
-                    "sync_time TIMESTAMP, " +
-                    "create_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP, " +
-                    "update_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP" +
-                    ")");
+            if (withState) {
+                localJdbcTemplate.execute("CREATE TABLE IF NOT EXISTS contract_sync_status (" +
+                        "order_no VARCHAR(50) PRIMARY KEY, " +
+                        "status INT DEFAULT 0, " +
+                        "message VARCHAR(500), " +
+                        "sync_time TIMESTAMP, " +
+                        "create_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP, " +
+                        "update_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP" +
+                        ")");
+            }
             
             // 创建同步日志表
             localJdbcTemplate.execute("CREATE TABLE IF NOT EXISTS contract_sync_log (" +
@@ -56,6 +138,29 @@ public class ContractDaoImpl implements ContractDao {
                     "create_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP" +
                     ")");
             
+            // 创建增量同步水位线表
+            localJdbcTemplate.execute("CREATE TABLE IF NOT EXISTS contract_sync_watermark (" +
+                    "entity_type VARCHAR(50) PRIMARY KEY, " +
+                    "last_modify_time TIMESTAMP, " +
+                    "last_key VARCHAR(50), " +
+                    "update_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP" +
+                    ")");
+            
+            // 创建同步内容摘要表，记录每个合同上次成功提交的内容
+            if (withState) {
+                localJdbcTemplate.execute("CREATE TABLE IF NOT EXISTS contract_sync_digest (" +
+                        "order_no VARCHAR(50) PRIMARY KEY, " +
+                        "new_order_no VARCHAR(50), " +
+                        "contract_digest VARCHAR(32), " +
+                        "tasks_digest VARCHAR(32), " +
+                        "guarantees_digest VARCHAR(32), " +
+                        "areas_digest VARCHAR(32), " +
+                        "record_count INT, " +
+                        "payload_bytes BIGINT, " +
+                        "update_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP" +
+                        ")");
+            }
+            
             log.info("本地数据库表初始化成功");
         } catch (Exception e) {
             log.error("初始化本地数据库表失败", e);
@@ -64,54 +169,216 @@ public class ContractDaoImpl implements ContractDao {
     }
 
     @Override
-    public List<Contract> getContractsToSync(int limit) {
-        // 这里需要根据实际OA系统的数据库结构编写SQL
-        // 以下是示例SQL，需要根据实际情况修改
-        String sql = "SELECT " +
-                "c.contract_name, " +
-                "TO_CHAR(c.signcontract_date, 'YYYY-MM-DD') as signcontract_date, " +
-                "c.first_check, " +
-                "c.recheck, " +
-                "c.signcontract_man, " +
-                "c.property, " +
-                "c.cust_no, " +
-                "c.contract_type, " +
-                "c.project_type, " +
-                "c.link_yes, " +
-                "c.pur_unit, " +
-                "c.zhanl_name, " +
-                "c.industry, " +
-                "c.industry_dw, " +
-                "c.project, " +
-                "c.project_name, " +
-                "c.project_addr, " +
-                "c.contract_amount, " +
-                "TO_CHAR(c.begin_date, 'YYYY-MM-DD') as begin_date, " +
-                "TO_CHAR(c.end_date, 'YYYY-MM-DD') as end_date, " +
-                "c.o_unit, " +
-                "c.contract_num, " +
-                "c.note, " +
-                "c.create_code, " +
-                "c.Code_prov, " +
-                "c.Code_city, " +
-                "c.Code_coun, " +
-                "c.Code_town, " +
-                "c.dealer_agreement, " +
-                "c.year_contract, " +
-                "c.been_signed, " +
-                "c.ass_rat " +
+    public List<Contract> getChangedContracts(SyncWatermark watermark, int limit) {
+        // 按 (modify_time, contract_no) 键集分页，修改时间相同的记录也不会遗漏或重复
+        // SQL Server驱动默认sendTimeAsDatetime=true，Timestamp参数按datetime比较，与列精度一致
+        try {
+            if (watermark == null || watermark.getLastModifyTime() == null) {
+                String sql = "SELECT TOP (?) " + CONTRACT_COLUMNS +
+                        "FROM contract c " +
+                        "WHERE c.modify_time IS NOT NULL " +
+                        "ORDER BY c.modify_time, c.contract_no";
+                return syncMetrics.timeOaQuery("changedContracts",
+                        () -> oaJdbcTemplate.query(sql, ContractRowMappers.CONTRACT, limit));
+            }
+            
+            String sql = "SELECT TOP (?) " + CONTRACT_COLUMNS +
+                    "FROM contract c " +
+                    "WHERE c.modify_time > ? " +
+                    "OR (c.modify_time = ? AND c.contract_no > ?) " +
+                    "ORDER BY c.modify_time, c.contract_no";
+            Timestamp lastModifyTime = watermark.getLastModifyTime();
+            String lastKey = watermark.getLastKey() == null ? "" : watermark.getLastKey();
+            return syncMetrics.timeOaQuery("changedContracts", () -> oaJdbcTemplate.query(sql,
+                    ContractRowMappers.CONTRACT, limit, lastModifyTime, lastModifyTime, lastKey));
+        } catch (Exception e) {
+            log.error("增量获取合同列表失败: {}", watermark, e);
+            throw new RuntimeException("增量获取合同列表失败", e);
+        }
+    }
+
+    @Override
+    public List<Contract> getContractsByOrderNos(List<String> orderNos) {
+        String sql = "SELECT " + CONTRACT_COLUMNS +
                 "FROM contract c " +
-                "LEFT JOIN contract_sync_status s ON c.contract_no = s.order_no " +
-                "WHERE s.order_no IS NULL OR s.status = 0 " +
-                "ORDER BY c.create_time DESC " +
-                "LIMIT ?";
+                "WHERE c.contract_no IN ";
         
         try {
-            return oaJdbcTemplate.query(sql, new BeanPropertyRowMapper<>(Contract.class), limit);
+            return syncMetrics.timeOaQuery("contractsByOrderNos",
+                    () -> queryInChunks(sql, orderNos, ContractRowMappers.CONTRACT));
         } catch (Exception e) {
-            log.error("获取待同步合同列表失败", e);
-            throw new RuntimeException("获取待同步合同列表失败", e);
+            log.error("按合同号获取合同列表失败: {}", orderNos, e);
+            throw new RuntimeException("按合同号获取合同列表失败", e);
+        }
+    }
+
+    @Override
+    public void streamContracts(int fetchSize, int chunkSize, Consumer<List<Contract>> chunkConsumer) {
+        String sql = "SELECT " + CONTRACT_COLUMNS +
+                "FROM contract c " +
+                "ORDER BY c.contract_no";
+        
+        // 只进只读游标 + fetchSize，驱动按批从服务端取行，不会把整个结果集读入内存
+        PreparedStatementCreator statementCreator = con -> {
+            PreparedStatement ps = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(fetchSize);
+            return ps;
+        };
+        
+        List<Contract> chunk = new ArrayList<>(chunkSize);
+        int[] rowNum = {0};
+        try {
+            oaJdbcTemplate.query(statementCreator, (RowCallbackHandler) rs -> {
+                chunk.add(ContractRowMappers.CONTRACT.mapRow(rs, rowNum[0]++));
+                if (chunk.size() >= chunkSize) {
+                    chunkConsumer.accept(new ArrayList<>(chunk));
+                    chunk.clear();
+                }
+            });
+            if (!chunk.isEmpty()) {
+                chunkConsumer.accept(new ArrayList<>(chunk));
+            }
+            log.info("流式读取合同完成，共 {} 条", rowNum[0]);
+        } catch (CancellationException e) {
+            // 分块处理器请求停止读取
+            log.info("流式读取合同已中止，已读取 {} 条", rowNum[0]);
+            throw e;
+        } catch (Exception e) {
+            log.error("流式读取合同失败，已读取 {} 条", rowNum[0], e);
+            throw new RuntimeException("流式读取合同失败", e);
+        }
+    }
+
+    @Override
+    public SyncWatermark getWatermark(String entityType) {
+        String sql = "SELECT entity_type, last_modify_time, last_key FROM contract_sync_watermark WHERE entity_type = ?";
+        
+        try {
+            List<SyncWatermark> watermarks = localJdbcTemplate.query(sql,
+                    (rs, rowNum) -> new SyncWatermark(rs.getString("entity_type"),
+                            rs.getTimestamp("last_modify_time"), rs.getString("last_key")),
+                    entityType);
+            return watermarks.isEmpty() ? null : watermarks.get(0);
+        } catch (Exception e) {
+            log.error("获取同步水位线失败: {}", entityType, e);
+            throw new RuntimeException("获取同步水位线失败", e);
+        }
+    }
+
+    @Override
+    public int saveWatermark(SyncWatermark watermark) {
+        String sql = "MERGE INTO contract_sync_watermark w " +
+                "USING (SELECT CAST(? AS VARCHAR(50)) as entity_type) t " +
+                "ON (w.entity_type = t.entity_type) " +
+                "WHEN MATCHED THEN " +
+                "  UPDATE SET w.last_modify_time = ?, w.last_key = ?, w.update_time = CURRENT_TIMESTAMP " +
+                "WHEN NOT MATCHED THEN " +
+                "  INSERT (entity_type, last_modify_time, last_key) " +
+                "  VALUES (?, ?, ?)";
+        
+        try {
+            return syncMetrics.timeLocalWrite("saveWatermark", () -> localJdbcTemplate.update(sql,
+                    watermark.getEntityType(), watermark.getLastModifyTime(), watermark.getLastKey(),
+                    watermark.getEntityType(), watermark.getLastModifyTime(), watermark.getLastKey()));
+        } catch (Exception e) {
+            log.error("保存同步水位线失败: {}", watermark, e);
+            throw new RuntimeException("保存同步水位线失败", e);
+        }
+    }
+
+    @Override
+    public Map<String, SyncDigest> getSyncDigests(List<String> orderNos) {
+        String sqlPrefix = "SELECT order_no, new_order_no, contract_digest, tasks_digest, guarantees_digest, " +
+                "areas_digest, record_count, payload_bytes FROM contract_sync_digest WHERE order_no IN ";
+        RowMapper<SyncDigest> rowMapper = (rs, rowNum) -> new SyncDigest(rs.getString("order_no"),
+                rs.getString("new_order_no"), rs.getString("contract_digest"), rs.getString("tasks_digest"),
+                rs.getString("guarantees_digest"), rs.getString("areas_digest"),
+                rs.getInt("record_count"), rs.getLong("payload_bytes"));
+        
+        try {
+            Map<String, SyncDigest> result = new HashMap<>();
+            for (int from = 0; from < orderNos.size(); from += MAX_IN_PARAMS) {
+                List<String> chunk = orderNos.subList(from, Math.min(from + MAX_IN_PARAMS, orderNos.size()));
+                String placeholders = String.join(",", Collections.nCopies(chunk.size(), "?"));
+                for (SyncDigest digest : stateJdbcTemplate.query(sqlPrefix + "(" + placeholders + ")",
+                        rowMapper, chunk.toArray())) {
+                    result.put(digest.getOrderNo(), digest);
+                }
+            }
+            return result;
+        } catch (Exception e) {
+            log.error("批量获取同步内容摘要失败", e);
+            throw new RuntimeException("批量获取同步内容摘要失败", e);
+        }
+    }
+
+    @Override
+    public int[] batchSaveSyncDigests(List<SyncDigest> digests) {
+        String updateSql = "UPDATE contract_sync_digest SET new_order_no = ?, contract_digest = ?, tasks_digest = ?, " +
+                "guarantees_digest = ?, areas_digest = ?, record_count = ?, payload_bytes = ?, " +
+                "update_time = CURRENT_TIMESTAMP WHERE order_no = ?";
+        String insertSql = "INSERT INTO contract_sync_digest (new_order_no, contract_digest, tasks_digest, " +
+                "guarantees_digest, areas_digest, record_count, payload_bytes, order_no) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+        
+        // 更新和插入的参数顺序一致
+        List<Object[]> batchArgs = new ArrayList<>(digests.size());
+        for (SyncDigest d : digests) {
+            batchArgs.add(new Object[]{d.getNewOrderNo(), d.getContractDigest(), d.getTasksDigest(),
+                    d.getGuaranteesDigest(), d.getAreasDigest(), d.getRecordCount(), d.getPayloadBytes(),
+                    d.getOrderNo()});
+        }
+        
+        try {
+            return syncMetrics.timeLocalWrite("saveSyncDigests",
+                    () -> batchUpsert(updateSql, batchArgs, insertSql, batchArgs));
+        } catch (Exception e) {
+            log.error("批量保存同步内容摘要失败: {} 条", digests.size(), e);
+            throw new RuntimeException("批量保存同步内容摘要失败", e);
+        }
+    }
+
+    /**
+     * 在同步状态所在的库中批量先更新再插入，不依赖MERGE语法，SQL Server与H2通用
+     * 更新不到的行再批量插入；与其他实例并发插入而冲突时逐条重新插入，已存在的改为更新
+     *
+     * @param updateSql  更新语句
+     * @param updateArgs 每行的更新参数
+     * @param insertSql  插入语句
+     * @param insertArgs 每行的插入参数，与updateArgs一一对应
+     * @return 每行影响的记录数
+     */
+    private int[] batchUpsert(String updateSql, List<Object[]> updateArgs, String insertSql, List<Object[]> insertArgs) {
+        int[] counts = stateJdbcTemplate.batchUpdate(updateSql, updateArgs);
+        List<Integer> missing = new ArrayList<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) {
+                missing.add(i);
+            }
+        }
+        if (missing.isEmpty()) {
+            return counts;
+        }
+
+        List<Object[]> inserts = new ArrayList<>(missing.size());
+        for (int index : missing) {
+            inserts.add(insertArgs.get(index));
+        }
+        try {
+            int[] inserted = stateJdbcTemplate.batchUpdate(insertSql, inserts);
+            for (int i = 0; i < missing.size(); i++) {
+                counts[missing.get(i)] = inserted[i];
+            }
+        } catch (DuplicateKeyException e) {
+            for (int index : missing) {
+                try {
+                    counts[index] = stateJdbcTemplate.update(insertSql, insertArgs.get(index));
+                } catch (DuplicateKeyException duplicate) {
+                    counts[index] = stateJdbcTemplate.update(updateSql, updateArgs.get(index));
+                }
+            }
         }
+        return counts;
     }
 
     @Override
@@ -130,7 +397,7 @@ public class ContractDaoImpl implements ContractDao {
                 "WHERE t.contract_no = ?";
         
         try {
-            return oaJdbcTemplate.query(sql, new BeanPropertyRowMapper<>(ContractTask.class), orderNo, orderNo);
+            return oaJdbcTemplate.query(sql, ContractRowMappers.TASK, orderNo, orderNo);
         } catch (Exception e) {
             log.error("获取合同任务列表失败: {}", orderNo, e);
             throw new RuntimeException("获取合同任务列表失败", e);
@@ -152,7 +419,7 @@ public class ContractDaoImpl implements ContractDao {
                 "WHERE g.contract_no = ?";
         
         try {
-            return oaJdbcTemplate.query(sql, new BeanPropertyRowMapper<>(ContractGuarantee.class), orderNo, orderNo);
+            return oaJdbcTemplate.query(sql, ContractRowMappers.GUARANTEE, orderNo, orderNo);
         } catch (Exception e) {
             log.error("获取合同保证金列表失败: {}", orderNo, e);
             throw new RuntimeException("获取合同保证金列表失败", e);
@@ -173,7 +440,7 @@ public class ContractDaoImpl implements ContractDao {
                 "WHERE a.contract_no = ?";
         
         try {
-            return oaJdbcTemplate.query(sql, new BeanPropertyRowMapper<>(ContractArea.class), orderNo, orderNo);
+            return oaJdbcTemplate.query(sql, ContractRowMappers.AREA, orderNo, orderNo);
         } catch (Exception e) {
             log.error("获取合同区域列表失败: {}", orderNo, e);
             throw new RuntimeException("获取合同区域列表失败", e);
@@ -181,20 +448,112 @@ public class ContractDaoImpl implements ContractDao {
     }
 
     @Override
-    public int updateContractSyncStatus(String orderNo, int status, String message) {
-        String sql = "MERGE INTO contract_sync_status s " +
-                "USING (SELECT ? as order_no) t " +
-                "ON (s.order_no = t.order_no) " +
-                "WHEN MATCHED THEN " +
-                "  UPDATE SET s.status = ?, s.message = ?, s.sync_time = ?, s.update_time = CURRENT_TIMESTAMP " +
-                "WHEN NOT MATCHED THEN " +
-                "  INSERT (order_no, status, message, sync_time) " +
-                "  VALUES (?, ?, ?, ?)";
+    public Map<String, List<ContractTask>> getContractTasksByOrderNos(List<String> orderNos) {
+        String sql = "SELECT " +
+                "'ADD' as flag, " +
+                "'0' as id, " +
+                "t.contract_no as order_no, " +
+                "t.start_month, " +
+                "t.end_month, " +
+                "t.sale_amount, " +
+                "t.return_amount " +
+                "FROM contract_task t " +
+                "WHERE t.contract_no IN ";
+        
+        try {
+            return syncMetrics.timeOaQuery("tasksByOrderNos", () -> queryGroupedByOrderNo(sql, orderNos,
+                    ContractRowMappers.TASK, ContractTask::getOrder_no));
+        } catch (Exception e) {
+            log.error("批量获取合同任务列表失败: {}", orderNos, e);
+            throw new RuntimeException("批量获取合同任务列表失败", e);
+        }
+    }
+
+    @Override
+    public Map<String, List<ContractGuarantee>> getContractGuaranteesByOrderNos(List<String> orderNos) {
+        String sql = "SELECT " +
+                "'ADD' as flag, " +
+                "'0' as id, " +
+                "g.contract_no as order_no, " +
+                "g.guarantee_no, " +
+                "g.guarantee_amount, " +
+                "g.guarantee_note " +
+                "FROM contract_guarantee g " +
+                "WHERE g.contract_no IN ";
         
+        try {
+            return syncMetrics.timeOaQuery("guaranteesByOrderNos", () -> queryGroupedByOrderNo(sql, orderNos,
+                    ContractRowMappers.GUARANTEE, ContractGuarantee::getOrder_no));
+        } catch (Exception e) {
+            log.error("批量获取合同保证金列表失败: {}", orderNos, e);
+            throw new RuntimeException("批量获取合同保证金列表失败", e);
+        }
+    }
+
+    @Override
+    public Map<String, List<ContractArea>> getContractAreasByOrderNos(List<String> orderNos) {
+        String sql = "SELECT " +
+                "a.contract_no as order_no, " +
+                "a.code_prov, " +
+                "a.code_city, " +
+                "a.code_coun, " +
+                "a.code_town " +
+                "FROM contract_area a " +
+                "WHERE a.contract_no IN ";
+        
+        try {
+            return syncMetrics.timeOaQuery("areasByOrderNos", () -> queryGroupedByOrderNo(sql, orderNos,
+                    ContractRowMappers.AREA, ContractArea::getOrder_no));
+        } catch (Exception e) {
+            log.error("批量获取合同区域列表失败: {}", orderNos, e);
+            throw new RuntimeException("批量获取合同区域列表失败", e);
+        }
+    }
+
+    /**
+     * 以IN列表批量查询OA子表数据，并按合同号分组
+     * SQL Server单条语句最多2100个参数，合同号超过MAX_IN_PARAMS时分多次查询
+     *
+     * @param sqlPrefix 以"IN "结尾的查询语句
+     * @param orderNos  合同号列表
+     * @param rowMapper 行映射器
+     * @param keyFn     从记录中取合同号
+     * @return 按合同号分组的数据，未查到数据的合同号不在结果中
+     */
+    private <T> Map<String, List<T>> queryGroupedByOrderNo(String sqlPrefix, List<String> orderNos,
+                                                           RowMapper<T> rowMapper, Function<T, String> keyFn) {
+        Map<String, List<T>> result = new HashMap<>();
+        for (T row : queryInChunks(sqlPrefix, orderNos, rowMapper)) {
+            result.computeIfAbsent(keyFn.apply(row), key -> new ArrayList<>()).add(row);
+        }
+        return result;
+    }
+
+    /**
+     * 以IN列表批量查询OA数据，合同号超过MAX_IN_PARAMS时分多次查询
+     *
+     * @param sqlPrefix 以"IN "结尾的查询语句
+     * @param orderNos  合同号列表
+     * @param rowMapper 行映射器
+     * @return 查询结果
+     */
+    private <T> List<T> queryInChunks(String sqlPrefix, List<String> orderNos, RowMapper<T> rowMapper) {
+        List<T> result = new ArrayList<>();
+        for (int from = 0; from < orderNos.size(); from += MAX_IN_PARAMS) {
+            List<String> chunk = orderNos.subList(from, Math.min(from + MAX_IN_PARAMS, orderNos.size()));
+            String placeholders = String.join(",", Collections.nCopies(chunk.size(), "?"));
+            result.addAll(oaJdbcTemplate.query(sqlPrefix + "(" + placeholders + ")", rowMapper, chunk.toArray()));
+        }
+        return result;
+    }
+
+    @Override
+    public int updateContractSyncStatus(String orderNo, int status, String message) {
         Timestamp syncTime = new Timestamp(System.currentTimeMillis());
         
         try {
-            return localJdbcTemplate.update(sql, orderNo, status, message, syncTime, orderNo, status, message, syncTime);
+            return batchUpsertSyncStatus(Collections.singletonList(
+                    new SyncStatus(orderNo, status, message, syncTime)))[0];
         } catch (Exception e) {
             log.error("更新合同同步状态失败: {}", orderNo, e);
             throw new RuntimeException("更新合同同步状态失败", e);
@@ -212,4 +571,48 @@ public class ContractDaoImpl implements ContractDao {
             throw new RuntimeException("记录同步日志失败", e);
         }
     }
-} 
\ No newline at end of file
+
+    @Override
+    public int[] batchUpdateContractSyncStatus(List<SyncStatus> statuses) {
+        try {
+            return syncMetrics.timeLocalWrite("updateSyncStatus", () -> batchUpsertSyncStatus(statuses));
+        } catch (Exception e) {
+            log.error("批量更新合同同步状态失败: {} 条", statuses.size(), e);
+            throw new RuntimeException("批量更新合同同步状态失败", e);
+        }
+    }
+
+    private int[] batchUpsertSyncStatus(List<SyncStatus> statuses) {
+        // 已有更晚的同步状态时不覆盖，批量写入的顺序与发生顺序不一致时结果仍正确
+        String updateSql = "UPDATE contract_sync_status SET status = ?, message = ?, sync_time = ?, " +
+                "update_time = CURRENT_TIMESTAMP WHERE order_no = ? AND (sync_time IS NULL OR sync_time <= ?)";
+        String insertSql = "INSERT INTO contract_sync_status (order_no, status, message, sync_time) VALUES (?, ?, ?, ?)";
+        
+        List<Object[]> updateArgs = new ArrayList<>(statuses.size());
+        List<Object[]> insertArgs = new ArrayList<>(statuses.size());
+        for (SyncStatus status : statuses) {
+            updateArgs.add(new Object[]{status.getStatus(), status.getMessage(), status.getSyncTime(),
+                    status.getOrderNo(), status.getSyncTime()});
+            insertArgs.add(new Object[]{status.getOrderNo(), status.getStatus(), status.getMessage(),
+                    status.getSyncTime()});
+        }
+        return batchUpsert(updateSql, updateArgs, insertSql, insertArgs);
+    }
+
+    @Override
+    public int[] batchLogSync(List<SyncLog> logs) {
+        String sql = "INSERT INTO contract_sync_log (order_no, type, content, create_time) VALUES (?, ?, ?, ?)";
+        
+        List<Object[]> batchArgs = new ArrayList<>(logs.size());
+        for (SyncLog syncLog : logs) {
+            batchArgs.add(new Object[]{syncLog.getOrderNo(), syncLog.getType(), syncLog.getContent(), syncLog.getCreateTime()});
+        }
+        
+        try {
+            return syncMetrics.timeLocalWrite("logSync", () -> localJdbcTemplate.batchUpdate(sql, batchArgs));
+        } catch (Exception e) {
+            log.error("批量记录同步日志失败: {} 条", logs.size(), e);
+            throw new RuntimeException("批量记录同步日志失败", e);
+        }
+    }
+}
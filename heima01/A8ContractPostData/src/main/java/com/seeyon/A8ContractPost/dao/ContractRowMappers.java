@@ -0,0 +1,101 @@
+package com.seeyon.A8ContractPost.dao;
+
+import com.seeyon.A8ContractPost.model.Contract;
+import com.seeyon.A8ContractPost.model.ContractArea;
+import com.seeyon.A8ContractPost.model.ContractGuarantee;
+import com.seeyon.A8ContractPost.model.ContractTask;
+import org.springframework.jdbc.core.RowMapper;
+
+/**
+ * 合同相关实体的行映射器
+ * 按列名直接取值赋值，不使用BeanPropertyRowMapper的反射映射，适合大批量读取
+ */
+public final class ContractRowMappers {
+
+    /**
+     * 合同行映射器，对应ContractDaoImpl.CONTRACT_COLUMNS中的字段
+     */
+    public static final RowMapper<Contract> CONTRACT = (rs, rowNum) -> {
+        Contract contract = new Contract();
+        contract.setOrder_no(rs.getString("order_no"));
+        contract.setContract_name(rs.getString("contract_name"));
+        contract.setSigncontract_date(rs.getString("signcontract_date"));
+        contract.setFirst_check(rs.getString("first_check"));
+        contract.setRecheck(rs.getString("recheck"));
+        contract.setSigncontract_man(rs.getString("signcontract_man"));
+        contract.setProperty(rs.getString("property"));
+        contract.setCust_no(rs.getString("cust_no"));
+        contract.setContract_type(rs.getString("contract_type"));
+        contract.setProject_type(rs.getString("project_type"));
+        contract.setLink_yes(rs.getString("link_yes"));
+        contract.setPur_unit(rs.getString("pur_unit"));
+        contract.setZhanl_name(rs.getString("zhanl_name"));
+        contract.setIndustry(rs.getString("industry"));
+        contract.setIndustry_dw(rs.getString("industry_dw"));
+        contract.setProject(rs.getString("project"));
+        contract.setProject_name(rs.getString("project_name"));
+        contract.setProject_addr(rs.getString("project_addr"));
+        contract.setContract_amount(rs.getString("contract_amount"));
+        contract.setBegin_date(rs.getString("begin_date"));
+        contract.setEnd_date(rs.getString("end_date"));
+        contract.setO_unit(rs.getString("o_unit"));
+        contract.setContract_num(rs.getString("contract_num"));
+        contract.setNote(rs.getString("note"));
+        contract.setCreate_code(rs.getString("create_code"));
+        contract.setCode_prov(rs.getString("Code_prov"));
+        contract.setCode_city(rs.getString("Code_city"));
+        contract.setCode_coun(rs.getString("Code_coun"));
+        contract.setCode_town(rs.getString("Code_town"));
+        contract.setDealer_agreement(rs.getString("dealer_agreement"));
+        contract.setYear_contract(rs.getString("year_contract"));
+        contract.setBeen_signed(rs.getString("been_signed"));
+        contract.setAss_rat(rs.getString("ass_rat"));
+        contract.setModify_time(rs.getTimestamp("modify_time"));
+        return contract;
+    };
+
+    /**
+     * 合同任务行映射器
+     */
+    public static final RowMapper<ContractTask> TASK = (rs, rowNum) -> {
+        ContractTask task = new ContractTask();
+        task.setFlag(rs.getString("flag"));
+        task.setId(rs.getString("id"));
+        task.setOrder_no(rs.getString("order_no"));
+        task.setStart_month(rs.getString("start_month"));
+        task.setEnd_month(rs.getString("end_month"));
+        task.setSale_amount(rs.getString("sale_amount"));
+        task.setReturn_amount(rs.getString("return_amount"));
+        return task;
+    };
+
+    /**
+     * 合同保证金行映射器
+     */
+    public static final RowMapper<ContractGuarantee> GUARANTEE = (rs, rowNum) -> {
+        ContractGuarantee guarantee = new ContractGuarantee();
+        guarantee.setFlag(rs.getString("flag"));
+        guarantee.setId(rs.getString("id"));
+        guarantee.setOrder_no(rs.getString("order_no"));
+        guarantee.setGuarantee_no(rs.getString("guarantee_no"));
+        guarantee.setGuarantee_amount(rs.getString("guarantee_amount"));
+        guarantee.setGuarantee_note(rs.getString("guarantee_note"));
+        return guarantee;
+    };
+
+    /**
+     * 合同区域行映射器
+     */
+    public static final RowMapper<ContractArea> AREA = (rs, rowNum) -> {
+        ContractArea area = new ContractArea();
+        area.setOrder_no(rs.getString("order_no"));
+        area.setCode_prov(rs.getString("code_prov"));
+        area.setCode_city(rs.getString("code_city"));
+        area.setCode_coun(rs.getString("code_coun"));
+        area.setCode_town(rs.getString("code_town"));
+        return area;
+    };
+
+    private ContractRowMappers() {
+    }
+}
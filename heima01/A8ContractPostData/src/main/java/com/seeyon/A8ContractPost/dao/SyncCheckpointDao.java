@@ -0,0 +1,32 @@
+package com.seeyon.A8ContractPost.dao;
+
+import com.seeyon.A8ContractPost.model.SyncCheckpoint;
+
+/**
+ * 合同同步检查点DAO接口
+ */
+public interface SyncCheckpointDao {
+    
+    /**
+     * 获取合同的同步检查点
+     *
+     * @param orderNo 合同号
+     * @return 检查点，不存在时返回null
+     */
+    SyncCheckpoint getCheckpoint(String orderNo);
+    
+    /**
+     * 保存同步检查点，覆盖原有记录
+     *
+     * @param checkpoint 检查点
+     */
+    void saveCheckpoint(SyncCheckpoint checkpoint);
+    
+    /**
+     * 删除同步检查点
+     *
+     * @param orderNo 合同号
+     * @return 删除行数
+     */
+    int deleteCheckpoint(String orderNo);
+}
@@ -0,0 +1,140 @@
+package com.seeyon.A8ContractPost.dao;
+
+import com.seeyon.A8ContractPost.model.SyncCheckpoint;
+import com.seeyon.A8ContractPost.util.SyncMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 合同同步检查点DAO实现类
+ * 检查点默认保存在本地H2库中，启用多实例分片时保存在各实例共用的OA库中（由 db/shard-schema.sql 预先建好），
+ * 分片转给其他实例后由新的持有实例从检查点继续；合同主信息一行，已确认的任务、保证金按摘要各一行
+ */
+@Slf4j
+@Repository
+public class SyncCheckpointDaoImpl implements SyncCheckpointDao {
+
+    private static final String STEP_TASK = "TASK";
+    private static final String STEP_GUARANTEE = "GUARANTEE";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final SyncMetrics syncMetrics;
+
+    public SyncCheckpointDaoImpl(@Qualifier("localJdbcTemplate") JdbcTemplate localJdbcTemplate,
+                                 @Qualifier("oaJdbcTemplate") JdbcTemplate oaJdbcTemplate,
+                                 @Value("${contract.sync.shard.enabled:false}") boolean shardEnabled,
+                                 SyncMetrics syncMetrics) {
+        this.jdbcTemplate = shardEnabled ? oaJdbcTemplate : localJdbcTemplate;
+        this.syncMetrics = syncMetrics;
+        this.transactionTemplate = new TransactionTemplate(
+                new DataSourceTransactionManager(jdbcTemplate.getDataSource()));
+
+        if (shardEnabled) {
+            SyncSharedSchema.requireTable(jdbcTemplate, "contract_sync_checkpoint");
+            SyncSharedSchema.requireTable(jdbcTemplate, "contract_sync_checkpoint_item");
+        } else {
+            initLocalTables();
+        }
+    }
+
+    /**
+     * 初始化本地数据库表
+     */
+    private void initLocalTables() {
+        try {
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS contract_sync_checkpoint (" +
+                    "order_no VARCHAR(50) PRIMARY KEY, " +
+                    "contract_digest VARCHAR(32), " +
+                    "new_order_no VARCHAR(50), " +
+                    "areas_digest VARCHAR(32), " +
+                    "update_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP" +
+                    ")");
+
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS contract_sync_checkpoint_item (" +
+                    "order_no VARCHAR(50), " +
+                    "step VARCHAR(20), " +
+                    "item_digest VARCHAR(32), " +
+                    "PRIMARY KEY (order_no, step, item_digest)" +
+                    ")");
+        } catch (Exception e) {
+            log.error("初始化同步检查点表失败", e);
+            throw new RuntimeException("初始化同步检查点表失败", e);
+        }
+    }
+
+    @Override
+    public SyncCheckpoint getCheckpoint(String orderNo) {
+        String sql = "SELECT c.contract_digest, c.new_order_no, c.areas_digest, i.step, i.item_digest " +
+                "FROM contract_sync_checkpoint c " +
+                "LEFT JOIN contract_sync_checkpoint_item i ON i.order_no = c.order_no " +
+                "WHERE c.order_no = ?";
+
+        try {
+            SyncCheckpoint[] result = new SyncCheckpoint[1];
+            jdbcTemplate.query(sql, rs -> {
+                if (result[0] == null) {
+                    result[0] = new SyncCheckpoint(orderNo);
+                    result[0].setContractDigest(rs.getString("contract_digest"));
+                    result[0].setNewOrderNo(rs.getString("new_order_no"));
+                    result[0].setAreasDigest(rs.getString("areas_digest"));
+                }
+                String step = rs.getString("step");
+                if (STEP_TASK.equals(step)) {
+                    result[0].getTaskDigests().add(rs.getString("item_digest"));
+                } else if (STEP_GUARANTEE.equals(step)) {
+                    result[0].getGuaranteeDigests().add(rs.getString("item_digest"));
+                }
+            }, orderNo);
+            return result[0];
+        } catch (Exception e) {
+            log.error("获取同步检查点失败: {}", orderNo, e);
+            throw new RuntimeException("获取同步检查点失败", e);
+        }
+    }
+
+    @Override
+    public void saveCheckpoint(SyncCheckpoint checkpoint) {
+        String orderNo = checkpoint.getOrderNo();
+        List<Object[]> items = new ArrayList<>();
+        checkpoint.getTaskDigests().forEach(digest -> items.add(new Object[]{orderNo, STEP_TASK, digest}));
+        checkpoint.getGuaranteeDigests().forEach(digest -> items.add(new Object[]{orderNo, STEP_GUARANTEE, digest}));
+
+        try {
+            // 主信息和明细在同一事务中替换，避免留下不完整的检查点
+            syncMetrics.timeLocalWrite("saveCheckpoint", () -> transactionTemplate.execute(status -> {
+                deleteCheckpoint(orderNo);
+                jdbcTemplate.update("INSERT INTO contract_sync_checkpoint " +
+                                "(order_no, contract_digest, new_order_no, areas_digest) VALUES (?, ?, ?, ?)",
+                        orderNo, checkpoint.getContractDigest(), checkpoint.getNewOrderNo(), checkpoint.getAreasDigest());
+                if (!items.isEmpty()) {
+                    jdbcTemplate.batchUpdate("INSERT INTO contract_sync_checkpoint_item " +
+                            "(order_no, step, item_digest) VALUES (?, ?, ?)", items);
+                }
+                return null;
+            }));
+        } catch (Exception e) {
+            log.error("保存同步检查点失败: {}", orderNo, e);
+            throw new RuntimeException("保存同步检查点失败", e);
+        }
+    }
+
+    @Override
+    public int deleteCheckpoint(String orderNo) {
+        try {
+            jdbcTemplate.update("DELETE FROM contract_sync_checkpoint_item WHERE order_no = ?", orderNo);
+            return jdbcTemplate.update("DELETE FROM contract_sync_checkpoint WHERE order_no = ?", orderNo);
+        } catch (Exception e) {
+            log.error("删除同步检查点失败: {}", orderNo, e);
+            throw new RuntimeException("删除同步检查点失败", e);
+        }
+    }
+}
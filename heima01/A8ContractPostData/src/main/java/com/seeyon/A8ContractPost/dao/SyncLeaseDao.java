@@ -0,0 +1,110 @@
+package com.seeyon.A8ContractPost.dao;
+
+import com.seeyon.A8ContractPost.model.SyncLease;
+import com.seeyon.A8ContractPost.model.SyncWatermark;
+
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 同步分片租约DAO接口
+ * 租约表保存在各实例共用的OA库中，所有时间均以数据库时间为准，不受各实例时钟偏差影响
+ */
+public interface SyncLeaseDao {
+
+    /**
+     * 确认租约表和实例表已建好（见 db/shard-schema.sql），并补齐分片记录
+     *
+     * @param shardCount 分片数
+     */
+    void initShards(int shardCount);
+
+    /**
+     * 获取数据库当前时间
+     *
+     * @return 数据库当前时间
+     */
+    Timestamp getCurrentTime();
+
+    /**
+     * 登记实例心跳（不存在时插入，存在时更新）
+     *
+     * @param instanceId     实例标识
+     * @param heartbeatUntil 心跳有效期
+     */
+    void saveInstance(String instanceId, Timestamp heartbeatUntil);
+
+    /**
+     * 获取心跳仍在有效期内的实例
+     *
+     * @param now 数据库当前时间
+     * @return 实例标识列表
+     */
+    List<String> getLiveInstances(Timestamp now);
+
+    /**
+     * 删除实例记录（实例停止时）
+     *
+     * @param instanceId 实例标识
+     */
+    void deleteInstance(String instanceId);
+
+    /**
+     * 获取分片号小于shardCount的全部租约，按分片号升序
+     *
+     * @param shardCount 分片数
+     * @return 租约列表
+     */
+    List<SyncLease> getLeases(int shardCount);
+
+    /**
+     * 续约该实例仍在有效期内的全部租约
+     *
+     * @param owner      实例标识
+     * @param leaseUntil 新的到期时间
+     * @param now        数据库当前时间
+     * @return 续约的分片数
+     */
+    int renewLeases(String owner, Timestamp leaseUntil, Timestamp now);
+
+    /**
+     * 尝试获取分片租约，只有分片无人持有或租约已过期时才能成功
+     *
+     * @param shardId    分片号
+     * @param owner      实例标识
+     * @param leaseUntil 到期时间
+     * @param now        数据库当前时间
+     * @return 是否获取成功
+     */
+    boolean tryAcquire(int shardId, String owner, Timestamp leaseUntil, Timestamp now);
+
+    /**
+     * 释放该实例持有的分片租约
+     *
+     * @param owner    实例标识
+     * @param shardIds 分片号列表，为null时释放全部
+     * @return 释放的分片数
+     */
+    int releaseLeases(String owner, Collection<Integer> shardIds);
+
+    /**
+     * 获取分片的合同增量同步水位线
+     * 水位线随分片保存在租约表中，分片转给其他实例后由新的持有实例从该位置继续
+     *
+     * @param shardIds 分片号列表
+     * @return 分片号到水位线的映射，尚未记录水位线的分片不在其中
+     */
+    Map<Integer, SyncWatermark> getWatermarks(Collection<Integer> shardIds);
+
+    /**
+     * 推进该实例仍持有有效租约的分片的水位线，只向后推进，不会回退
+     *
+     * @param owner     实例标识
+     * @param shardIds  分片号列表
+     * @param watermark 新的水位线
+     * @return 推进的分片数
+     */
+    int advanceWatermarks(String owner, Collection<Integer> shardIds, SyncWatermark watermark);
+}
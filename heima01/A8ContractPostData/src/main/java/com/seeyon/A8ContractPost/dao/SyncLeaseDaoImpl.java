@@ -0,0 +1,227 @@
+package com.seeyon.A8ContractPost.dao;
+
+import com.seeyon.A8ContractPost.model.SyncLease;
+import com.seeyon.A8ContractPost.model.SyncWatermark;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * 同步分片租约DAO实现类
+ * 租约表需要所有实例共用，因此放在OA库中（本地H2库每个实例各自一份），由 db/shard-schema.sql 预先建好；
+ * SQL只使用SQL Server与H2通用的语法，只在启用分片时才会访问
+ */
+@Slf4j
+@Repository
+public class SyncLeaseDaoImpl implements SyncLeaseDao {
+
+    private static final RowMapper<SyncLease> LEASE_MAPPER = (rs, rowNum) -> new SyncLease(
+            rs.getInt("shard_id"),
+            rs.getString("owner"),
+            rs.getTimestamp("lease_until"));
+
+    // 租约表中只记录合同的水位线
+    private static final String WATERMARK_CONTRACT = "CONTRACT";
+
+    private final JdbcTemplate oaJdbcTemplate;
+
+    public SyncLeaseDaoImpl(@Qualifier("oaJdbcTemplate") JdbcTemplate oaJdbcTemplate) {
+        this.oaJdbcTemplate = oaJdbcTemplate;
+    }
+
+    @Override
+    public void initShards(int shardCount) {
+        SyncSharedSchema.requireTable(oaJdbcTemplate, "contract_sync_lease", "watermark_time", "watermark_key");
+        SyncSharedSchema.requireTable(oaJdbcTemplate, "contract_sync_instance");
+
+        try {
+            // 补齐分片记录，多个实例同时启动时插入冲突可以忽略
+            String sql = "INSERT INTO contract_sync_lease (shard_id) " +
+                    "SELECT ? WHERE NOT EXISTS (SELECT 1 FROM contract_sync_lease WHERE shard_id = ?)";
+            for (int shardId = 0; shardId < shardCount; shardId++) {
+                try {
+                    oaJdbcTemplate.update(sql, shardId, shardId);
+                } catch (DuplicateKeyException e) {
+                    log.debug("分片记录已由其他实例插入: {}", shardId);
+                }
+            }
+            log.info("同步分片记录初始化成功，分片数: {}", shardCount);
+        } catch (Exception e) {
+            log.error("初始化同步分片记录失败", e);
+            throw new RuntimeException("初始化同步分片记录失败", e);
+        }
+    }
+
+    @Override
+    public Timestamp getCurrentTime() {
+        try {
+            return oaJdbcTemplate.queryForObject("SELECT CURRENT_TIMESTAMP", Timestamp.class);
+        } catch (Exception e) {
+            log.error("获取数据库时间失败", e);
+            throw new RuntimeException("获取数据库时间失败", e);
+        }
+    }
+
+    @Override
+    public void saveInstance(String instanceId, Timestamp heartbeatUntil) {
+        try {
+            int updated = oaJdbcTemplate.update("UPDATE contract_sync_instance " +
+                    "SET heartbeat_until = ?, update_time = CURRENT_TIMESTAMP WHERE instance_id = ?",
+                    heartbeatUntil, instanceId);
+            if (updated == 0) {
+                oaJdbcTemplate.update("INSERT INTO contract_sync_instance (instance_id, heartbeat_until, update_time) " +
+                        "VALUES (?, ?, CURRENT_TIMESTAMP)", instanceId, heartbeatUntil);
+            }
+        } catch (Exception e) {
+            log.error("登记实例心跳失败: {}", instanceId, e);
+            throw new RuntimeException("登记实例心跳失败", e);
+        }
+    }
+
+    @Override
+    public List<String> getLiveInstances(Timestamp now) {
+        String sql = "SELECT instance_id FROM contract_sync_instance WHERE heartbeat_until >= ? ORDER BY instance_id";
+
+        try {
+            return oaJdbcTemplate.queryForList(sql, String.class, now);
+        } catch (Exception e) {
+            log.error("获取在线实例失败", e);
+            throw new RuntimeException("获取在线实例失败", e);
+        }
+    }
+
+    @Override
+    public void deleteInstance(String instanceId) {
+        try {
+            oaJdbcTemplate.update("DELETE FROM contract_sync_instance WHERE instance_id = ?", instanceId);
+        } catch (Exception e) {
+            log.error("删除实例记录失败: {}", instanceId, e);
+            throw new RuntimeException("删除实例记录失败", e);
+        }
+    }
+
+    @Override
+    public List<SyncLease> getLeases(int shardCount) {
+        String sql = "SELECT shard_id, owner, lease_until FROM contract_sync_lease WHERE shard_id < ? ORDER BY shard_id";
+
+        try {
+            return oaJdbcTemplate.query(sql, LEASE_MAPPER, shardCount);
+        } catch (Exception e) {
+            log.error("获取分片租约失败", e);
+            throw new RuntimeException("获取分片租约失败", e);
+        }
+    }
+
+    @Override
+    public int renewLeases(String owner, Timestamp leaseUntil, Timestamp now) {
+        String sql = "UPDATE contract_sync_lease SET lease_until = ?, update_time = CURRENT_TIMESTAMP " +
+                "WHERE owner = ? AND lease_until >= ?";
+
+        try {
+            return oaJdbcTemplate.update(sql, leaseUntil, owner, now);
+        } catch (Exception e) {
+            log.error("续约分片租约失败: {}", owner, e);
+            throw new RuntimeException("续约分片租约失败", e);
+        }
+    }
+
+    @Override
+    public boolean tryAcquire(int shardId, String owner, Timestamp leaseUntil, Timestamp now) {
+        // 条件更新保证同一分片只有一个实例能取得租约
+        String sql = "UPDATE contract_sync_lease SET owner = ?, lease_until = ?, update_time = CURRENT_TIMESTAMP " +
+                "WHERE shard_id = ? AND (owner IS NULL OR lease_until IS NULL OR lease_until < ?)";
+
+        try {
+            return oaJdbcTemplate.update(sql, owner, leaseUntil, shardId, now) == 1;
+        } catch (Exception e) {
+            log.error("获取分片租约失败: {}", shardId, e);
+            throw new RuntimeException("获取分片租约失败", e);
+        }
+    }
+
+    @Override
+    public int releaseLeases(String owner, Collection<Integer> shardIds) {
+        String sql = "UPDATE contract_sync_lease SET owner = NULL, lease_until = NULL, update_time = CURRENT_TIMESTAMP " +
+                "WHERE owner = ?";
+
+        try {
+            if (shardIds == null) {
+                return oaJdbcTemplate.update(sql, owner);
+            }
+            if (shardIds.isEmpty()) {
+                return 0;
+            }
+            List<Object> args = new ArrayList<>(shardIds.size() + 1);
+            args.add(owner);
+            args.addAll(shardIds);
+            String placeholders = shardIds.stream().map(id -> "?").collect(Collectors.joining(", "));
+            return oaJdbcTemplate.update(sql + " AND shard_id IN (" + placeholders + ")", args.toArray());
+        } catch (Exception e) {
+            log.error("释放分片租约失败: {}", owner, e);
+            throw new RuntimeException("释放分片租约失败", e);
+        }
+    }
+
+    @Override
+    public Map<Integer, SyncWatermark> getWatermarks(Collection<Integer> shardIds) {
+        Map<Integer, SyncWatermark> watermarks = new HashMap<>();
+        if (shardIds.isEmpty()) {
+            return watermarks;
+        }
+        String placeholders = shardIds.stream().map(id -> "?").collect(Collectors.joining(", "));
+        String sql = "SELECT shard_id, watermark_time, watermark_key FROM contract_sync_lease " +
+                "WHERE watermark_time IS NOT NULL AND shard_id IN (" + placeholders + ")";
+
+        try {
+            oaJdbcTemplate.query(sql, rs -> {
+                watermarks.put(rs.getInt("shard_id"), new SyncWatermark(WATERMARK_CONTRACT,
+                        rs.getTimestamp("watermark_time"), rs.getString("watermark_key")));
+            }, shardIds.toArray());
+            return watermarks;
+        } catch (Exception e) {
+            log.error("获取分片水位线失败: {}", shardIds, e);
+            throw new RuntimeException("获取分片水位线失败", e);
+        }
+    }
+
+    @Override
+    public int advanceWatermarks(String owner, Collection<Integer> shardIds, SyncWatermark watermark) {
+        if (shardIds.isEmpty()) {
+            return 0;
+        }
+        // 只更新本实例持有且租约仍有效的分片，租约已被其他实例接管时不覆盖其水位线
+        String placeholders = shardIds.stream().map(id -> "?").collect(Collectors.joining(", "));
+        String sql = "UPDATE contract_sync_lease SET watermark_time = ?, watermark_key = ? " +
+                "WHERE owner = ? AND lease_until >= CURRENT_TIMESTAMP AND shard_id IN (" + placeholders + ") " +
+                "AND (watermark_time IS NULL OR watermark_time < ? " +
+                "OR (watermark_time = ? AND (watermark_key IS NULL OR watermark_key < ?)))";
+
+        Timestamp lastModifyTime = watermark.getLastModifyTime();
+        String lastKey = watermark.getLastKey() == null ? "" : watermark.getLastKey();
+        List<Object> args = new ArrayList<>(shardIds.size() + 6);
+        args.add(lastModifyTime);
+        args.add(lastKey);
+        args.add(owner);
+        args.addAll(shardIds);
+        args.add(lastModifyTime);
+        args.add(lastModifyTime);
+        args.add(lastKey);
+        try {
+            return oaJdbcTemplate.update(sql, args.toArray());
+        } catch (Exception e) {
+            log.error("推进分片水位线失败: {}", watermark, e);
+            throw new RuntimeException("推进分片水位线失败", e);
+        }
+    }
+}
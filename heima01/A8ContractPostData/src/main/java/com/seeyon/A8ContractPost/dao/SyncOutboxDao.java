@@ -0,0 +1,67 @@
+package com.seeyon.A8ContractPost.dao;
+
+import com.seeyon.A8ContractPost.model.SyncRetry;
+
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * 同步重试队列DAO接口
+ * 同步失败的合同记录在重试队列中（启用多实例分片时在OA库中由各实例共用，否则在本地库中），
+ * 由定时任务按退避时间重试，不必重新扫描OA
+ */
+public interface SyncOutboxDao {
+    
+    /**
+     * 获取合同的重试记录
+     *
+     * @param orderNo 合同号
+     * @return 重试记录，不存在时返回null
+     */
+    SyncRetry getRetry(String orderNo);
+    
+    /**
+     * 保存重试记录（不存在时插入，存在时更新）
+     *
+     * @param retry 重试记录
+     * @return 更新行数
+     */
+    int saveRetry(SyncRetry retry);
+    
+    /**
+     * 获取已到重试时间的待重试记录，按重试时间升序
+     * 不满足过滤条件的记录（如属于其他实例分片）被跳过，不占用数量
+     *
+     * @param now    当前时间
+     * @param limit  限制数量
+     * @param filter 合同号过滤条件
+     * @return 重试记录列表
+     */
+    List<SyncRetry> getDueRetries(Timestamp now, int limit, Predicate<String> filter);
+    
+    /**
+     * 获取已放弃重试的记录
+     *
+     * @param limit 限制数量
+     * @return 重试记录列表
+     */
+    List<SyncRetry> getDeadRetries(int limit);
+    
+    /**
+     * 删除重试记录（同步成功或合同已不存在时）
+     *
+     * @param orderNos 合同号列表
+     * @return 删除行数
+     */
+    int deleteRetries(Collection<String> orderNos);
+    
+    /**
+     * 将已放弃的记录重新放回待重试队列，并清零失败次数
+     *
+     * @param orderNo 合同号，为null时处理全部已放弃的记录
+     * @return 更新行数
+     */
+    int requeueDead(String orderNo);
+}
@@ -0,0 +1,222 @@
+package com.seeyon.A8ContractPost.dao;
+
+import com.seeyon.A8ContractPost.model.SyncRetry;
+import com.seeyon.A8ContractPost.util.SyncMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * 同步重试队列DAO实现类
+ * 重试队列默认保存在本地H2库中，服务重启后继续重试；
+ * 启用多实例分片时保存在各实例共用的OA库中（由 db/shard-schema.sql 预先建好），分片转给其他实例后，其失败记录由新的持有实例继续重试。
+ * SQL只使用SQL Server与H2通用的语法
+ */
+@Slf4j
+@Repository
+public class SyncOutboxDaoImpl implements SyncOutboxDao {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private static final RowMapper<SyncRetry> RETRY_MAPPER = (rs, rowNum) -> new SyncRetry(
+            rs.getString("order_no"),
+            rs.getInt("attempts"),
+            rs.getTimestamp("next_attempt_time"),
+            rs.getString("last_error"),
+            rs.getString("status"));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SyncMetrics syncMetrics;
+
+    public SyncOutboxDaoImpl(@Qualifier("localJdbcTemplate") JdbcTemplate localJdbcTemplate,
+                             @Qualifier("oaJdbcTemplate") JdbcTemplate oaJdbcTemplate,
+                             @Value("${contract.sync.shard.enabled:false}") boolean shardEnabled,
+                             SyncMetrics syncMetrics) {
+        this.jdbcTemplate = shardEnabled ? oaJdbcTemplate : localJdbcTemplate;
+        this.syncMetrics = syncMetrics;
+
+        if (shardEnabled) {
+            SyncSharedSchema.requireTable(jdbcTemplate, "contract_sync_outbox");
+        } else {
+            initLocalTables();
+        }
+    }
+
+    /**
+     * 初始化本地重试队列表，索引只在建表时创建
+     */
+    private void initLocalTables() {
+        try {
+            jdbcTemplate.queryForObject("SELECT COUNT(*) FROM contract_sync_outbox WHERE 1 = 0", Integer.class);
+            return;
+        } catch (DataAccessException e) {
+            log.info("在本地库中创建同步重试队列表");
+        }
+
+        try {
+            jdbcTemplate.execute("CREATE TABLE contract_sync_outbox (" +
+                    "order_no VARCHAR(50) NOT NULL PRIMARY KEY, " +
+                    "attempts INT DEFAULT 0, " +
+                    "next_attempt_time DATETIME, " +
+                    "last_error VARCHAR(1000), " +
+                    "status VARCHAR(20) DEFAULT 'PENDING', " +
+                    "create_time DATETIME DEFAULT CURRENT_TIMESTAMP, " +
+                    "update_time DATETIME DEFAULT CURRENT_TIMESTAMP" +
+                    ")");
+            // 按状态和重试时间取到期记录
+            jdbcTemplate.execute("CREATE INDEX idx_sync_outbox_due ON contract_sync_outbox (status, next_attempt_time)");
+        } catch (Exception e) {
+            log.error("初始化同步重试队列表失败", e);
+            throw new RuntimeException("初始化同步重试队列表失败", e);
+        }
+    }
+
+    @Override
+    public SyncRetry getRetry(String orderNo) {
+        String sql = "SELECT order_no, attempts, next_attempt_time, last_error, status " +
+                "FROM contract_sync_outbox WHERE order_no = ?";
+
+        try {
+            List<SyncRetry> retries = jdbcTemplate.query(sql, RETRY_MAPPER, orderNo);
+            return retries.isEmpty() ? null : retries.get(0);
+        } catch (Exception e) {
+            log.error("获取重试记录失败: {}", orderNo, e);
+            throw new RuntimeException("获取重试记录失败", e);
+        }
+    }
+
+    @Override
+    public int saveRetry(SyncRetry retry) {
+        // 先更新再插入，不依赖MERGE语法；并发插入冲突时改为更新
+        String updateSql = "UPDATE contract_sync_outbox SET attempts = ?, next_attempt_time = ?, last_error = ?, " +
+                "status = ?, update_time = CURRENT_TIMESTAMP WHERE order_no = ?";
+        String insertSql = "INSERT INTO contract_sync_outbox (order_no, attempts, next_attempt_time, last_error, status) " +
+                "VALUES (?, ?, ?, ?, ?)";
+
+        String lastError = truncate(retry.getLastError(), 1000);
+        Object[] updateArgs = {retry.getAttempts(), retry.getNextAttemptTime(), lastError, retry.getStatus(),
+                retry.getOrderNo()};
+        try {
+            return syncMetrics.timeLocalWrite("saveRetry", () -> {
+                int updated = jdbcTemplate.update(updateSql, updateArgs);
+                if (updated > 0) {
+                    return updated;
+                }
+                try {
+                    return jdbcTemplate.update(insertSql, retry.getOrderNo(), retry.getAttempts(),
+                            retry.getNextAttemptTime(), lastError, retry.getStatus());
+                } catch (DuplicateKeyException e) {
+                    return jdbcTemplate.update(updateSql, updateArgs);
+                }
+            });
+        } catch (Exception e) {
+            log.error("保存重试记录失败: {}", retry.getOrderNo(), e);
+            throw new RuntimeException("保存重试记录失败", e);
+        }
+    }
+
+    @Override
+    public List<SyncRetry> getDueRetries(Timestamp now, int limit, Predicate<String> filter) {
+        // 按 (next_attempt_time, order_no) 键集分页，跳过不满足过滤条件的记录，直到取满limit条或没有更多到期记录
+        String columns = "SELECT order_no, attempts, next_attempt_time, last_error, status " +
+                "FROM contract_sync_outbox WHERE status = ? AND next_attempt_time <= ? ";
+        String order = "ORDER BY next_attempt_time, order_no OFFSET 0 ROWS FETCH NEXT ? ROWS ONLY";
+        String firstSql = columns + order;
+        String nextSql = columns + "AND (next_attempt_time > ? OR (next_attempt_time = ? AND order_no > ?)) " + order;
+
+        try {
+            List<SyncRetry> due = new ArrayList<>();
+            List<SyncRetry> page = jdbcTemplate.query(firstSql, RETRY_MAPPER, SyncRetry.STATUS_PENDING, now, limit);
+            while (true) {
+                for (SyncRetry retry : page) {
+                    if (filter.test(retry.getOrderNo())) {
+                        due.add(retry);
+                        if (due.size() >= limit) {
+                            return due;
+                        }
+                    }
+                }
+                if (page.size() < limit) {
+                    return due;
+                }
+                SyncRetry last = page.get(page.size() - 1);
+                page = jdbcTemplate.query(nextSql, RETRY_MAPPER, SyncRetry.STATUS_PENDING, now,
+                        last.getNextAttemptTime(), last.getNextAttemptTime(), last.getOrderNo(), limit);
+            }
+        } catch (Exception e) {
+            log.error("获取到期重试记录失败", e);
+            throw new RuntimeException("获取到期重试记录失败", e);
+        }
+    }
+
+    @Override
+    public List<SyncRetry> getDeadRetries(int limit) {
+        String sql = "SELECT order_no, attempts, next_attempt_time, last_error, status " +
+                "FROM contract_sync_outbox WHERE status = ? ORDER BY update_time DESC OFFSET 0 ROWS FETCH NEXT ? ROWS ONLY";
+
+        try {
+            return jdbcTemplate.query(sql, RETRY_MAPPER, SyncRetry.STATUS_DEAD, limit);
+        } catch (Exception e) {
+            log.error("获取已放弃重试记录失败", e);
+            throw new RuntimeException("获取已放弃重试记录失败", e);
+        }
+    }
+
+    @Override
+    public int deleteRetries(Collection<String> orderNos) {
+        if (orderNos == null || orderNos.isEmpty()) {
+            return 0;
+        }
+        String sql = "DELETE FROM contract_sync_outbox WHERE order_no = ?";
+
+        try {
+            List<Object[]> args = orderNos.stream().map(orderNo -> new Object[]{orderNo}).collect(Collectors.toList());
+            return syncMetrics.timeLocalWrite("deleteRetries", () -> {
+                int deleted = 0;
+                for (int from = 0; from < args.size(); from += BATCH_SIZE) {
+                    List<Object[]> batch = new ArrayList<>(args.subList(from, Math.min(from + BATCH_SIZE, args.size())));
+                    for (int count : jdbcTemplate.batchUpdate(sql, batch)) {
+                        deleted += Math.max(count, 0);
+                    }
+                }
+                return deleted;
+            });
+        } catch (Exception e) {
+            log.error("删除重试记录失败", e);
+            throw new RuntimeException("删除重试记录失败", e);
+        }
+    }
+
+    @Override
+    public int requeueDead(String orderNo) {
+        String sql = "UPDATE contract_sync_outbox SET status = ?, attempts = 0, " +
+                "next_attempt_time = CURRENT_TIMESTAMP, update_time = CURRENT_TIMESTAMP WHERE status = ?";
+
+        try {
+            if (orderNo == null) {
+                return jdbcTemplate.update(sql, SyncRetry.STATUS_PENDING, SyncRetry.STATUS_DEAD);
+            }
+            return jdbcTemplate.update(sql + " AND order_no = ?",
+                    SyncRetry.STATUS_PENDING, SyncRetry.STATUS_DEAD, orderNo);
+        } catch (Exception e) {
+            log.error("重新加入重试队列失败: {}", orderNo, e);
+            throw new RuntimeException("重新加入重试队列失败", e);
+        }
+    }
+
+    private static String truncate(String value, int maxLength) {
+        return value == null || value.length() <= maxLength ? value : value.substring(0, maxLength);
+    }
+}
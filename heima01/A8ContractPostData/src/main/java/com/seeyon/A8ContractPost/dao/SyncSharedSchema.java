@@ -0,0 +1,35 @@
+package com.seeyon.A8ContractPost.dao;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * 多实例分片共用表的检查
+ * 共用表由 db/shard-schema.sql 预先建在OA库中，程序不在OA库中建表，启动时只确认表和所需的列存在
+ */
+final class SyncSharedSchema {
+
+    /**
+     * 建表脚本（classpath路径）
+     */
+    static final String SCRIPT = "db/shard-schema.sql";
+
+    private SyncSharedSchema() {
+    }
+
+    /**
+     * 确认共用表存在，缺少时提示执行建表脚本
+     *
+     * @param jdbcTemplate OA库JdbcTemplate
+     * @param table        表名
+     * @param columns      需要确认的列，为空时只确认表存在
+     */
+    static void requireTable(JdbcTemplate jdbcTemplate, String table, String... columns) {
+        String select = columns.length == 0 ? "COUNT(*)" : String.join(", ", columns);
+        try {
+            jdbcTemplate.queryForList("SELECT " + select + " FROM " + table + " WHERE 1 = 0");
+        } catch (DataAccessException e) {
+            throw new RuntimeException("OA库中缺少多实例分片同步表或列: " + table + "，请先执行 " + SCRIPT, e);
+        }
+    }
+}
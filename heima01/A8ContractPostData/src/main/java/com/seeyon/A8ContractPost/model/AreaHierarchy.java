@@ -0,0 +1,148 @@
+package com.seeyon.A8ContractPost.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 区域层级索引
+ * 创建后不可修改，可被多个线程并发读取；按编码查询和按父编码查询下级均为O(1)
+ */
+public class AreaHierarchy {
+
+    /**
+     * 省级区域的父编码
+     */
+    public static final String ROOT_CODE = "0";
+
+    private final Map<String, AreaCode> byCode;
+    private final Map<String, List<AreaCode>> childrenByParent;
+    private final List<AreaCode> all;
+    private final String version;
+    private final long fetchTime;
+
+    /**
+     * @param areaCodes 已去重的区域列表，父级需在子级之前
+     * @param version   数据版本
+     * @param fetchTime 数据获取时间
+     */
+    public AreaHierarchy(Collection<AreaCode> areaCodes, String version, long fetchTime) {
+        this.version = version;
+        this.fetchTime = fetchTime;
+        this.all = Collections.unmodifiableList(new ArrayList<>(areaCodes));
+
+        // 预设容量，避免约4万条镇街数据加载时反复扩容
+        Map<String, AreaCode> codeIndex = new HashMap<>(capacityFor(areaCodes.size()));
+        Map<String, List<AreaCode>> childIndex = new HashMap<>(capacityFor(areaCodes.size() / 4));
+        for (AreaCode areaCode : areaCodes) {
+            codeIndex.put(areaCode.getCode(), areaCode);
+            childIndex.computeIfAbsent(areaCode.getParentCode(), key -> new ArrayList<>()).add(areaCode);
+        }
+
+        // 子级列表转为定长不可变列表，去掉ArrayList的预留空间
+        for (Map.Entry<String, List<AreaCode>> entry : childIndex.entrySet()) {
+            entry.setValue(Collections.unmodifiableList(Arrays.asList(entry.getValue().toArray(new AreaCode[0]))));
+        }
+
+        this.byCode = codeIndex;
+        this.childrenByParent = childIndex;
+    }
+
+    /**
+     * 按编码查询区域
+     *
+     * @param code 区域编码
+     * @return 区域，不存在时返回null
+     */
+    public AreaCode get(String code) {
+        return code == null ? null : byCode.get(code);
+    }
+
+    /**
+     * 是否存在该编码
+     *
+     * @param code 区域编码
+     * @return 是否存在
+     */
+    public boolean contains(String code) {
+        return code != null && byCode.containsKey(code);
+    }
+
+    /**
+     * 查询直接下级区域
+     *
+     * @param parentCode 父编码，省级的父编码为ROOT_CODE
+     * @return 下级区域列表
+     */
+    public List<AreaCode> getChildren(String parentCode) {
+        List<AreaCode> children = childrenByParent.get(parentCode);
+        return children == null ? Collections.emptyList() : children;
+    }
+
+    /**
+     * 按省名称查询该省及其全部下级区域
+     *
+     * @param provinceName 省名称
+     * @return 区域列表，省不存在时返回空列表
+     */
+    public List<AreaCode> getProvinceTree(String provinceName) {
+        List<AreaCode> result = new ArrayList<>();
+        for (AreaCode province : getChildren(ROOT_CODE)) {
+            if (province.getName() != null && province.getName().equals(provinceName)) {
+                collect(province, result);
+            }
+        }
+        return result;
+    }
+
+    private void collect(AreaCode areaCode, List<AreaCode> result) {
+        result.add(areaCode);
+        for (AreaCode child : getChildren(areaCode.getCode())) {
+            collect(child, result);
+        }
+    }
+
+    /**
+     * 获取全部区域
+     *
+     * @return 区域列表
+     */
+    public List<AreaCode> getAll() {
+        return all;
+    }
+
+    /**
+     * 区域总数
+     *
+     * @return 区域总数
+     */
+    public int size() {
+        return all.size();
+    }
+
+    /**
+     * 数据版本
+     *
+     * @return 区域数据内容的摘要
+     */
+    public String getVersion() {
+        return version;
+    }
+
+    /**
+     * 数据获取时间
+     *
+     * @return 毫秒时间戳
+     */
+    public long getFetchTime() {
+        return fetchTime;
+    }
+
+    private static int capacityFor(int size) {
+        return (int) (size / 0.75f) + 1;
+    }
+}
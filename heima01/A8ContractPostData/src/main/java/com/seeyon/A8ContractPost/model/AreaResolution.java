@@ -0,0 +1,47 @@
+package com.seeyon.A8ContractPost.model;
+
+import lombok.Data;
+
+/**
+ * 区域编码校验结果
+ * 包含转换为目标系统格式并按区域层级修正后的省、市、区县、镇街编码
+ */
+@Data
+public class AreaResolution {
+
+    /**
+     * 省级编码
+     */
+    private String provCode;
+
+    /**
+     * 市级编码
+     */
+    private String cityCode;
+
+    /**
+     * 区县编码
+     */
+    private String countyCode;
+
+    /**
+     * 镇街编码
+     */
+    private String townCode;
+
+    /**
+     * 是否有效
+     * 有编码但在目标系统中一个都找不到时为false，此类数据不应提交到目标系统
+     */
+    private boolean valid = true;
+
+    /**
+     * 是否对编码做过修正
+     */
+    private boolean repaired;
+
+    /**
+     * 修正或校验失败的说明
+     */
+    private String message;
+}
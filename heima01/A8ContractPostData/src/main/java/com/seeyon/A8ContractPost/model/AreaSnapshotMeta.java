@@ -0,0 +1,31 @@
+package com.seeyon.A8ContractPost.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.sql.Timestamp;
+
+/**
+ * 本地区域数据快照信息
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AreaSnapshotMeta {
+
+    /**
+     * 数据版本（区域数据内容的摘要）
+     */
+    private String version;
+
+    /**
+     * 从目标系统获取数据的时间
+     */
+    private Timestamp fetchTime;
+
+    /**
+     * 区域记录数
+     */
+    private Integer recordCount;
+}
@@ -1,7 +1,10 @@
 package com.seeyon.A8ContractPost.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Data;
 
+import java.sql.Timestamp;
+
 /**
  * 合同实体类
  */
@@ -177,4 +180,10 @@ public class Contract {
      * 考核比例
      */
     private String ass_rat;
-} 
\ No newline at end of file
+    
+    /**
+     * OA中的最后修改时间，仅用于增量同步，不提交到目标系统
+     */
+    @JsonIgnore
+    private Timestamp modify_time;
+}
@@ -0,0 +1,51 @@
+package com.seeyon.A8ContractPost.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * 合同同步检查点
+ * 记录同步失败前已被目标系统确认的步骤，重试时从失败的步骤继续，已确认的数据不再提交。
+ * 各项数据以提交内容的摘要标识，OA中数据有变化时摘要不同，会重新提交
+ */
+@Data
+@NoArgsConstructor
+public class SyncCheckpoint {
+
+    /**
+     * OA合同号
+     */
+    private String orderNo;
+
+    /**
+     * 已提交的合同内容摘要
+     */
+    private String contractDigest;
+
+    /**
+     * 目标系统返回的合同号
+     */
+    private String newOrderNo;
+
+    /**
+     * 已确认的合同区域列表摘要
+     */
+    private String areasDigest;
+
+    /**
+     * 已确认的合同任务摘要
+     */
+    private Set<String> taskDigests = new HashSet<>();
+
+    /**
+     * 已确认的合同保证金摘要
+     */
+    private Set<String> guaranteeDigests = new HashSet<>();
+
+    public SyncCheckpoint(String orderNo) {
+        this.orderNo = orderNo;
+    }
+}
@@ -0,0 +1,56 @@
+package com.seeyon.A8ContractPost.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 合同上次成功同步的内容摘要
+ * 合同及其任务、保证金、区域分别计算摘要（OA原始数据的JSON内容），
+ * 再次同步时摘要未变的部分不再提交
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SyncDigest {
+
+    /**
+     * OA合同号
+     */
+    private String orderNo;
+
+    /**
+     * 目标系统返回的合同号
+     */
+    private String newOrderNo;
+
+    /**
+     * 合同摘要
+     */
+    private String contractDigest;
+
+    /**
+     * 合同任务列表摘要
+     */
+    private String tasksDigest;
+
+    /**
+     * 合同保证金列表摘要
+     */
+    private String guaranteesDigest;
+
+    /**
+     * 合同区域列表摘要
+     */
+    private String areasDigest;
+
+    /**
+     * 合同、任务、保证金、区域的记录总数
+     */
+    private Integer recordCount;
+
+    /**
+     * 合同、任务、保证金、区域的JSON总字节数
+     */
+    private Long payloadBytes;
+}
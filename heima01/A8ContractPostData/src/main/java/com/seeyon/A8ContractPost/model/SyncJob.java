@@ -0,0 +1,100 @@
+package com.seeyon.A8ContractPost.model;
+
+import lombok.Data;
+
+import java.util.concurrent.Future;
+
+/**
+ * 同步任务
+ * 手动或定时触发的一次同步运行，提交后在后台排队执行
+ */
+@Data
+public class SyncJob {
+
+    /**
+     * 排队中
+     */
+    public static final String STATUS_QUEUED = "QUEUED";
+
+    /**
+     * 执行中
+     */
+    public static final String STATUS_RUNNING = "RUNNING";
+
+    /**
+     * 执行完成
+     */
+    public static final String STATUS_SUCCEEDED = "SUCCEEDED";
+
+    /**
+     * 执行中止（如获取Token失败、读取OA失败）或异常
+     */
+    public static final String STATUS_FAILED = "FAILED";
+
+    /**
+     * 已取消
+     */
+    public static final String STATUS_CANCELLED = "CANCELLED";
+
+    /**
+     * 任务ID
+     */
+    private String id;
+
+    /**
+     * 任务类型：sync、incremental、retry、backfill
+     */
+    private String type;
+
+    /**
+     * 批量大小（同步、重试为合同数，增量同步为分页大小，全量回填为分块大小），0表示使用配置值
+     */
+    private int size;
+
+    /**
+     * 触发方式：manual、scheduled
+     */
+    private String trigger;
+
+    /**
+     * 状态
+     */
+    private volatile String status;
+
+    /**
+     * 提交时间（毫秒）
+     */
+    private long submitTime;
+
+    /**
+     * 开始执行时间（毫秒），0表示尚未开始
+     */
+    private volatile long startTime;
+
+    /**
+     * 结束时间（毫秒），0表示尚未结束
+     */
+    private volatile long endTime;
+
+    /**
+     * 执行结果
+     */
+    private volatile String result;
+
+    /**
+     * 执行进度
+     */
+    private final SyncProgress progress = new SyncProgress();
+
+    /**
+     * 后台执行句柄
+     */
+    private Future<?> future;
+
+    /**
+     * @return 是否排队中或执行中
+     */
+    public boolean isActive() {
+        return STATUS_QUEUED.equals(status) || STATUS_RUNNING.equals(status);
+    }
+}
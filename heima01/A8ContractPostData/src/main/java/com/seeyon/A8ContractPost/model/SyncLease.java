@@ -0,0 +1,32 @@
+package com.seeyon.A8ContractPost.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.sql.Timestamp;
+
+/**
+ * 同步分片租约
+ * 多实例部署时，合同号按哈希分到固定数量的分片，每个分片同一时间只由持有租约的实例同步
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SyncLease {
+
+    /**
+     * 分片号，从0开始
+     */
+    private Integer shardId;
+
+    /**
+     * 持有租约的实例标识，为null表示无人持有
+     */
+    private String owner;
+
+    /**
+     * 租约到期时间（数据库时间），过期后其他实例可以接管
+     */
+    private Timestamp leaseUntil;
+}
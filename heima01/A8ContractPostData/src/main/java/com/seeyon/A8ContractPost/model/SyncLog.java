@@ -0,0 +1,36 @@
+package com.seeyon.A8ContractPost.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.sql.Timestamp;
+
+/**
+ * 同步日志记录
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SyncLog {
+
+    /**
+     * 合同号
+     */
+    private String orderNo;
+
+    /**
+     * 日志类型
+     */
+    private String type;
+
+    /**
+     * 日志内容
+     */
+    private String content;
+
+    /**
+     * 记录时间
+     */
+    private Timestamp createTime;
+}
@@ -0,0 +1,86 @@
+package com.seeyon.A8ContractPost.model;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 同步运行进度
+ * 同步流程在处理过程中累加计数，同步任务据此对外报告进度；取消后同步流程不再处理尚未开始的合同
+ */
+public class SyncProgress {
+
+    /**
+     * 成功数（含内容未变化而跳过的合同）
+     */
+    private final AtomicInteger successCount = new AtomicInteger(0);
+
+    /**
+     * 失败数
+     */
+    private final AtomicInteger failCount = new AtomicInteger(0);
+
+    /**
+     * 内容未变化而跳过的合同数
+     */
+    private final AtomicInteger skipCount = new AtomicInteger(0);
+
+    /**
+     * 待处理合同总数，-1表示事先未知（如增量同步、全量回填）
+     */
+    private volatile int total = -1;
+
+    /**
+     * 是否已请求取消
+     */
+    private volatile boolean cancelled;
+
+    /**
+     * 运行中止的原因（如获取Token失败、读取OA失败），为null表示未中止
+     */
+    private volatile String error;
+
+    public AtomicInteger getSuccessCount() {
+        return successCount;
+    }
+
+    public AtomicInteger getFailCount() {
+        return failCount;
+    }
+
+    public AtomicInteger getSkipCount() {
+        return skipCount;
+    }
+
+    /**
+     * @return 已处理合同数（成功 + 失败）
+     */
+    public int getProcessed() {
+        return successCount.get() + failCount.get();
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public void setTotal(int total) {
+        this.total = total;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * 请求取消，正在同步的合同会完成当前步骤，尚未开始的合同不再处理
+     */
+    public void cancel() {
+        this.cancelled = true;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
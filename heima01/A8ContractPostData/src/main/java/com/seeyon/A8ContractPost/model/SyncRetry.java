@@ -0,0 +1,51 @@
+package com.seeyon.A8ContractPost.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.sql.Timestamp;
+
+/**
+ * 同步失败待重试记录（本地重试队列）
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SyncRetry {
+
+    /**
+     * 待重试
+     */
+    public static final String STATUS_PENDING = "PENDING";
+
+    /**
+     * 超过最大重试次数，不再自动重试
+     */
+    public static final String STATUS_DEAD = "DEAD";
+
+    /**
+     * 合同号
+     */
+    private String orderNo;
+
+    /**
+     * 已失败次数
+     */
+    private Integer attempts;
+
+    /**
+     * 下次重试时间
+     */
+    private Timestamp nextAttemptTime;
+
+    /**
+     * 最近一次失败原因
+     */
+    private String lastError;
+
+    /**
+     * 状态：PENDING 待重试，DEAD 已放弃
+     */
+    private String status;
+}
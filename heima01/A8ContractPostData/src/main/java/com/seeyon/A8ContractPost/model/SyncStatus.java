@@ -0,0 +1,38 @@
+package com.seeyon.A8ContractPost.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.sql.Timestamp;
+
+/**
+ * 合同同步状态记录
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SyncStatus {
+
+    /**
+     * 合同号
+     */
+    private String orderNo;
+
+    /**
+     * 同步状态
+     * 1: 成功
+     * 0: 失败
+     */
+    private Integer status;
+
+    /**
+     * 同步消息
+     */
+    private String message;
+
+    /**
+     * 同步时间
+     */
+    private Timestamp syncTime;
+}
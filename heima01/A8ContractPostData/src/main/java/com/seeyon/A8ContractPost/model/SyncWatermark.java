@@ -0,0 +1,32 @@
+package com.seeyon.A8ContractPost.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.sql.Timestamp;
+
+/**
+ * 增量同步水位线
+ * 记录某类数据上一次成功同步到的位置（修改时间 + 主键），用于键集分页
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SyncWatermark {
+
+    /**
+     * 数据类型，如 CONTRACT
+     */
+    private String entityType;
+
+    /**
+     * 已同步数据的最大修改时间
+     */
+    private Timestamp lastModifyTime;
+
+    /**
+     * 修改时间相同时，已同步数据的最大主键
+     */
+    private String lastKey;
+}
@@ -0,0 +1,51 @@
+package com.seeyon.A8ContractPost.model;
+
+import lombok.Data;
+
+/**
+ * 全国区域数据接口返回的一条记录
+ * 每条记录包含一个镇街及其所属的省、市、区县
+ */
+@Data
+public class TownshipArea {
+
+    /**
+     * 省级编码
+     */
+    private String code_prov;
+
+    /**
+     * 省级名称
+     */
+    private String name_prov;
+
+    /**
+     * 市级编码
+     */
+    private String code_city;
+
+    /**
+     * 市级名称
+     */
+    private String name_city;
+
+    /**
+     * 区县编码
+     */
+    private String code_coun;
+
+    /**
+     * 区县名称
+     */
+    private String name_coun;
+
+    /**
+     * 镇街编码
+     */
+    private String code_town;
+
+    /**
+     * 镇街名称
+     */
+    private String name_town;
+}
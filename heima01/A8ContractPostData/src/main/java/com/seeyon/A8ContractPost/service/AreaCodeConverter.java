@@ -0,0 +1,307 @@
+package com.seeyon.A8ContractPost.service;
+
+import com.seeyon.A8ContractPost.dao.AreaCodeDao;
+import com.seeyon.A8ContractPost.model.AreaCode;
+import com.seeyon.A8ContractPost.model.AreaHierarchy;
+import com.seeyon.A8ContractPost.model.AreaResolution;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 区域编码转换服务
+ * 用于处理OA系统和目标系统之间的区域编码转换，并按目标系统的区域层级在本地校验和修正编码，
+ * 避免区域数据有误的合同提交到目标系统后才被拒绝
+ */
+@Slf4j
+@Component
+public class AreaCodeConverter {
+
+    private static final String[] LEVEL_NAMES = {"省", "市", "区县", "镇街"};
+
+    private final AreaCodeStore areaCodeStore;
+    private final AreaCodeDao areaCodeDao;
+
+    // 特殊的区域编码映射关系，整体替换为不可变Map，读取无需加锁
+    private volatile Map<String, String> specialMappings = Collections.emptyMap();
+
+    public AreaCodeConverter(AreaCodeStore areaCodeStore, AreaCodeDao areaCodeDao) {
+        this.areaCodeStore = areaCodeStore;
+        this.areaCodeDao = areaCodeDao;
+    }
+
+    /**
+     * 初始化特殊映射关系
+     * 映射保存在本地库area_code_mapping表中，例如：420117406 -> 420117000
+     */
+    @PostConstruct
+    public void init() {
+        reloadSpecialMappings();
+    }
+
+    /**
+     * 从本地库重新加载特殊映射关系，修改映射表后无需重启即可生效
+     */
+    @Scheduled(fixedDelayString = "${contract.area.mapping-reload-interval:300000}",
+            initialDelayString = "${contract.area.mapping-reload-interval:300000}")
+    public synchronized void reloadSpecialMappings() {
+        try {
+            Map<String, String> loaded = areaCodeDao.getSpecialMappings();
+            if (!loaded.equals(specialMappings)) {
+                specialMappings = Collections.unmodifiableMap(loaded);
+                log.info("区域编码特殊映射已加载，共 {} 条", loaded.size());
+            }
+        } catch (Exception e) {
+            log.error("加载区域编码特殊映射失败，继续使用原有映射", e);
+        }
+    }
+
+    /**
+     * 转换并校验一组区域编码
+     * 先转换为目标系统格式并应用特殊映射，再以最深一级能在目标系统区域层级中找到的编码为准，
+     * 按层级补全上级编码；找不到的下级编码改为其最近的有效上级编码。
+     * 区域数据暂不可用时只做格式转换
+     *
+     * @param oaProvCode   OA系统省级编码
+     * @param oaCityCode   OA系统市级编码
+     * @param oaCountyCode OA系统县级编码
+     * @param oaTownCode   OA系统镇区街道编码
+     * @return 校验结果
+     */
+    public AreaResolution resolve(String oaProvCode, String oaCityCode, String oaCountyCode, String oaTownCode) {
+        String[] raw = {oaProvCode, oaCityCode, oaCountyCode, oaTownCode};
+        String[] codes = {
+                mapCode(convertProvCode(oaProvCode)),
+                mapCode(convertCityCode(oaCityCode)),
+                mapCode(convertCountyCode(oaCountyCode)),
+                convertTownCode(oaTownCode)
+        };
+
+        AreaResolution resolution = new AreaResolution();
+        setCodes(resolution, codes);
+
+        // 找出最深一级有值的编码
+        int deepest = -1;
+        for (int i = raw.length - 1; i >= 0; i--) {
+            if (raw[i] != null && !raw[i].isEmpty()) {
+                deepest = i;
+                break;
+            }
+        }
+        if (deepest < 0) {
+            return resolution;
+        }
+
+        AreaHierarchy hierarchy = getHierarchy();
+        if (hierarchy == null) {
+            return resolution;
+        }
+
+        // 从最深一级向上查找第一个在目标系统中存在的编码
+        AreaCode anchor = null;
+        for (int i = deepest; i >= 0 && anchor == null; i--) {
+            if (raw[i] != null && !raw[i].isEmpty()) {
+                anchor = find(hierarchy, codes[i], i + 1);
+            }
+        }
+        // 最深一级编码不存在时，按其编码前缀推断上级，取两者中更深的一级
+        if (anchor == null || anchor.getLevel() <= deepest) {
+            AreaCode byPrefix = findByPrefix(hierarchy, codes[deepest]);
+            if (byPrefix != null && (anchor == null || byPrefix.getLevel() > anchor.getLevel())) {
+                anchor = byPrefix;
+            }
+        }
+        if (anchor == null) {
+            resolution.setValid(false);
+            resolution.setMessage("区域编码在目标系统中不存在: " + String.join("/", codes));
+            return resolution;
+        }
+
+        String[] resolved = codes.clone();
+        int anchorIndex = anchor.getLevel() - 1;
+        // 以有效编码为准补全上级编码
+        for (AreaCode current = anchor; current != null; current = hierarchy.get(current.getParentCode())) {
+            resolved[current.getLevel() - 1] = current.getCode();
+        }
+        // 无效的下级编码改为最近的有效上级编码
+        for (int i = anchorIndex + 1; i <= deepest; i++) {
+            if (raw[i] != null && !raw[i].isEmpty()) {
+                resolved[i] = anchor.getCode();
+            }
+        }
+
+        List<String> changes = new ArrayList<>();
+        for (int i = 0; i < resolved.length; i++) {
+            if (!resolved[i].equals(codes[i])) {
+                changes.add(LEVEL_NAMES[i] + " " + codes[i] + " -> " + resolved[i]);
+            }
+        }
+        if (!changes.isEmpty()) {
+            setCodes(resolution, resolved);
+            resolution.setRepaired(true);
+            resolution.setMessage("区域编码已修正: " + String.join(", ", changes));
+        }
+        return resolution;
+    }
+
+    /**
+     * 转换省级编码
+     * OA系统：2位
+     * 目标系统：6位（在2位后加4个0）
+     *
+     * @param oaProvCode OA系统省级编码
+     * @return 目标系统省级编码
+     */
+    public String convertProvCode(String oaProvCode) {
+        if (oaProvCode == null || oaProvCode.isEmpty()) {
+            return "000000";
+        }
+        
+        // 检查是否已经是6位
+        if (oaProvCode.length() == 6) {
+            return oaProvCode;
+        }
+        
+        // 如果是2位，添加4个0
+        if (oaProvCode.length() == 2) {
+            return oaProvCode + "0000";
+        }
+        
+        log.warn("无效的省级编码格式: {}", oaProvCode);
+        return oaProvCode;
+    }
+
+    /**
+     * 转换市级编码
+     * OA系统：4位
+     * 目标系统：6位（在4位后加2个0）
+     *
+     * @param oaCityCode OA系统市级编码
+     * @return 目标系统市级编码
+     */
+    public String convertCityCode(String oaCityCode) {
+        if (oaCityCode == null || oaCityCode.isEmpty()) {
+            return "000000";
+        }
+        
+        // 检查是否已经是6位
+        if (oaCityCode.length() == 6) {
+            return oaCityCode;
+        }
+        
+        // 如果是4位，添加2个0
+        if (oaCityCode.length() == 4) {
+            return oaCityCode + "00";
+        }
+        
+        log.warn("无效的市级编码格式: {}", oaCityCode);
+        return oaCityCode;
+    }
+
+    /**
+     * 转换县级编码
+     * OA系统和目标系统编码一致，都是6位
+     *
+     * @param oaCountyCode OA系统县级编码
+     * @return 目标系统县级编码
+     */
+    public String convertCountyCode(String oaCountyCode) {
+        if (oaCountyCode == null || oaCountyCode.isEmpty()) {
+            return "000000";
+        }
+        return oaCountyCode;
+    }
+
+    /**
+     * 转换镇区街道编码
+     * OA系统和目标系统编码一致，但可能存在OA系统有而目标系统没有的情况
+     *
+     * @param oaTownCode OA系统镇区街道编码
+     * @return 目标系统镇区街道编码
+     */
+    public String convertTownCode(String oaTownCode) {
+        if (oaTownCode == null || oaTownCode.isEmpty()) {
+            return "000000000";
+        }
+        
+        // 检查是否有特殊映射
+        return mapCode(oaTownCode);
+    }
+
+    /**
+     * 添加特殊映射关系
+     * 仅在内存中生效，重新加载映射表后以本地库中的数据为准
+     *
+     * @param oaCode     OA系统编码
+     * @param targetCode 目标系统编码
+     */
+    public synchronized void addSpecialMapping(String oaCode, String targetCode) {
+        Map<String, String> mappings = new HashMap<>(specialMappings);
+        mappings.put(oaCode, targetCode);
+        specialMappings = Collections.unmodifiableMap(mappings);
+    }
+
+    /**
+     * 获取所有特殊映射关系
+     *
+     * @return 特殊映射关系Map
+     */
+    public Map<String, String> getSpecialMappings() {
+        return new HashMap<>(specialMappings);
+    }
+
+    private String mapCode(String code) {
+        String mapped = specialMappings.get(code);
+        return mapped == null ? code : mapped;
+    }
+
+    private AreaHierarchy getHierarchy() {
+        try {
+            return areaCodeStore.getHierarchy();
+        } catch (Exception e) {
+            log.warn("区域数据不可用，跳过区域编码校验: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private static AreaCode find(AreaHierarchy hierarchy, String code, int level) {
+        AreaCode areaCode = hierarchy.get(code);
+        return areaCode != null && areaCode.getLevel() != null && areaCode.getLevel() == level ? areaCode : null;
+    }
+
+    /**
+     * 按编码前缀依次查找区县、市、省
+     */
+    private static AreaCode findByPrefix(AreaHierarchy hierarchy, String code) {
+        if (code.length() >= 6) {
+            AreaCode areaCode = hierarchy.get(code.substring(0, 6));
+            if (areaCode != null) {
+                return areaCode;
+            }
+        }
+        if (code.length() >= 4) {
+            AreaCode areaCode = find(hierarchy, code.substring(0, 4) + "00", 2);
+            if (areaCode != null) {
+                return areaCode;
+            }
+        }
+        if (code.length() >= 2) {
+            return find(hierarchy, code.substring(0, 2) + "0000", 1);
+        }
+        return null;
+    }
+
+    private static void setCodes(AreaResolution resolution, String[] codes) {
+        resolution.setProvCode(codes[0]);
+        resolution.setCityCode(codes[1]);
+        resolution.setCountyCode(codes[2]);
+        resolution.setTownCode(codes[3]);
+    }
+}
@@ -0,0 +1,329 @@
+package com.seeyon.A8ContractPost.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.seeyon.A8ContractPost.dao.AreaCodeDao;
+import com.seeyon.A8ContractPost.model.AreaCode;
+import com.seeyon.A8ContractPost.model.AreaHierarchy;
+import com.seeyon.A8ContractPost.model.AreaSnapshotMeta;
+import com.seeyon.A8ContractPost.model.TownshipArea;
+import com.seeyon.A8ContractPost.util.HttpClientUtil;
+import com.seeyon.A8ContractPost.util.JsonUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 全国区域数据缓存
+ * 从目标系统获取全国区域数据并建立层级索引，超过有效期后在后台刷新，刷新期间继续使用旧数据。
+ * 每次获取的数据保存为本地快照，重启后先从快照加载，不必等待远程接口
+ */
+@Slf4j
+@Component
+public class AreaCodeStore {
+
+    private final HttpClientUtil httpClientUtil;
+    private final TokenManager tokenManager;
+    private final AreaCodeDao areaCodeDao;
+
+    @Value("${contract.api.base-url}")
+    private String baseUrl;
+
+    /**
+     * 区域数据有效期（毫秒）
+     */
+    @Value("${contract.area.cache-ttl:86400000}")
+    private long cacheTtl;
+
+    /**
+     * 启动后是否预加载区域数据
+     */
+    @Value("${contract.area.warm-up:true}")
+    private boolean warmUp;
+
+    private volatile AreaHierarchy hierarchy;
+    private final AtomicBoolean refreshing = new AtomicBoolean(false);
+
+    public AreaCodeStore(HttpClientUtil httpClientUtil, TokenManager tokenManager, AreaCodeDao areaCodeDao) {
+        this.httpClientUtil = httpClientUtil;
+        this.tokenManager = tokenManager;
+        this.areaCodeDao = areaCodeDao;
+    }
+
+    /**
+     * 应用启动完成后在后台预加载区域数据（优先使用本地快照）
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!warmUp) {
+            return;
+        }
+        CompletableFuture.runAsync(() -> {
+            try {
+                getHierarchy();
+            } catch (Exception e) {
+                log.error("预加载区域数据失败，将在首次使用时重新加载", e);
+            }
+        });
+    }
+
+    /**
+     * 获取区域层级索引
+     * 尚未加载时先从本地快照加载，没有快照时才同步请求远程接口；已过期时触发后台刷新并先返回旧数据
+     *
+     * @return 区域层级索引
+     */
+    public AreaHierarchy getHierarchy() {
+        AreaHierarchy current = hierarchy;
+        if (current == null) {
+            synchronized (this) {
+                current = hierarchy;
+                if (current == null) {
+                    current = loadSnapshot();
+                }
+                if (current == null) {
+                    current = load();
+                }
+            }
+        }
+
+        if (System.currentTimeMillis() - current.getFetchTime() > cacheTtl) {
+            refreshAsync();
+        }
+        return current;
+    }
+
+    /**
+     * 定时检查远程区域数据是否需要刷新
+     */
+    @Scheduled(fixedDelayString = "${contract.area.check-interval:3600000}",
+            initialDelayString = "${contract.area.check-interval:3600000}")
+    public void scheduledCheck() {
+        AreaHierarchy current = hierarchy;
+        if (current != null && System.currentTimeMillis() - current.getFetchTime() > cacheTtl) {
+            refreshAsync();
+        }
+    }
+
+    /**
+     * 立即从目标系统重新加载区域数据
+     *
+     * @return 新的区域层级索引
+     */
+    public synchronized AreaHierarchy refresh() {
+        return load();
+    }
+
+    private void refreshAsync() {
+        if (!refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        CompletableFuture.runAsync(() -> {
+            try {
+                refresh();
+            } catch (Exception e) {
+                log.error("刷新区域数据失败，继续使用旧数据", e);
+            } finally {
+                refreshing.set(false);
+            }
+        });
+    }
+
+    /**
+     * 从本地快照加载区域数据
+     *
+     * @return 区域层级索引，没有快照或加载失败时返回null
+     */
+    private AreaHierarchy loadSnapshot() {
+        try {
+            long startTime = System.currentTimeMillis();
+            AreaSnapshotMeta meta = areaCodeDao.getSnapshotMeta();
+            if (meta == null || meta.getFetchTime() == null) {
+                return null;
+            }
+            List<AreaCode> areaCodes = areaCodeDao.getSnapshotAreaCodes();
+            if (areaCodes.isEmpty()) {
+                return null;
+            }
+            AreaHierarchy loaded = new AreaHierarchy(areaCodes, meta.getVersion(), meta.getFetchTime().getTime());
+            hierarchy = loaded;
+            log.info("从本地快照加载区域数据，版本: {}, 获取时间: {}, 共 {} 条，耗时 {} 毫秒",
+                    meta.getVersion(), meta.getFetchTime(), loaded.size(), System.currentTimeMillis() - startTime);
+            return loaded;
+        } catch (Exception e) {
+            log.error("加载区域快照失败，改为从远程获取", e);
+            return null;
+        }
+    }
+
+    /**
+     * 从目标系统加载区域数据，并在数据有变化时更新本地快照
+     */
+    private AreaHierarchy load() {
+        long fetchTime = System.currentTimeMillis();
+        Collection<AreaCode> areaCodes = fetchAreaCodes(null);
+        if (areaCodes.isEmpty()) {
+            throw new RuntimeException("获取区域数据失败: 返回数据为空");
+        }
+        String version = computeVersion(areaCodes);
+        AreaHierarchy previous = hierarchy;
+        AreaHierarchy loaded = new AreaHierarchy(areaCodes, version, fetchTime);
+        hierarchy = loaded;
+        log.info("区域数据加载完成，版本: {}, 共 {} 条，耗时 {} 毫秒",
+                version, loaded.size(), System.currentTimeMillis() - fetchTime);
+
+        try {
+            if (previous != null && version.equals(previous.getVersion())) {
+                areaCodeDao.touchSnapshot(new Timestamp(fetchTime));
+            } else {
+                areaCodeDao.saveSnapshot(areaCodes, version, new Timestamp(fetchTime));
+            }
+        } catch (Exception e) {
+            log.error("保存区域快照失败，下次启动将重新从远程获取", e);
+        }
+        return loaded;
+    }
+
+    /**
+     * 计算区域数据版本（内容的MD5摘要）
+     */
+    private static String computeVersion(Collection<AreaCode> areaCodes) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("MD5");
+            for (AreaCode areaCode : areaCodes) {
+                String line = areaCode.getCode() + "|" + areaCode.getName() + "|"
+                        + areaCode.getParentCode() + "|" + areaCode.getLevel() + "\n";
+                digest.update(line.getBytes(StandardCharsets.UTF_8));
+            }
+            StringBuilder hex = new StringBuilder();
+            for (byte b : digest.digest()) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("计算区域数据版本失败", e);
+        }
+    }
+
+    /**
+     * 从目标系统获取区域数据
+     *
+     * @param codeProv 省份名称（可选）
+     * @return 去重后的区域列表，父级在子级之前
+     */
+    public Collection<AreaCode> fetchAreaCodes(String codeProv) {
+        // 构建请求参数
+        Map<String, String> params = new HashMap<>();
+        params.put("Token", tokenManager.getToken());
+        if (codeProv != null && !codeProv.isEmpty()) {
+            params.put("code_prov", codeProv);
+        }
+
+        // 发送请求，直接从响应流中解析
+        String url = baseUrl + "/Contract/ContractTownshipArea";
+        Collection<AreaCode> areaCodes = httpClientUtil.doGet(url, params, this::parseAreaCodes);
+        return areaCodes == null ? Collections.emptyList() : areaCodes;
+    }
+
+    /**
+     * 流式解析区域数据响应
+     * 逐条读取InfoList中的记录，每条记录包含省、市、区县、镇街四级，按编码去重；
+     * 包内可见，供AreaCodeParseBenchmark调用
+     */
+    Collection<AreaCode> parseAreaCodes(InputStream content) {
+        // 以编码为键去重，保持首次出现的顺序
+        Map<String, AreaCode> areaCodes = new LinkedHashMap<>();
+        Integer state = null;
+        String message = null;
+        boolean hasInfoList = false;
+
+        try (JsonParser parser = JsonUtil.createParser(content)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                log.error("区域编码数据格式错误: 响应不是JSON对象");
+                return Collections.emptyList();
+            }
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken token = parser.nextToken();
+                if ("state".equals(field)) {
+                    state = parser.getValueAsInt();
+                } else if ("mess".equals(field)) {
+                    message = parser.getValueAsString();
+                } else if ("InfoList".equals(field) && token == JsonToken.START_ARRAY) {
+                    hasInfoList = true;
+                    // 逐条读取，不在内存中保留整个数组
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        addTownshipArea(areaCodes, JsonUtil.readValue(parser, TownshipArea.class));
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        } catch (Exception e) {
+            // 读取中断时不返回不完整的数据，避免被保存为快照
+            log.error("解析区域编码数据异常", e);
+            return Collections.emptyList();
+        }
+
+        // 检查状态码
+        if (state == null || state != 1) {
+            // 如果状态不为1，表示请求失败
+            log.error("获取区域编码失败: {}", message != null ? message : "未知错误");
+            return Collections.emptyList();
+        }
+        if (!hasInfoList || areaCodes.isEmpty()) {
+            log.error("区域编码数据格式错误: InfoList不是数组或不存在");
+            return areaCodes.values();
+        }
+
+        log.info("成功解析区域编码数据，共 {} 条记录", areaCodes.size());
+        return areaCodes.values();
+    }
+
+    private void addTownshipArea(Map<String, AreaCode> areaCodes, TownshipArea item) {
+        String provCode = addAreaCode(areaCodes, item.getCode_prov(), item.getName_prov(), AreaHierarchy.ROOT_CODE, 1);
+        String cityCode = addAreaCode(areaCodes, item.getCode_city(), item.getName_city(), provCode, 2);
+        String counCode = addAreaCode(areaCodes, item.getCode_coun(), item.getName_coun(), cityCode, 3);
+        addAreaCode(areaCodes, item.getCode_town(), item.getName_town(), counCode, 4);
+    }
+
+    /**
+     * 添加区域编码（已存在时不重复添加）
+     *
+     * @return 已保存区域的编码实例，供下级作为父编码引用，避免重复字符串
+     */
+    private String addAreaCode(Map<String, AreaCode> areaCodes, String code, String name, String parentCode, int level) {
+        if (code == null) {
+            return null;
+        }
+        AreaCode existing = areaCodes.get(code);
+        if (existing != null) {
+            return existing.getCode();
+        }
+        AreaCode areaCode = new AreaCode();
+        areaCode.setCode(code);
+        areaCode.setName(name);
+        areaCode.setParentCode(parentCode);
+        areaCode.setLevel(level);
+        areaCodes.put(code, areaCode);
+        return code;
+    }
+}
@@ -4,6 +4,7 @@ import com.seeyon.A8ContractPost.model.*;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * 合同服务接口
@@ -37,10 +38,11 @@ public interface ContractService {
     
     /**
      * 批量创建或更新合同
+     * 按配置的块大小将多条合同放入同一请求提交，失败的块对半拆分重试
      *
      * @param token     Token
      * @param contracts 合同数据列表
-     * @return 创建结果
+     * @return 创建结果（合同名称 -> 响应）
      */
     Map<String, ContractCreateResponse> batchCreateOrUpdateContracts(String token, List<Contract> contracts);
     
@@ -55,10 +57,11 @@ public interface ContractService {
     
     /**
      * 批量创建或更新合同任务
+     * 按配置的块大小将多条任务放入同一请求提交，失败的块对半拆分重试
      *
      * @param token         Token
      * @param contractTasks 合同任务数据列表
-     * @return 操作结果
+     * @return 操作结果，与contractTasks顺序一致
      */
     List<ApiResponse> batchCreateOrUpdateContractTasks(String token, List<ContractTask> contractTasks);
     
@@ -73,10 +76,11 @@ public interface ContractService {
     
     /**
      * 批量创建或更新合同保证金
+     * 按配置的块大小将多条保证金放入同一请求提交，失败的块对半拆分重试
      *
      * @param token              Token
      * @param contractGuarantees 合同保证金数据列表
-     * @return 操作结果
+     * @return 操作结果，与contractGuarantees顺序一致
      */
     List<ApiResponse> batchCreateOrUpdateContractGuarantees(String token, List<ContractGuarantee> contractGuarantees);
     
@@ -97,4 +101,41 @@ public interface ContractService {
      * @return 操作结果
      */
     ApiResponse deleteContract(String token, String orderNo);
-} 
\ No newline at end of file
+    
+    /**
+     * 异步创建或更新合同
+     * contract.api.transport=async时使用非阻塞客户端，请求进行中不占用线程；否则在调用线程中同步执行
+     *
+     * @param token    Token
+     * @param contract 合同数据
+     * @return 合同创建响应的Future
+     */
+    CompletableFuture<ContractCreateResponse> createOrUpdateContractAsync(String token, Contract contract);
+    
+    /**
+     * 异步创建或更新合同任务
+     *
+     * @param token        Token
+     * @param contractTask 合同任务数据
+     * @return 响应的Future
+     */
+    CompletableFuture<ApiResponse> createOrUpdateContractTaskAsync(String token, ContractTask contractTask);
+    
+    /**
+     * 异步创建或更新合同保证金
+     *
+     * @param token             Token
+     * @param contractGuarantee 合同保证金数据
+     * @return 响应的Future
+     */
+    CompletableFuture<ApiResponse> createOrUpdateContractGuaranteeAsync(String token, ContractGuarantee contractGuarantee);
+    
+    /**
+     * 异步更新合同区域
+     *
+     * @param token        Token
+     * @param contractArea 合同区域数据
+     * @return 响应的Future
+     */
+    CompletableFuture<ApiResponse> updateContractAreaAsync(String token, List<ContractArea> contractArea);
+}
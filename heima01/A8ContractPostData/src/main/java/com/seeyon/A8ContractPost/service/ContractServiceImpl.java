@@ -1,16 +1,20 @@
 package com.seeyon.A8ContractPost.service;
 
 import com.seeyon.A8ContractPost.model.*;
-import com.seeyon.A8ContractPost.util.AreaCodeConverter;
+import com.seeyon.A8ContractPost.util.ApiUnauthorizedException;
+import com.seeyon.A8ContractPost.util.AsyncHttpClientUtil;
 import com.seeyon.A8ContractPost.util.HttpClientUtil;
 import com.seeyon.A8ContractPost.util.JsonUtil;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
 
 /**
  * 合同服务实现类
@@ -21,204 +25,66 @@ public class ContractServiceImpl implements ContractService {
 
     private final HttpClientUtil httpClientUtil;
     private final AreaCodeConverter areaCodeConverter;
+    private final TokenManager tokenManager;
+    private final AreaCodeStore areaCodeStore;
+    private final ObjectProvider<AsyncHttpClientUtil> asyncHttpClientUtil;
 
     @Value("${contract.api.base-url}")
     private String baseUrl;
 
-    @Value("${contract.api.username}")
-    private String username;
-
-    @Value("${contract.api.password}")
-    private String password;
-
     @Value("${contract.api.lang-code}")
     private String langCode;
 
-    @Value("${contract.api.token-ttl}")
-    private long tokenTtl;
-
-    // 缓存Token及其过期时间
-    private String cachedToken;
-    private long tokenExpireTime;
+    // 任务、保证金批量提交时每次请求的记录数
+    @Value("${contract.api.batch.chunk-size:50}")
+    private int chunkSize;
 
-    // 缓存区域数据
-    private final Map<String, List<AreaCode>> areaCodeCache = new ConcurrentHashMap<>();
+    // 合同批量提交时每次请求的记录数
+    @Value("${contract.api.batch.contract-chunk-size:1}")
+    private int contractChunkSize;
 
-    public ContractServiceImpl(HttpClientUtil httpClientUtil, AreaCodeConverter areaCodeConverter) {
+    public ContractServiceImpl(HttpClientUtil httpClientUtil, AreaCodeConverter areaCodeConverter,
+                               TokenManager tokenManager, AreaCodeStore areaCodeStore,
+                               ObjectProvider<AsyncHttpClientUtil> asyncHttpClientUtil) {
         this.httpClientUtil = httpClientUtil;
         this.areaCodeConverter = areaCodeConverter;
+        this.tokenManager = tokenManager;
+        this.areaCodeStore = areaCodeStore;
+        this.asyncHttpClientUtil = asyncHttpClientUtil;
     }
 
     @Override
     public String getToken() {
-        // 检查Token是否已缓存且未过期
-        long currentTime = System.currentTimeMillis();
-        if (cachedToken != null && currentTime < tokenExpireTime) {
-            log.debug("使用缓存的Token");
-            return cachedToken;
-        }
-
-        // 构建登录请求
-        LoginRequest loginRequest = new LoginRequest(username, password, langCode);
-        String requestJson = JsonUtil.toJson(loginRequest);
-        
-        // 发送登录请求
-        String url = baseUrl + "/GetData/DataAnalysisLogin";
-        String responseJson = httpClientUtil.doPost(url, requestJson);
-        
-        // 解析响应
-        LoginResponse loginResponse = JsonUtil.fromJson(responseJson, LoginResponse.class);
-        
-        if (loginResponse.isSuccess()) {
-            // 缓存Token
-            cachedToken = loginResponse.getMess();
-            tokenExpireTime = currentTime + tokenTtl;
-            log.info("成功获取Token: {}", cachedToken);
-            return cachedToken;
-        } else {
-            log.error("获取Token失败: {}", loginResponse.getMess());
-            throw new RuntimeException("获取Token失败: " + loginResponse.getMess());
-        }
+        return tokenManager.getToken();
     }
 
     // 全国区域数据（get)
     @Override
     public List<AreaCode> getAreaCodes(String token, String codeProv) {
-        // 检查缓存
-        String cacheKey = codeProv == null ? "ALL" : codeProv;
-        if (areaCodeCache.containsKey(cacheKey)) {
-            log.debug("使用缓存的区域数据: {}", cacheKey);
-            return areaCodeCache.get(cacheKey);
-        }
-
-        // 构建请求参数
-        Map<String, String> params = new HashMap<>();
-        params.put("Token", token);
-        if (codeProv != null && !codeProv.isEmpty()) {
-            params.put("code_prov", codeProv);
-        }
-
-        // 发送请求
-        String url = baseUrl + "/Contract/ContractTownshipArea";
-        String responseJson = httpClientUtil.doGet(url, params);
-
-        // 解析响应
-        // 这里需要根据实际响应格式解析区域数据
-        // 假设响应是一个区域数据列表
-        List<AreaCode> areaCodes = parseAreaCodes(responseJson);
-        
-        // 缓存结果
-        areaCodeCache.put(cacheKey, areaCodes);
-        
-        return areaCodes;
-    }
-
-    /**
-     * 解析区域数据响应
-     * 根据接口返回的JSON格式解析区域数据
-     */
-    private List<AreaCode> parseAreaCodes(String responseJson) {
-        List<AreaCode> areaCodes = new ArrayList<>();
-        
-        try {
-            // 解析JSON为Map
-            Map<String, Object> responseMap = JsonUtil.fromJsonToMap(responseJson);
-            
-            // 检查状态码
-            int state = (int) responseMap.get("state");
-            if (state != 1) {
-                // 如果状态不为1，表示请求失败
-                String message = responseMap.containsKey("mess") ? (String) responseMap.get("mess") : "未知错误";
-                log.error("获取区域编码失败: {}", message);
-                return areaCodes;
-            }
-            
-            // 获取InfoList数组
-            @SuppressWarnings("unchecked")
-            List<Map<String, Object>> infoList = (List<Map<String, Object>>) responseMap.get("InfoList");
-            if (infoList == null || infoList.isEmpty()) {
-                log.error("区域编码数据格式错误: InfoList不是数组或不存在");
-                return areaCodes;
-            }
-            
-            // 解析每个区域信息
-            for (Map<String, Object> item : infoList) {
-                // 省级
-                AreaCode province = new AreaCode();
-                province.setCode((String) item.get("code_prov"));
-                province.setName((String) item.get("name_prov"));
-                province.setParentCode("0"); // 省级没有父级，设为0
-                province.setLevel(1);
-                addUniqueAreaCode(areaCodes, province);
-                
-                // 市级
-                AreaCode city = new AreaCode();
-                city.setCode((String) item.get("code_city"));
-                city.setName((String) item.get("name_city"));
-                city.setParentCode(province.getCode());
-                city.setLevel(2);
-                addUniqueAreaCode(areaCodes, city);
-                
-                // 区/县级
-                AreaCode county = new AreaCode();
-                county.setCode((String) item.get("code_coun"));
-                county.setName((String) item.get("name_coun"));
-                county.setParentCode(city.getCode());
-                county.setLevel(3);
-                addUniqueAreaCode(areaCodes, county);
-                
-                // 镇/街道级
-                AreaCode town = new AreaCode();
-                town.setCode((String) item.get("code_town"));
-                town.setName((String) item.get("name_town"));
-                town.setParentCode(county.getCode());
-                town.setLevel(4);
-                addUniqueAreaCode(areaCodes, town);
-            }
-            
-            log.info("成功解析区域编码数据，共 {} 条记录", areaCodes.size());
-        } catch (Exception e) {
-            log.error("解析区域编码数据异常", e);
-        }
-        
-        return areaCodes;
-    }
-    
-    /**
-     * 添加唯一的区域编码到列表中（避免重复）
-     */
-    private void addUniqueAreaCode(List<AreaCode> areaCodes, AreaCode areaCode) {
-        // 检查是否已存在相同编码的记录
-        boolean exists = areaCodes.stream()
-                .anyMatch(item -> item.getCode().equals(areaCode.getCode()));
-        
-        if (!exists) {
-            areaCodes.add(areaCode);
+        // 全国区域数据统一由AreaCodeStore缓存，按省份查询时从缓存中筛选
+        AreaHierarchy hierarchy = areaCodeStore.getHierarchy();
+        if (codeProv == null || codeProv.isEmpty()) {
+            return hierarchy.getAll();
         }
+        return hierarchy.getProvinceTree(codeProv);
     }
 
     // 维护经销商合同(post)
     @Override
     public ContractCreateResponse createOrUpdateContract(String token, Contract contract) {
-        // 转换区域编码
-        contract.setCode_prov(areaCodeConverter.convertProvCode(contract.getCode_prov()));
-        contract.setCode_city(areaCodeConverter.convertCityCode(contract.getCode_city()));
-        contract.setCode_coun(areaCodeConverter.convertCountyCode(contract.getCode_coun()));
-        contract.setCode_town(areaCodeConverter.convertTownCode(contract.getCode_town()));
-
-        // 构建请求
-        ContractDataRequest<Contract> request = new ContractDataRequest<>();
-        request.setToken(token);
-        request.setLangz_Code(langCode);
-        request.setPreviousDataList(Collections.singletonList(contract));
+        // 转换并校验区域编码，目标系统中不存在的区域不再提交
+        AreaResolution resolution = convertAreaCodes(contract);
+        if (!resolution.isValid()) {
+            log.error("创建/更新合同失败: {}", resolution.getMessage());
+            ContractCreateResponse response = new ContractCreateResponse();
+            response.setState(0);
+            response.setMess(resolution.getMessage());
+            return response;
+        }
 
         // 发送请求
         String url = baseUrl + "/Contract/ContractAddorUpdDoc";
-        String requestJson = JsonUtil.toJson(request);
-        String responseJson = httpClientUtil.doPost(url, requestJson);
-
-        // 解析响应
-        ContractCreateResponse response = JsonUtil.fromJson(responseJson, ContractCreateResponse.class);
+        ContractCreateResponse response = postData(token, url, Collections.singletonList(contract), ContractCreateResponse.class);
         
         if (response.isSuccess()) {
             log.info("创建/更新合同成功: {}", response.getOrder_no());
@@ -231,40 +97,68 @@ public class ContractServiceImpl implements ContractService {
 
     @Override
     public Map<String, ContractCreateResponse> batchCreateOrUpdateContracts(String token, List<Contract> contracts) {
-        Map<String, ContractCreateResponse> results = new HashMap<>();
-        
+        // 区域编码无效的合同直接记为失败，其余合同批量提交
+        Map<Contract, String> invalid = new IdentityHashMap<>();
+        List<Contract> valid = new ArrayList<>(contracts.size());
         for (Contract contract : contracts) {
-            try {
-                ContractCreateResponse response = createOrUpdateContract(token, contract);
+            AreaResolution resolution = convertAreaCodes(contract);
+            if (resolution.isValid()) {
+                valid.add(contract);
+            } else {
+                invalid.put(contract, resolution.getMessage());
+            }
+        }
+
+        String url = baseUrl + "/Contract/ContractAddorUpdDoc";
+        List<ContractCreateResponse> responses = valid.isEmpty() ? Collections.emptyList()
+                : postInChunks(token, url, valid, contractChunkSize,
+                ContractCreateResponse.class, ContractCreateResponse::new, this::mapContractResponses);
+
+        Map<String, ContractCreateResponse> results = new LinkedHashMap<>();
+        Iterator<ContractCreateResponse> iterator = responses.iterator();
+        for (Contract contract : contracts) {
+            String message = invalid.get(contract);
+            if (message == null) {
+                results.put(contract.getContract_name(), iterator.next());
+            } else {
+                ContractCreateResponse response = new ContractCreateResponse();
+                response.setState(0);
+                response.setMess(message);
                 results.put(contract.getContract_name(), response);
-            } catch (Exception e) {
-                log.error("处理合同时出错: {}", contract.getContract_name(), e);
-                ContractCreateResponse errorResponse = new ContractCreateResponse();
-                errorResponse.setState(0);
-                errorResponse.setMess("处理出错: " + e.getMessage());
-                results.put(contract.getContract_name(), errorResponse);
             }
         }
-        
+        return results;
+    }
+
+    /**
+     * 将一次批量创建合同的响应拆分到每条合同
+     * 目标接口以逗号分隔返回多个合同号，数量与提交的合同数不一致时无法对应，返回null，整块合同记为结果未知
+     */
+    private List<ContractCreateResponse> mapContractResponses(List<Contract> chunk, ContractCreateResponse response) {
+        if (chunk.size() == 1) {
+            return Collections.singletonList(response);
+        }
+        String[] orderNos = response.getOrder_no() == null ? new String[0] : response.getOrder_no().split(",");
+        if (orderNos.length != chunk.size()) {
+            return null;
+        }
+        List<ContractCreateResponse> results = new ArrayList<>(chunk.size());
+        for (String orderNo : orderNos) {
+            ContractCreateResponse item = new ContractCreateResponse();
+            item.setState(response.getState());
+            item.setMess(response.getMess());
+            item.setOrder_no(orderNo.trim());
+            results.add(item);
+        }
         return results;
     }
 
     // 维护合同任务,已创建的合同号，添加销售和回笼任务。
     @Override
     public ApiResponse createOrUpdateContractTask(String token, ContractTask contractTask) {
-        // 构建请求
-        ContractDataRequest<ContractTask> request = new ContractDataRequest<>();
-        request.setToken(token);
-        request.setLangz_Code(langCode);
-        request.setPreviousDataList(Collections.singletonList(contractTask));
-
         // 发送请求
         String url = baseUrl + "/Contract/ContractAddorUpdTask";
-        String requestJson = JsonUtil.toJson(request);
-        String responseJson = httpClientUtil.doPost(url, requestJson);
-
-        // 解析响应
-        ApiResponse response = JsonUtil.fromJson(responseJson, ApiResponse.class);
+        ApiResponse response = postData(token, url, Collections.singletonList(contractTask), ApiResponse.class);
         
         if (response.isSuccess()) {
             log.info("创建/更新合同任务成功: {}", contractTask.getOrder_no());
@@ -277,37 +171,17 @@ public class ContractServiceImpl implements ContractService {
 
     @Override
     public List<ApiResponse> batchCreateOrUpdateContractTasks(String token, List<ContractTask> contractTasks) {
-        return contractTasks.stream()
-                .map(task -> {
-                    try {
-                        return createOrUpdateContractTask(token, task);
-                    } catch (Exception e) {
-                        log.error("处理合同任务时出错: {}", task.getOrder_no(), e);
-                        ApiResponse errorResponse = new ApiResponse();
-                        errorResponse.setState(0);
-                        errorResponse.setMess("处理出错: " + e.getMessage());
-                        return errorResponse;
-                    }
-                })
-                .collect(Collectors.toList());
+        String url = baseUrl + "/Contract/ContractAddorUpdTask";
+        return postInChunks(token, url, contractTasks, chunkSize, ApiResponse.class, ApiResponse::new,
+                (chunk, response) -> Collections.nCopies(chunk.size(), response));
     }
 
     // 维护合同保证金（post)
     @Override
     public ApiResponse createOrUpdateContractGuarantee(String token, ContractGuarantee contractGuarantee) {
-        // 构建请求
-        ContractDataRequest<ContractGuarantee> request = new ContractDataRequest<>();
-        request.setToken(token);
-        request.setLangz_Code(langCode);
-        request.setPreviousDataList(Collections.singletonList(contractGuarantee));
-
         // 发送请求
         String url = baseUrl + "/Contract/ContractAddorUpdGuaranteeAmount";
-        String requestJson = JsonUtil.toJson(request);
-        String responseJson = httpClientUtil.doPost(url, requestJson);
-
-        // 解析响应
-        ApiResponse response = JsonUtil.fromJson(responseJson, ApiResponse.class);
+        ApiResponse response = postData(token, url, Collections.singletonList(contractGuarantee), ApiResponse.class);
         
         if (response.isSuccess()) {
             log.info("创建/更新合同保证金成功: {}", contractGuarantee.getOrder_no());
@@ -320,45 +194,23 @@ public class ContractServiceImpl implements ContractService {
 
     @Override
     public List<ApiResponse> batchCreateOrUpdateContractGuarantees(String token, List<ContractGuarantee> contractGuarantees) {
-        return contractGuarantees.stream()
-                .map(guarantee -> {
-                    try {
-                        return createOrUpdateContractGuarantee(token, guarantee);
-                    } catch (Exception e) {
-                        log.error("处理合同保证金时出错: {}", guarantee.getOrder_no(), e);
-                        ApiResponse errorResponse = new ApiResponse();
-                        errorResponse.setState(0);
-                        errorResponse.setMess("处理出错: " + e.getMessage());
-                        return errorResponse;
-                    }
-                })
-                .collect(Collectors.toList());
+        String url = baseUrl + "/Contract/ContractAddorUpdGuaranteeAmount";
+        return postInChunks(token, url, contractGuarantees, chunkSize, ApiResponse.class, ApiResponse::new,
+                (chunk, response) -> Collections.nCopies(chunk.size(), response));
     }
 
     // 维护合同区域（post)
     @Override
     public ApiResponse updateContractArea(String token, List<ContractArea> contractAreas) {
-        // 转换区域编码
-        for (ContractArea area : contractAreas) {
-            area.setCode_prov(areaCodeConverter.convertProvCode(area.getCode_prov()));
-            area.setCode_city(areaCodeConverter.convertCityCode(area.getCode_city()));
-            area.setCode_coun(areaCodeConverter.convertCountyCode(area.getCode_coun()));
-            area.setCode_town(areaCodeConverter.convertTownCode(area.getCode_town()));
+        // 转换并校验区域编码，有无效区域时整批不提交
+        ApiResponse invalid = convertAreaCodes(contractAreas);
+        if (invalid != null) {
+            return invalid;
         }
 
-        // 构建请求
-        ContractDataRequest<ContractArea> request = new ContractDataRequest<>();
-        request.setToken(token);
-        request.setLangz_Code(langCode);
-        request.setPreviousDataList(contractAreas);
-
         // 发送请求
         String url = baseUrl + "/Contract/ContractNationalAreaAddOrUpd";
-        String requestJson = JsonUtil.toJson(request);
-        String responseJson = httpClientUtil.doPost(url, requestJson);
-
-        // 解析响应
-        ApiResponse response = JsonUtil.fromJson(responseJson, ApiResponse.class);
+        ApiResponse response = postData(token, url, contractAreas, ApiResponse.class);
         
         if (response.isSuccess()) {
             log.info("更新合同区域成功: {}", contractAreas.get(0).getOrder_no());
@@ -372,22 +224,12 @@ public class ContractServiceImpl implements ContractService {
     // 删除经销商合同(post)
     @Override
     public ApiResponse deleteContract(String token, String orderNo) {
-        // 构建请求
-        ContractDataRequest<Map<String, String>> request = new ContractDataRequest<>();
-        request.setToken(token);
-        request.setLangz_Code(langCode);
-        
         Map<String, String> data = new HashMap<>();
         data.put("order_no", orderNo);
-        request.setPreviousDataList(Collections.singletonList(data));
 
         // 发送请求
         String url = baseUrl + "/Contract/ContractDelDoc";
-        String requestJson = JsonUtil.toJson(request);
-        String responseJson = httpClientUtil.doPost(url, requestJson);
-
-        // 解析响应
-        ApiResponse response = JsonUtil.fromJson(responseJson, ApiResponse.class);
+        ApiResponse response = postData(token, url, Collections.singletonList(data), ApiResponse.class);
         
         if (response.isSuccess()) {
             log.info("删除合同成功: {}", orderNo);
@@ -397,4 +239,283 @@ public class ContractServiceImpl implements ContractService {
         
         return response;
     }
-} 
\ No newline at end of file
+
+    /**
+     * 转换并校验合同区域列表的区域编码，校验通过时写回
+     *
+     * @return 有无效区域时返回失败响应，否则返回null
+     */
+    private ApiResponse convertAreaCodes(List<ContractArea> contractAreas) {
+        for (ContractArea area : contractAreas) {
+            AreaResolution resolution = areaCodeConverter.resolve(area.getCode_prov(), area.getCode_city(),
+                    area.getCode_coun(), area.getCode_town());
+            if (!resolution.isValid()) {
+                log.error("更新合同区域失败: {}", resolution.getMessage());
+                ApiResponse response = new ApiResponse();
+                response.setState(0);
+                response.setMess(resolution.getMessage());
+                return response;
+            }
+            if (resolution.isRepaired()) {
+                log.warn("合同区域 [{}] {}", area.getOrder_no(), resolution.getMessage());
+            }
+            area.setCode_prov(resolution.getProvCode());
+            area.setCode_city(resolution.getCityCode());
+            area.setCode_coun(resolution.getCountyCode());
+            area.setCode_town(resolution.getTownCode());
+        }
+        return null;
+    }
+
+    /**
+     * 转换并校验合同的区域编码，校验通过时写回合同
+     */
+    private AreaResolution convertAreaCodes(Contract contract) {
+        AreaResolution resolution = areaCodeConverter.resolve(contract.getCode_prov(), contract.getCode_city(),
+                contract.getCode_coun(), contract.getCode_town());
+        if (resolution.isValid()) {
+            if (resolution.isRepaired()) {
+                log.warn("合同 [{}] {}", contract.getContract_name(), resolution.getMessage());
+            }
+            contract.setCode_prov(resolution.getProvCode());
+            contract.setCode_city(resolution.getCityCode());
+            contract.setCode_coun(resolution.getCountyCode());
+            contract.setCode_town(resolution.getTownCode());
+        }
+        return resolution;
+    }
+
+    @Override
+    public CompletableFuture<ContractCreateResponse> createOrUpdateContractAsync(String token, Contract contract) {
+        AreaResolution resolution = convertAreaCodes(contract);
+        if (!resolution.isValid()) {
+            log.error("创建/更新合同失败: {}", resolution.getMessage());
+            ContractCreateResponse response = new ContractCreateResponse();
+            response.setState(0);
+            response.setMess(resolution.getMessage());
+            return CompletableFuture.completedFuture(response);
+        }
+
+        String url = baseUrl + "/Contract/ContractAddorUpdDoc";
+        return postDataAsync(token, url, Collections.singletonList(contract), ContractCreateResponse.class)
+                .thenApply(response -> {
+                    if (response.isSuccess()) {
+                        log.info("创建/更新合同成功: {}", response.getOrder_no());
+                    } else {
+                        log.error("创建/更新合同失败: {}", response.getMess());
+                    }
+                    return response;
+                });
+    }
+
+    @Override
+    public CompletableFuture<ApiResponse> createOrUpdateContractTaskAsync(String token, ContractTask contractTask) {
+        String url = baseUrl + "/Contract/ContractAddorUpdTask";
+        return postDataAsync(token, url, Collections.singletonList(contractTask), ApiResponse.class)
+                .thenApply(response -> {
+                    if (response.isSuccess()) {
+                        log.info("创建/更新合同任务成功: {}", contractTask.getOrder_no());
+                    } else {
+                        log.error("创建/更新合同任务失败: {}", response.getMess());
+                    }
+                    return response;
+                });
+    }
+
+    @Override
+    public CompletableFuture<ApiResponse> createOrUpdateContractGuaranteeAsync(String token, ContractGuarantee contractGuarantee) {
+        String url = baseUrl + "/Contract/ContractAddorUpdGuaranteeAmount";
+        return postDataAsync(token, url, Collections.singletonList(contractGuarantee), ApiResponse.class)
+                .thenApply(response -> {
+                    if (response.isSuccess()) {
+                        log.info("创建/更新合同保证金成功: {}", contractGuarantee.getOrder_no());
+                    } else {
+                        log.error("创建/更新合同保证金失败: {}", response.getMess());
+                    }
+                    return response;
+                });
+    }
+
+    @Override
+    public CompletableFuture<ApiResponse> updateContractAreaAsync(String token, List<ContractArea> contractAreas) {
+        ApiResponse invalid = convertAreaCodes(contractAreas);
+        if (invalid != null) {
+            return CompletableFuture.completedFuture(invalid);
+        }
+
+        String url = baseUrl + "/Contract/ContractNationalAreaAddOrUpd";
+        return postDataAsync(token, url, contractAreas, ApiResponse.class)
+                .thenApply(response -> {
+                    if (response.isSuccess()) {
+                        log.info("更新合同区域成功: {}", contractAreas.get(0).getOrder_no());
+                    } else {
+                        log.error("更新合同区域失败: {}", response.getMess());
+                    }
+                    return response;
+                });
+    }
+
+    /**
+     * 以PreviousDataList形式异步提交数据
+     * 未启用异步传输时在调用线程中同步提交；Token失效时的重新登录会阻塞，放到公共线程池执行，不占用IO线程
+     */
+    private <T, R extends ApiResponse> CompletableFuture<R> postDataAsync(String token, String url, List<T> dataList,
+                                                                          Class<R> responseClass) {
+        AsyncHttpClientUtil asyncClient = asyncHttpClientUtil.getIfAvailable();
+        if (asyncClient == null) {
+            CompletableFuture<R> future = new CompletableFuture<>();
+            try {
+                future.complete(postData(token, url, dataList, responseClass));
+            } catch (Exception e) {
+                future.completeExceptionally(e);
+            }
+            return future;
+        }
+
+        return doPostDataAsync(asyncClient, token, url, dataList, responseClass).handle((response, e) -> {
+            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            if (cause instanceof ApiUnauthorizedException) {
+                log.warn("Token已失效（HTTP 401），重新登录后重试: {}", url);
+            } else if (cause != null) {
+                CompletableFuture<R> failed = new CompletableFuture<>();
+                failed.completeExceptionally(cause);
+                return failed;
+            } else if (tokenManager.isTokenInvalid(response)) {
+                log.warn("Token已失效，重新登录后重试: {}, {}", url, response.getMess());
+            } else {
+                return CompletableFuture.completedFuture(response);
+            }
+            return CompletableFuture.supplyAsync(() -> tokenManager.refreshToken(token))
+                    .thenCompose(newToken -> doPostDataAsync(asyncClient, newToken, url, dataList, responseClass));
+        }).thenCompose(future -> future);
+    }
+
+    private <T, R extends ApiResponse> CompletableFuture<R> doPostDataAsync(AsyncHttpClientUtil asyncClient, String token,
+                                                                            String url, List<T> dataList,
+                                                                            Class<R> responseClass) {
+        return asyncClient.doPost(url, JsonUtil.toJsonBytes(buildRequest(token, dataList)),
+                content -> JsonUtil.fromJson(content, responseClass)).thenApply(response -> {
+            if (response == null) {
+                throw new RuntimeException("接口无响应内容: " + url);
+            }
+            return response;
+        });
+    }
+
+    /**
+     * 以PreviousDataList形式提交数据
+     * 接口返回 HTTP 401 或提示Token失效时，重新登录一次并用新Token重试
+     *
+     * @param token         Token
+     * @param url           接口地址
+     * @param dataList      数据列表
+     * @param responseClass 响应类型
+     * @return 接口响应
+     */
+    private <T, R extends ApiResponse> R postData(String token, String url, List<T> dataList, Class<R> responseClass) {
+        try {
+            R response = doPostData(token, url, dataList, responseClass);
+            if (!tokenManager.isTokenInvalid(response)) {
+                return response;
+            }
+            log.warn("Token已失效，重新登录后重试: {}, {}", url, response.getMess());
+        } catch (ApiUnauthorizedException e) {
+            log.warn("Token已失效（HTTP 401），重新登录后重试: {}", url);
+        }
+        return doPostData(tokenManager.refreshToken(token), url, dataList, responseClass);
+    }
+
+    private <T, R extends ApiResponse> R doPostData(String token, String url, List<T> dataList, Class<R> responseClass) {
+        // 发送请求，请求体直接编码为字节，响应直接从流中解析
+        R response = httpClientUtil.doPost(url, JsonUtil.toJsonBytes(buildRequest(token, dataList)),
+                content -> JsonUtil.fromJson(content, responseClass));
+        if (response == null) {
+            throw new RuntimeException("接口无响应内容: " + url);
+        }
+        return response;
+    }
+
+    private <T> ContractDataRequest<T> buildRequest(String token, List<T> dataList) {
+        ContractDataRequest<T> request = new ContractDataRequest<>();
+        request.setToken(token);
+        request.setLangz_Code(langCode);
+        request.setPreviousDataList(dataList);
+        return request;
+    }
+
+    /**
+     * 按块批量提交数据，每块数据放入同一个PreviousDataList中一次提交
+     * 某块被目标系统明确拒绝时，将该块对半拆分后分别重试，直到单条记录；
+     * 请求异常（如读取超时）或成功响应无法对应到每条记录时，目标系统可能已处理该块，不再重新提交，整块记为失败
+     *
+     * @param token         Token
+     * @param url           接口地址
+     * @param records       待提交的数据
+     * @param chunkSize     每块数据条数
+     * @param responseClass 响应类型
+     * @param errorFactory  出错时的响应构造器
+     * @param resultMapper  将成功的整块响应映射为每条记录的响应，无法映射时返回null
+     * @return 与records顺序一致的响应列表
+     */
+    private <T, R extends ApiResponse> List<R> postInChunks(String token, String url, List<T> records, int chunkSize,
+                                                            Class<R> responseClass, Supplier<R> errorFactory,
+                                                            BiFunction<List<T>, R, List<R>> resultMapper) {
+        List<R> results = new ArrayList<>(records.size());
+        int size = Math.max(chunkSize, 1);
+        for (int from = 0; from < records.size(); from += size) {
+            List<T> chunk = records.subList(from, Math.min(from + size, records.size()));
+            results.addAll(postChunk(token, url, chunk, responseClass, errorFactory, resultMapper));
+        }
+        return results;
+    }
+
+    /**
+     * 提交一块数据，被目标系统拒绝时对半拆分重试
+     */
+    private <T, R extends ApiResponse> List<R> postChunk(String token, String url, List<T> chunk,
+                                                         Class<R> responseClass, Supplier<R> errorFactory,
+                                                         BiFunction<List<T>, R, List<R>> resultMapper) {
+        R response;
+        try {
+            response = postData(token, url, new ArrayList<>(chunk), responseClass);
+        } catch (Exception e) {
+            // 请求可能已到达目标系统并处理完成，重新提交不幂等的接口会重复创建，交由重试队列处理
+            log.error("批量提交数据出错，不再重新提交: {}, 条数: {}", url, chunk.size(), e);
+            return failAll(chunk.size(), errorFactory, "处理出错: " + e.getMessage());
+        }
+
+        if (response.isSuccess()) {
+            List<R> mapped = resultMapper.apply(chunk, response);
+            if (mapped != null) {
+                log.info("批量提交数据成功: {}, 条数: {}", url, chunk.size());
+                return mapped;
+            }
+            // 目标系统已处理成功，只是无法确定每条记录的结果，不能拆分重新提交
+            log.error("批量提交数据成功，但响应无法对应到每条记录: {}, 条数: {}, {}", url, chunk.size(), response.getMess());
+            return failAll(chunk.size(), errorFactory, "提交结果未知，响应无法对应到每条记录: " + response.getMess());
+        }
+
+        if (chunk.size() == 1) {
+            log.error("提交数据失败: {}, {}", url, response.getMess());
+            return Collections.singletonList(response);
+        }
+
+        // 目标系统拒绝了整块，拆分为两半分别重试，定位失败的记录
+        log.warn("批量提交数据失败，拆分重试: {}, 条数: {}, {}", url, chunk.size(), response.getMess());
+        int middle = chunk.size() / 2;
+        List<R> results = new ArrayList<>(chunk.size());
+        results.addAll(postChunk(token, url, chunk.subList(0, middle), responseClass, errorFactory, resultMapper));
+        results.addAll(postChunk(token, url, chunk.subList(middle, chunk.size()), responseClass, errorFactory, resultMapper));
+        return results;
+    }
+
+    /**
+     * 整块记为失败，每条记录使用相同的失败响应
+     */
+    private static <R extends ApiResponse> List<R> failAll(int size, Supplier<R> errorFactory, String message) {
+        R response = errorFactory.get();
+        response.setState(0);
+        response.setMess(message);
+        return Collections.nCopies(size, response);
+    }
+}
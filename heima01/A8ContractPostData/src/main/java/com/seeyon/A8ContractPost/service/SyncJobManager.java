@@ -0,0 +1,313 @@
+package com.seeyon.A8ContractPost.service;
+
+import com.seeyon.A8ContractPost.model.SyncJob;
+import com.seeyon.A8ContractPost.model.SyncProgress;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 同步任务管理
+ * 手动和定时触发的同步运行统一提交到这里，由单个后台线程依次执行，互不重叠；
+ * 提交后立即返回任务ID，进度通过任务查询获得。
+ * 同类型、同批量大小的任务已在排队或执行中时，不再重复提交，直接返回该任务
+ */
+@Slf4j
+@Service
+public class SyncJobManager {
+
+    /**
+     * 按批量同步未同步的合同
+     */
+    public static final String TYPE_SYNC = "sync";
+
+    /**
+     * 按水位线增量同步
+     */
+    public static final String TYPE_INCREMENTAL = "incremental";
+
+    /**
+     * 重试同步失败的合同
+     */
+    public static final String TYPE_RETRY = "retry";
+
+    /**
+     * 全量回填
+     */
+    public static final String TYPE_BACKFILL = "backfill";
+
+    /**
+     * 手动触发
+     */
+    public static final String TRIGGER_MANUAL = "manual";
+
+    /**
+     * 定时触发
+     */
+    public static final String TRIGGER_SCHEDULED = "scheduled";
+
+    private final SyncService syncService;
+
+    /**
+     * 任务执行线程，同一时间只执行一个同步任务
+     */
+    private final ExecutorService jobExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "contract-sync-job");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * 任务记录，按提交顺序排列
+     */
+    private final Map<String, SyncJob> jobs = new LinkedHashMap<>();
+
+    /**
+     * 每种任务类型保留的已结束任务数，定时的重试、增量任务不会挤掉手动触发的回填记录
+     */
+    @Value("${contract.sync.job.history-size:20}")
+    private int historySize;
+
+    public SyncJobManager(SyncService syncService) {
+        this.syncService = syncService;
+    }
+
+    /**
+     * 提交同步任务
+     *
+     * @param type    任务类型
+     * @param size    批量大小，0表示使用配置值
+     * @param trigger 触发方式
+     * @return 任务信息，deduplicated为true表示已有相同任务在排队或执行中，返回的是该任务
+     */
+    public synchronized Map<String, Object> submit(String type, int size, String trigger) {
+        for (SyncJob job : jobs.values()) {
+            if (job.isActive() && job.getType().equals(type) && job.getSize() == size) {
+                log.debug("已有相同的同步任务在{}，不重复提交: {} [{}]",
+                        SyncJob.STATUS_RUNNING.equals(job.getStatus()) ? "执行中" : "排队中", job.getId(), type);
+                Map<String, Object> view = toView(job);
+                view.put("deduplicated", true);
+                return view;
+            }
+        }
+
+        SyncJob job = new SyncJob();
+        job.setId(UUID.randomUUID().toString().replace("-", ""));
+        job.setType(type);
+        job.setSize(size);
+        job.setTrigger(trigger);
+        job.setStatus(SyncJob.STATUS_QUEUED);
+        job.setSubmitTime(System.currentTimeMillis());
+        jobs.put(job.getId(), job);
+        job.setFuture(jobExecutor.submit(() -> run(job)));
+        trimHistory(type);
+        if (TRIGGER_MANUAL.equals(trigger)) {
+            log.info("提交同步任务: {} [{}]，批量大小: {}", job.getId(), type, size);
+        } else {
+            log.debug("提交定时同步任务: {} [{}]，批量大小: {}", job.getId(), type, size);
+        }
+
+        Map<String, Object> view = toView(job);
+        view.put("deduplicated", false);
+        return view;
+    }
+
+    /**
+     * 查询任务
+     *
+     * @param jobId 任务ID
+     * @return 任务信息，不存在时返回null
+     */
+    public synchronized Map<String, Object> getJob(String jobId) {
+        SyncJob job = jobs.get(jobId);
+        return job == null ? null : toView(job);
+    }
+
+    /**
+     * 查询最近的任务，最新提交的在前
+     *
+     * @return 任务信息列表
+     */
+    public synchronized List<Map<String, Object>> listJobs() {
+        List<Map<String, Object>> views = new ArrayList<>(jobs.size());
+        for (SyncJob job : jobs.values()) {
+            views.add(toView(job));
+        }
+        Collections.reverse(views);
+        return views;
+    }
+
+    /**
+     * 取消任务
+     * 排队中的任务直接取消；执行中的任务在正在同步的合同完成后停止，其余合同留待下次同步
+     *
+     * @param jobId 任务ID
+     * @return 任务信息，不存在时返回null
+     */
+    public synchronized Map<String, Object> cancel(String jobId) {
+        SyncJob job = jobs.get(jobId);
+        if (job == null) {
+            return null;
+        }
+
+        if (SyncJob.STATUS_QUEUED.equals(job.getStatus())) {
+            cancelQueued(job, "任务在排队中被取消");
+        } else if (SyncJob.STATUS_RUNNING.equals(job.getStatus())) {
+            job.getProgress().cancel();
+            log.info("请求取消执行中的同步任务: {} [{}]", jobId, job.getType());
+        }
+        return toView(job);
+    }
+
+    /**
+     * 服务停止时取消全部任务：排队中的任务不再执行，执行中的任务在正在同步的合同完成后结束
+     */
+    @PreDestroy
+    public void shutdown() {
+        synchronized (this) {
+            for (SyncJob job : jobs.values()) {
+                if (SyncJob.STATUS_QUEUED.equals(job.getStatus())) {
+                    cancelQueued(job, "服务停止，排队中的任务被取消");
+                } else if (job.isActive()) {
+                    job.getProgress().cancel();
+                }
+            }
+        }
+        jobExecutor.shutdown();
+        try {
+            if (!jobExecutor.awaitTermination(60, TimeUnit.SECONDS)) {
+                log.warn("同步任务未能在60秒内结束");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 取消排队中的任务，调用方持有本对象的锁
+     */
+    private void cancelQueued(SyncJob job, String result) {
+        job.getFuture().cancel(false);
+        job.setStatus(SyncJob.STATUS_CANCELLED);
+        job.setEndTime(System.currentTimeMillis());
+        job.setResult(result);
+        log.info("取消排队中的同步任务: {} [{}]", job.getId(), job.getType());
+    }
+
+    private void run(SyncJob job) {
+        synchronized (this) {
+            if (!SyncJob.STATUS_QUEUED.equals(job.getStatus())) {
+                return;
+            }
+            job.setStatus(SyncJob.STATUS_RUNNING);
+            job.setStartTime(System.currentTimeMillis());
+        }
+        log.debug("开始执行同步任务: {} [{}]", job.getId(), job.getType());
+
+        SyncProgress progress = job.getProgress();
+        String result;
+        String status;
+        try {
+            result = execute(job.getType(), job.getSize(), progress);
+            if (progress.getError() != null) {
+                status = SyncJob.STATUS_FAILED;
+            } else if (progress.isCancelled()) {
+                status = SyncJob.STATUS_CANCELLED;
+            } else {
+                status = SyncJob.STATUS_SUCCEEDED;
+            }
+        } catch (Exception e) {
+            log.error("同步任务执行异常: {} [{}]", job.getId(), job.getType(), e);
+            result = "同步任务执行异常: " + e.getMessage();
+            status = SyncJob.STATUS_FAILED;
+        }
+
+        synchronized (this) {
+            job.setResult(result);
+            job.setEndTime(System.currentTimeMillis());
+            job.setStatus(status);
+        }
+        if (TRIGGER_MANUAL.equals(job.getTrigger())) {
+            log.info("同步任务结束: {} [{}] {}", job.getId(), job.getType(), status);
+        } else {
+            log.debug("同步任务结束: {} [{}] {}", job.getId(), job.getType(), status);
+        }
+    }
+
+    private String execute(String type, int size, SyncProgress progress) {
+        switch (type) {
+            case TYPE_SYNC:
+                return syncService.sync(size, progress);
+            case TYPE_INCREMENTAL:
+                return syncService.syncIncremental(size, progress);
+            case TYPE_RETRY:
+                return syncService.retryFailed(size, progress);
+            case TYPE_BACKFILL:
+                return syncService.backfill(size, progress);
+            default:
+                throw new IllegalArgumentException("不支持的同步任务类型: " + type);
+        }
+    }
+
+    /**
+     * 该类型只保留最近historySize个已结束的任务
+     */
+    private void trimHistory(String type) {
+        int finished = 0;
+        for (SyncJob job : jobs.values()) {
+            if (!job.isActive() && job.getType().equals(type)) {
+                finished++;
+            }
+        }
+        Iterator<SyncJob> iterator = jobs.values().iterator();
+        while (finished > historySize && iterator.hasNext()) {
+            SyncJob job = iterator.next();
+            if (!job.isActive() && job.getType().equals(type)) {
+                iterator.remove();
+                finished--;
+            }
+        }
+    }
+
+    private static Map<String, Object> toView(SyncJob job) {
+        SyncProgress progress = job.getProgress();
+        long startTime = job.getStartTime();
+        long endTime = job.getEndTime();
+        long elapsed = startTime == 0 ? 0 : (endTime == 0 ? System.currentTimeMillis() : endTime) - startTime;
+        int processed = progress.getProcessed();
+
+        Map<String, Object> view = new LinkedHashMap<>();
+        view.put("jobId", job.getId());
+        view.put("type", job.getType());
+        view.put("size", job.getSize());
+        view.put("trigger", job.getTrigger());
+        view.put("status", job.getStatus());
+        view.put("submitTime", new Timestamp(job.getSubmitTime()).toString());
+        view.put("startTime", startTime == 0 ? null : new Timestamp(startTime).toString());
+        view.put("endTime", endTime == 0 ? null : new Timestamp(endTime).toString());
+        view.put("elapsedMillis", elapsed);
+        view.put("total", progress.getTotal() < 0 ? null : progress.getTotal());
+        view.put("processed", processed);
+        view.put("success", progress.getSuccessCount().get());
+        view.put("skipped", progress.getSkipCount().get());
+        view.put("failure", progress.getFailCount().get());
+        // 吞吐量：每秒处理的合同数
+        view.put("throughput", elapsed == 0 ? 0 : Math.round(processed * 100000.0 / elapsed) / 100.0);
+        view.put("cancelRequested", progress.isCancelled());
+        view.put("result", job.getResult());
+        return view;
+    }
+}
@@ -0,0 +1,200 @@
+package com.seeyon.A8ContractPost.service;
+
+import com.seeyon.A8ContractPost.dao.ContractDao;
+import com.seeyon.A8ContractPost.model.SyncLog;
+import com.seeyon.A8ContractPost.model.SyncStatus;
+import com.seeyon.A8ContractPost.util.SyncMetrics;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 同步日志与同步状态的异步批量写入器
+ * 同步线程只负责入队，由后台线程在队列达到批量大小或到达刷新间隔时，以JDBC批量语句写入本地库；
+ * 写入失败的记录放回队列，下次刷新时重新写入。同步状态按同步时间只保留较新的一条，放回队列后顺序变化不影响结果
+ */
+@Slf4j
+@Component
+public class SyncLogWriter {
+
+    private final ContractDao contractDao;
+
+    /**
+     * 每批写入的最大记录数，队列中积压达到该数量时立即触发写入
+     */
+    @Value("${contract.sync.log-writer.batch-size:200}")
+    private int batchSize;
+
+    /**
+     * 定时刷新间隔（毫秒）
+     */
+    @Value("${contract.sync.log-writer.flush-interval:1000}")
+    private long flushInterval;
+
+    /**
+     * 队列容量，队列满时由调用线程同步写入
+     */
+    @Value("${contract.sync.log-writer.queue-capacity:10000}")
+    private int queueCapacity;
+
+    private BlockingQueue<SyncLog> logQueue;
+    private BlockingQueue<SyncStatus> statusQueue;
+    private ScheduledExecutorService flushExecutor;
+    private final AtomicBoolean flushPending = new AtomicBoolean(false);
+
+    private final SyncMetrics syncMetrics;
+
+    public SyncLogWriter(ContractDao contractDao, SyncMetrics syncMetrics) {
+        this.contractDao = contractDao;
+        this.syncMetrics = syncMetrics;
+    }
+
+    @PostConstruct
+    public void init() {
+        logQueue = new LinkedBlockingQueue<>(queueCapacity);
+        statusQueue = new LinkedBlockingQueue<>(queueCapacity);
+        flushExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "sync-log-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flushExecutor.scheduleWithFixedDelay(this::flushQuietly, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+
+        syncMetrics.gauge("contract.sync.log.writer.queue", Tags.empty(), this, SyncLogWriter::getQueueDepth);
+    }
+
+    /**
+     * 停止定时刷新，并写入队列中剩余的记录
+     */
+    @PreDestroy
+    public void destroy() {
+        flushExecutor.shutdown();
+        try {
+            flushExecutor.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flushQuietly();
+        log.info("同步日志写入器已关闭");
+    }
+
+    /**
+     * 记录同步日志
+     *
+     * @param orderNo 合同号
+     * @param type    日志类型
+     * @param content 日志内容
+     */
+    public void log(String orderNo, String type, String content) {
+        SyncLog syncLog = new SyncLog(orderNo, type, content, new Timestamp(System.currentTimeMillis()));
+        if (!logQueue.offer(syncLog)) {
+            // 队列已满，由调用线程先写入积压数据，形成背压；写入失败时队列仍是满的，直接写入本条
+            flushQuietly();
+            if (!logQueue.offer(syncLog)) {
+                contractDao.batchLogSync(Collections.singletonList(syncLog));
+            }
+        }
+        triggerFlushIfFull(logQueue.size());
+    }
+
+    /**
+     * 更新合同同步状态
+     *
+     * @param orderNo 合同号
+     * @param status  同步状态
+     * @param message 同步消息
+     */
+    public void updateStatus(String orderNo, int status, String message) {
+        SyncStatus syncStatus = new SyncStatus(orderNo, status, message, new Timestamp(System.currentTimeMillis()));
+        if (!statusQueue.offer(syncStatus)) {
+            flushQuietly();
+            if (!statusQueue.offer(syncStatus)) {
+                contractDao.batchUpdateContractSyncStatus(Collections.singletonList(syncStatus));
+            }
+        }
+        triggerFlushIfFull(statusQueue.size());
+    }
+
+    /**
+     * 获取待写入的记录数
+     *
+     * @return 日志与状态队列中积压的记录总数
+     */
+    public int getQueueDepth() {
+        return logQueue.size() + statusQueue.size();
+    }
+
+    /**
+     * 立即写入队列中的全部记录
+     * 同步批次结束时调用，保证之后读取到的同步状态是最新的；写入失败时本批记录放回队列后抛出异常
+     */
+    public synchronized void flush() {
+        List<SyncStatus> statuses = new ArrayList<>();
+        while (statusQueue.drainTo(statuses, batchSize) > 0) {
+            try {
+                contractDao.batchUpdateContractSyncStatus(statuses);
+            } catch (RuntimeException e) {
+                requeue(statusQueue, statuses, "同步状态");
+                throw e;
+            }
+            statuses.clear();
+        }
+
+        List<SyncLog> logs = new ArrayList<>();
+        while (logQueue.drainTo(logs, batchSize) > 0) {
+            try {
+                contractDao.batchLogSync(logs);
+            } catch (RuntimeException e) {
+                requeue(logQueue, logs, "同步日志");
+                throw e;
+            }
+            logs.clear();
+        }
+    }
+
+    /**
+     * 将写入失败的记录放回队列，队列已满放不下的记录只能丢弃
+     */
+    private <T> void requeue(BlockingQueue<T> queue, List<T> batch, String name) {
+        int dropped = 0;
+        for (T item : batch) {
+            if (!queue.offer(item)) {
+                dropped++;
+            }
+        }
+        if (dropped > 0) {
+            log.error("写入失败的{}无法放回队列，已丢弃: {} 条", name, dropped);
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.error("写入同步日志失败，队列积压: {}", getQueueDepth(), e);
+        }
+    }
+
+    private void triggerFlushIfFull(int size) {
+        if (size >= batchSize && !flushExecutor.isShutdown() && flushPending.compareAndSet(false, true)) {
+            flushExecutor.execute(() -> {
+                flushPending.set(false);
+                flushQuietly();
+            });
+        }
+    }
+}
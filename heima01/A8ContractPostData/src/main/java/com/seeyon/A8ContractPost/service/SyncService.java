@@ -1,5 +1,9 @@
 package com.seeyon.A8ContractPost.service;
 
+import com.seeyon.A8ContractPost.model.SyncProgress;
+
+import java.util.Map;
+
 /**
  * 同步服务接口
  */
@@ -7,11 +11,51 @@ public interface SyncService {
     
     /**
      * 执行同步
+     * 同步水位线之后新增或修改的一批合同（按修改时间、合同号升序），与增量同步共用水位线（启用多实例分片时为本实例持有分片的水位线）；失败的合同由重试队列处理
      *
      * @param batchSize 批量处理大小
+     * @param progress  运行进度，处理过程中累加计数；请求取消后不再处理尚未开始的合同
+     * @return 同步结果
+     */
+    String sync(int batchSize, SyncProgress progress);
+    
+    /**
+     * 执行增量同步
+     * 按水位线逐页拉取OA中有变更的合同，每页处理完后推进水位线
+     *
+     * @param pageSize 每页处理大小
+     * @param progress 运行进度，处理过程中累加计数；请求取消后不再处理尚未开始的合同
      * @return 同步结果
      */
-    String sync(int batchSize);
+    String syncIncremental(int pageSize, SyncProgress progress);
+    
+    /**
+     * 重试同步失败的合同
+     * 从本地重试队列中取已到重试时间的合同，按合同号从OA读取后重新同步
+     *
+     * @param limit    每次重试的合同数
+     * @param progress 运行进度，处理过程中累加计数；请求取消后不再处理尚未开始的合同
+     * @return 同步结果
+     */
+    String retryFailed(int limit, SyncProgress progress);
+    
+    /**
+     * 将已放弃重试的合同重新放回重试队列
+     *
+     * @param orderNo 合同号，为空时处理全部已放弃的合同
+     * @return 处理结果
+     */
+    String requeueDead(String orderNo);
+    
+    /**
+     * 全量回填
+     * 以流式游标读取OA中的全部合同，按块交给同步流程处理
+     *
+     * @param chunkSize 每块合同数
+     * @param progress  运行进度，处理过程中累加计数；请求取消后不再处理尚未开始的合同
+     * @return 同步结果
+     */
+    String backfill(int chunkSize, SyncProgress progress);
     
     /**
      * 同步指定合同
@@ -20,4 +64,12 @@ public interface SyncService {
      * @return 同步结果
      */
     String syncContract(String contractId);
+    
+    /**
+     * 获取同步统计
+     * 服务启动以来因内容未变化而跳过的合同数、记录数、字节数，实际提交的合同数，以及各类同步运行最近一次的摘要
+     *
+     * @return 统计信息
+     */
+    Map<String, Object> getSyncReport();
 } 
\ No newline at end of file
@@ -1,16 +1,43 @@
 package com.seeyon.A8ContractPost.service;
 
 import com.seeyon.A8ContractPost.dao.ContractDao;
+import com.seeyon.A8ContractPost.dao.SyncCheckpointDao;
+import com.seeyon.A8ContractPost.dao.SyncOutboxDao;
 import com.seeyon.A8ContractPost.model.*;
+import com.seeyon.A8ContractPost.util.ConcurrencyLimitedExecutor;
 import com.seeyon.A8ContractPost.util.JsonUtil;
+import com.seeyon.A8ContractPost.util.SyncMetrics;
+import io.micrometer.core.instrument.Tags;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
 
+import java.sql.Timestamp;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 /**
  * 同步服务实现类
@@ -19,72 +46,721 @@ import java.util.concurrent.atomic.AtomicInteger;
 @Service
 public class SyncServiceImpl implements SyncService {
 
+    /**
+     * 合同增量同步水位线类型
+     */
+    private static final String WATERMARK_CONTRACT = "CONTRACT";
+
     private final ContractService contractService;
     private final ContractDao contractDao;
+    private final Executor syncExecutor;
+    private final SyncLogWriter syncLogWriter;
+    private final SyncOutboxDao syncOutboxDao;
+    private final SyncCheckpointDao syncCheckpointDao;
+    private final SyncMetrics syncMetrics;
+    private final SyncShardManager syncShardManager;
 
     @Value("${contract.sync.batch-size:50}")
     private int defaultBatchSize;
 
-    public SyncServiceImpl(ContractService contractService, ContractDao contractDao) {
+    @Value("${contract.sync.backfill.fetch-size:500}")
+    private int backfillFetchSize;
+
+    @Value("${contract.sync.backfill.chunk-size:200}")
+    private int backfillChunkSize;
+
+    /**
+     * 是否跳过内容未变化的合同
+     */
+    @Value("${contract.sync.skip-unchanged:true}")
+    private boolean skipUnchanged;
+
+    /**
+     * 最大重试次数，超过后不再自动重试
+     */
+    @Value("${contract.sync.retry.max-attempts:10}")
+    private int retryMaxAttempts;
+
+    /**
+     * 首次重试的等待时间（毫秒），之后每次失败翻倍
+     */
+    @Value("${contract.sync.retry.initial-delay:60000}")
+    private long retryInitialDelay;
+
+    /**
+     * 重试等待时间上限（毫秒）
+     */
+    @Value("${contract.sync.retry.max-delay:3600000}")
+    private long retryMaxDelay;
+
+    // 跳过统计（服务启动以来）
+    private final long statsSince = System.currentTimeMillis();
+    private final AtomicLong skippedContracts = new AtomicLong();
+    private final AtomicLong skippedRecords = new AtomicLong();
+    private final AtomicLong skippedBytes = new AtomicLong();
+    private final AtomicLong submittedContracts = new AtomicLong();
+
+    // 各类同步运行最近一次的摘要
+    private final Map<String, Map<String, Object>> lastRuns = new ConcurrentHashMap<>();
+
+    public SyncServiceImpl(ContractService contractService, ContractDao contractDao,
+                           @Qualifier("syncExecutor") Executor syncExecutor, SyncLogWriter syncLogWriter,
+                           SyncOutboxDao syncOutboxDao, SyncCheckpointDao syncCheckpointDao,
+                           SyncMetrics syncMetrics, SyncShardManager syncShardManager) {
         this.contractService = contractService;
         this.contractDao = contractDao;
+        this.syncExecutor = syncExecutor;
+        this.syncLogWriter = syncLogWriter;
+        this.syncOutboxDao = syncOutboxDao;
+        this.syncCheckpointDao = syncCheckpointDao;
+        this.syncMetrics = syncMetrics;
+        this.syncShardManager = syncShardManager;
+
+        // 线程池执行器的指标由Actuator自动登记，虚拟线程执行器在此登记
+        if (syncExecutor instanceof ConcurrencyLimitedExecutor) {
+            syncMetrics.gauge("contract.sync.executor.active", Tags.empty(),
+                    (ConcurrencyLimitedExecutor) syncExecutor, ConcurrencyLimitedExecutor::getActiveCount);
+        }
     }
 
     @Override
-    public String sync(int batchSize) {
+    public String sync(int batchSize, SyncProgress progress) {
         if (batchSize <= 0) {
             batchSize = defaultBatchSize;
         }
 
         log.info("开始同步合同数据，批量大小: {}", batchSize);
         
-        // 获取Token
-        String token;
+        // 获取Token，提前确认可以登录目标系统
         try {
-            token = contractService.getToken();
+            contractService.getToken();
         } catch (Exception e) {
             log.error("获取Token失败", e);
-            return "同步失败: 获取Token失败 - " + e.getMessage();
+            return abort(progress, "同步失败: 获取Token失败 - " + e.getMessage());
         }
 
-        // 获取待同步的合同列表
-        List<Contract> contracts;
+        AtomicInteger successCount = progress.getSuccessCount();
+        AtomicInteger failCount = progress.getFailCount();
+        AtomicInteger skipCount = progress.getSkipCount();
+        long startTime = System.currentTimeMillis();
+
+        // 只处理水位线之后新增或修改的一批合同（与增量同步共用水位线），不扫描OA全表；失败的合同由重试队列处理
+        int found;
         try {
-            contracts = contractDao.getContractsToSync(batchSize);
+            found = syncShardManager.isEnabled()
+                    ? syncOwnedShards(batchSize, 1, progress)
+                    : syncChangedContracts(batchSize, 1, progress);
         } catch (Exception e) {
-            log.error("获取待同步合同列表失败", e);
-            return "同步失败: 获取待同步合同列表失败 - " + e.getMessage();
+            log.error("同步合同数据失败", e);
+            String result = String.format("同步失败: 成功 %d 个, 失败 %d 个 - %s",
+                    successCount.get(), failCount.get(), e.getMessage());
+            progress.setError(result);
+            recordRun("sync", startTime, progress, result);
+            return result;
         }
 
-        if (contracts.isEmpty()) {
+        if (found == 0) {
             log.info("没有需要同步的合同数据");
             return "同步成功: 没有需要同步的合同数据";
         }
 
-        log.info("找到 {} 个待同步合同", contracts.size());
+        long elapsed = System.currentTimeMillis() - startTime;
+        String result = String.format("%s: 成功 %d 个（其中内容未变化跳过 %d 个）, 失败 %d 个, 耗时 %d 毫秒",
+                progress.isCancelled() ? "同步已取消" : "同步完成",
+                successCount.get(), skipCount.get(), failCount.get(), elapsed);
+        log.info(result);
+        recordRun("sync", startTime, progress, result);
+        return result;
+    }
+
+    @Override
+    public String syncIncremental(int pageSize, SyncProgress progress) {
+        if (pageSize <= 0) {
+            pageSize = defaultBatchSize;
+        }
 
-        // 同步计数器
-        AtomicInteger successCount = new AtomicInteger(0);
-        AtomicInteger failCount = new AtomicInteger(0);
+        log.info("开始增量同步合同数据，分页大小: {}", pageSize);
 
-        // 同步合同数据
-        for (Contract contract : contracts) {
-            try {
-                syncSingleContract(token, contract);
-                successCount.incrementAndGet();
-            } catch (Exception e) {
-                log.error("同步合同失败: {}", contract.getContract_name(), e);
-                contractDao.updateContractSyncStatus(contract.getOrder_no(), 0, "同步失败: " + e.getMessage());
-                contractDao.logSync(contract.getOrder_no(), "ERROR", e.getMessage());
-                failCount.incrementAndGet();
+        // 获取Token，提前确认可以登录目标系统
+        try {
+            contractService.getToken();
+        } catch (Exception e) {
+            log.error("获取Token失败", e);
+            return abort(progress, "同步失败: 获取Token失败 - " + e.getMessage());
+        }
+
+        AtomicInteger successCount = progress.getSuccessCount();
+        AtomicInteger failCount = progress.getFailCount();
+        AtomicInteger skipCount = progress.getSkipCount();
+        long startTime = System.currentTimeMillis();
+
+        try {
+            if (syncShardManager.isEnabled()) {
+                syncOwnedShards(pageSize, Integer.MAX_VALUE, progress);
+            } else {
+                syncChangedContracts(pageSize, Integer.MAX_VALUE, progress);
             }
+        } catch (Exception e) {
+            log.error("增量同步合同数据失败", e);
+            String result = String.format("同步失败: 成功 %d 个, 失败 %d 个 - %s",
+                    successCount.get(), failCount.get(), e.getMessage());
+            progress.setError(result);
+            recordRun("incremental", startTime, progress, result);
+            return result;
         }
 
-        String result = String.format("同步完成: 成功 %d 个, 失败 %d 个", successCount.get(), failCount.get());
+        long elapsed = System.currentTimeMillis() - startTime;
+        String result = String.format("%s: 成功 %d 个（其中内容未变化跳过 %d 个）, 失败 %d 个, 耗时 %d 毫秒",
+                progress.isCancelled() ? "增量同步已取消" : "增量同步完成",
+                successCount.get(), skipCount.get(), failCount.get(), elapsed);
         log.info(result);
+        recordRun("incremental", startTime, progress, result);
         return result;
     }
 
+    /**
+     * 按本地水位线逐页拉取有变更的合同，每页处理完后推进水位线；失败的合同由重试队列处理
+     *
+     * @param pageSize 每页合同数
+     * @param maxPages 最多处理的页数，只处理一页时以本页合同数作为运行进度的总数
+     * @param progress 运行进度
+     * @return 交给同步流程处理的合同数
+     */
+    private int syncChangedContracts(int pageSize, int maxPages, SyncProgress progress) {
+        SyncWatermark watermark = contractDao.getWatermark(WATERMARK_CONTRACT);
+        int found = 0;
+        for (int page = 0; page < maxPages; page++) {
+            List<Contract> contracts = contractDao.getChangedContracts(watermark, pageSize);
+            if (contracts.isEmpty()) {
+                break;
+            }
+
+            log.info("找到 {} 个有变更的合同，水位线: {}", contracts.size(), watermark);
+            if (maxPages == 1) {
+                progress.setTotal(contracts.size());
+            }
+            found += contracts.size();
+            syncBatch(contracts, progress);
+            if (progress.isCancelled()) {
+                // 本页可能有合同未处理，不推进水位线，下次从本页重新拉取（已同步的合同会因内容未变化而跳过）
+                break;
+            }
+
+            Contract last = contracts.get(contracts.size() - 1);
+            watermark = new SyncWatermark(WATERMARK_CONTRACT, last.getModify_time(), last.getOrder_no());
+            contractDao.saveWatermark(watermark);
+
+            if (contracts.size() < pageSize) {
+                break;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * 多实例分片时的增量同步
+     * 每个分片的水位线保存在共用的租约表中，从本实例持有分片中最靠前的水位线开始拉取，
+     * 只处理持有分片中尚未被所属分片水位线覆盖的合同，每页处理完后推进仍持有的分片的水位线。
+     * 新接管的分片从其自身的水位线继续（尚无水位线时从头开始），不会因本实例其他分片的进度更靠后而遗漏
+     *
+     * @param pageSize 每页合同数
+     * @param maxPages 最多处理的页数，只处理一页时以本页待同步合同数作为运行进度的总数
+     * @param progress 运行进度
+     * @return 交给同步流程处理的合同数
+     */
+    private int syncOwnedShards(int pageSize, int maxPages, SyncProgress progress) {
+        Set<Integer> shards = new TreeSet<>(syncShardManager.getOwnedShards());
+        if (shards.isEmpty()) {
+            log.info("本实例当前未持有分片，跳过同步");
+            return 0;
+        }
+
+        Map<Integer, SyncWatermark> watermarks = syncShardManager.getWatermarks(shards);
+        SyncWatermark position = null;
+        boolean first = true;
+        for (Integer shard : shards) {
+            SyncWatermark watermark = watermarks.get(shard);
+            position = first ? watermark : earlier(position, watermark);
+            first = false;
+        }
+
+        int found = 0;
+        for (int page = 0; page < maxPages; page++) {
+            List<Contract> contracts = contractDao.getChangedContracts(position, pageSize);
+            if (contracts.isEmpty()) {
+                break;
+            }
+
+            List<Contract> pending = new ArrayList<>(contracts.size());
+            for (Contract contract : contracts) {
+                int shard = syncShardManager.shardOf(contract.getOrder_no());
+                if (shards.contains(shard) && !isCovered(contract, watermarks.get(shard))) {
+                    pending.add(contract);
+                }
+            }
+            log.info("找到 {} 个有变更的合同，其中属于本实例分片待同步 {} 个，位置: {}", contracts.size(), pending.size(), position);
+            if (maxPages == 1) {
+                progress.setTotal(pending.size());
+            }
+            found += pending.size();
+            if (!pending.isEmpty()) {
+                syncBatch(pending, progress);
+            }
+            if (progress.isCancelled()) {
+                // 本页可能有合同未处理，不推进水位线
+                break;
+            }
+
+            // 本页处理期间失去的分片不推进，由接管的实例从原水位线继续
+            Contract last = contracts.get(contracts.size() - 1);
+            position = new SyncWatermark(WATERMARK_CONTRACT, last.getModify_time(), last.getOrder_no());
+            shards.retainAll(syncShardManager.getOwnedShards());
+            if (shards.isEmpty()) {
+                log.warn("本实例已不再持有任何分片，停止同步");
+                break;
+            }
+            syncShardManager.advanceWatermarks(shards, position);
+
+            if (contracts.size() < pageSize) {
+                break;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * 取两个水位线中靠前的一个，null或没有修改时间表示从头开始
+     * 修改时间相同而主键不同时退回到该时间点的起始位置，不在Java中比较主键，避免与数据库排序规则不一致而遗漏合同
+     */
+    private static SyncWatermark earlier(SyncWatermark a, SyncWatermark b) {
+        if (a == null || a.getLastModifyTime() == null) {
+            return a;
+        }
+        if (b == null || b.getLastModifyTime() == null) {
+            return b;
+        }
+        int compared = a.getLastModifyTime().compareTo(b.getLastModifyTime());
+        if (compared != 0) {
+            return compared < 0 ? a : b;
+        }
+        return Objects.equals(a.getLastKey(), b.getLastKey())
+                ? a : new SyncWatermark(WATERMARK_CONTRACT, a.getLastModifyTime(), "");
+    }
+
+    /**
+     * 判断合同是否已被所属分片的水位线覆盖（已由该分片之前的同步处理过）
+     * 修改时间与水位线相同时只排除水位线上的合同本身，其余重新处理，内容未变化时会被跳过
+     */
+    private static boolean isCovered(Contract contract, SyncWatermark watermark) {
+        if (watermark == null || watermark.getLastModifyTime() == null) {
+            return false;
+        }
+        int compared = contract.getModify_time().compareTo(watermark.getLastModifyTime());
+        return compared < 0 || compared == 0 && Objects.equals(contract.getOrder_no(), watermark.getLastKey());
+    }
+
+    @Override
+    public String retryFailed(int limit, SyncProgress progress) {
+        if (limit <= 0) {
+            limit = defaultBatchSize;
+        }
+
+        List<SyncRetry> dueRetries;
+        try {
+            dueRetries = syncOutboxDao.getDueRetries(new Timestamp(System.currentTimeMillis()), limit,
+                    syncShardManager::owns);
+        } catch (Exception e) {
+            log.error("获取到期重试记录失败", e);
+            return abort(progress, "重试失败: 获取到期重试记录失败 - " + e.getMessage());
+        }
+
+        if (dueRetries.isEmpty()) {
+            return "重试完成: 没有到期的重试记录";
+        }
+
+        log.info("开始重试同步失败的合同: {} 个", dueRetries.size());
+
+        // 获取Token，提前确认可以登录目标系统；失败时不消耗重试次数
+        try {
+            contractService.getToken();
+        } catch (Exception e) {
+            log.error("获取Token失败", e);
+            return abort(progress, "重试失败: 获取Token失败 - " + e.getMessage());
+        }
+
+        AtomicInteger successCount = progress.getSuccessCount();
+        AtomicInteger failCount = progress.getFailCount();
+        AtomicInteger skipCount = progress.getSkipCount();
+        long startTime = System.currentTimeMillis();
+
+        try {
+            List<String> orderNos = dueRetries.stream().map(SyncRetry::getOrderNo).collect(Collectors.toList());
+            List<Contract> contracts = contractDao.getContractsByOrderNos(orderNos);
+
+            // OA中已不存在的合同无需再重试
+            Set<String> missing = new HashSet<>(orderNos);
+            contracts.forEach(contract -> missing.remove(contract.getOrder_no()));
+            if (!missing.isEmpty()) {
+                log.warn("OA中已不存在的合同，移出重试队列: {}", missing);
+                syncOutboxDao.deleteRetries(missing);
+            }
+
+            progress.setTotal(contracts.size());
+            syncBatch(contracts, progress);
+        } catch (Exception e) {
+            log.error("重试同步失败的合同异常", e);
+            String result = String.format("重试失败: 成功 %d 个, 失败 %d 个 - %s",
+                    successCount.get(), failCount.get(), e.getMessage());
+            progress.setError(result);
+            recordRun("retry", startTime, progress, result);
+            return result;
+        }
+
+        long elapsed = System.currentTimeMillis() - startTime;
+        String result = String.format("%s: 成功 %d 个（其中内容未变化跳过 %d 个）, 失败 %d 个, 耗时 %d 毫秒",
+                progress.isCancelled() ? "重试已取消" : "重试完成",
+                successCount.get(), skipCount.get(), failCount.get(), elapsed);
+        log.info(result);
+        recordRun("retry", startTime, progress, result);
+        return result;
+    }
+
+    @Override
+    public String requeueDead(String orderNo) {
+        int count = syncOutboxDao.requeueDead(orderNo == null || orderNo.isEmpty() ? null : orderNo);
+        log.info("重新加入重试队列: {} 个合同", count);
+        return "已重新加入重试队列: " + count + " 个合同";
+    }
+
+    @Override
+    public Map<String, Object> getSyncReport() {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("since", new Timestamp(statsSince).toString());
+        report.put("skipUnchanged", skipUnchanged);
+        report.put("skippedContracts", skippedContracts.get());
+        report.put("skippedRecords", skippedRecords.get());
+        report.put("skippedBytes", skippedBytes.get());
+        report.put("submittedContracts", submittedContracts.get());
+        report.put("lastRuns", new LinkedHashMap<>(lastRuns));
+        return report;
+    }
+
+    /**
+     * 过滤出本实例持有分片的合同，未启用多实例分片时原样返回
+     */
+    private List<Contract> ownedContracts(List<Contract> contracts) {
+        if (!syncShardManager.isEnabled()) {
+            return contracts;
+        }
+        List<Contract> owned = contracts.stream()
+                .filter(contract -> syncShardManager.owns(contract.getOrder_no()))
+                .collect(Collectors.toList());
+        if (owned.size() < contracts.size()) {
+            log.debug("跳过不属于本实例分片的合同: {} 个", contracts.size() - owned.size());
+        }
+        return owned;
+    }
+
+    /**
+     * 标记同步运行中止
+     *
+     * @param progress 运行进度
+     * @param result   中止原因
+     * @return 中止原因
+     */
+    private static String abort(SyncProgress progress, String result) {
+        progress.setError(result);
+        return result;
+    }
+
+    /**
+     * 记录一次同步运行的指标，并保存为该类运行最近一次的摘要
+     */
+    private void recordRun(String type, long startTime, SyncProgress progress, String result) {
+        AtomicInteger successCount = progress.getSuccessCount();
+        AtomicInteger failCount = progress.getFailCount();
+        AtomicInteger skipCount = progress.getSkipCount();
+        long elapsed = System.currentTimeMillis() - startTime;
+        syncMetrics.recordRun(type, TimeUnit.MILLISECONDS.toNanos(elapsed),
+                successCount.get() - skipCount.get(), failCount.get(), skipCount.get());
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("startTime", new Timestamp(startTime).toString());
+        summary.put("elapsedMillis", elapsed);
+        summary.put("success", successCount.get());
+        summary.put("skipped", skipCount.get());
+        summary.put("failure", failCount.get());
+        summary.put("result", result);
+        lastRuns.put(type, summary);
+    }
+
+    @Override
+    public String backfill(int chunkSize, SyncProgress progress) {
+        if (chunkSize <= 0) {
+            chunkSize = backfillChunkSize;
+        }
+
+        log.info("开始全量回填合同数据，分块大小: {}, fetchSize: {}", chunkSize, backfillFetchSize);
+
+        // 获取Token，提前确认可以登录目标系统
+        try {
+            contractService.getToken();
+        } catch (Exception e) {
+            log.error("获取Token失败", e);
+            return abort(progress, "同步失败: 获取Token失败 - " + e.getMessage());
+        }
+
+        AtomicInteger successCount = progress.getSuccessCount();
+        AtomicInteger failCount = progress.getFailCount();
+        AtomicInteger skipCount = progress.getSkipCount();
+        long startTime = System.currentTimeMillis();
+
+        try {
+            // 每读满一块即同步一块，同步完成后才继续读取，内存占用保持平稳；取消后中断游标读取
+            contractDao.streamContracts(backfillFetchSize, chunkSize, contracts -> {
+                syncBatch(contracts, progress);
+                log.info("回填进度: 成功 {} 个, 失败 {} 个", successCount.get(), failCount.get());
+                if (progress.isCancelled()) {
+                    throw new CancellationException("全量回填已取消");
+                }
+            });
+        } catch (CancellationException e) {
+            log.info("全量回填已取消，停止读取OA合同");
+        } catch (Exception e) {
+            log.error("全量回填合同数据失败", e);
+            String result = String.format("同步失败: 成功 %d 个, 失败 %d 个 - %s",
+                    successCount.get(), failCount.get(), e.getMessage());
+            progress.setError(result);
+            recordRun("backfill", startTime, progress, result);
+            return result;
+        }
+
+        long elapsed = System.currentTimeMillis() - startTime;
+        String result = String.format("%s: 成功 %d 个（其中内容未变化跳过 %d 个）, 失败 %d 个, 耗时 %d 毫秒",
+                progress.isCancelled() ? "全量回填已取消" : "全量回填完成",
+                successCount.get(), skipCount.get(), failCount.get(), elapsed);
+        log.info(result);
+        recordRun("backfill", startTime, progress, result);
+        return result;
+    }
+
+    /**
+     * 在同步执行器中运行任务
+     * 以FutureTask提交，执行器放弃任务时（等待并发许可时被中断）会取消FutureTask，返回的Future随之取消，
+     * 等待整批完成的调用方不会一直阻塞
+     */
+    private CompletableFuture<Void> runAsync(Runnable task) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        syncExecutor.execute(new FutureTask<Void>(task, null) {
+            @Override
+            protected void done() {
+                if (isCancelled()) {
+                    future.cancel(false);
+                    return;
+                }
+                try {
+                    get();
+                    future.complete(null);
+                } catch (ExecutionException e) {
+                    future.completeExceptionally(e.getCause());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    future.completeExceptionally(e);
+                }
+            }
+        });
+        return future;
+    }
+
+    /**
+     * 并发同步一批合同
+     * 先一次性预取本批合同的任务、保证金、区域，再由同步线程池并发处理，
+     * 单个合同内部仍按 合同->任务->保证金->区域 顺序执行；
+     * 与上次成功同步时内容完全相同的合同直接跳过；
+     * 失败的合同写入重试队列，成功的合同从重试队列中移除并记录内容摘要；
+     * 没有合同号的合同无法记录状态和重试，直接计为失败；
+     * 请求取消后尚未开始的合同不再处理，也不计入进度
+     *
+     * @param contracts 合同列表
+     * @param progress  运行进度，内容未变化而跳过的合同同时计入成功数
+     */
+    private void syncBatch(List<Contract> contracts, SyncProgress progress) {
+        AtomicInteger successCount = progress.getSuccessCount();
+        AtomicInteger failCount = progress.getFailCount();
+        AtomicInteger skipCount = progress.getSkipCount();
+
+        List<Contract> keyed = new ArrayList<>(contracts.size());
+        for (Contract contract : contracts) {
+            if (contract.getOrder_no() == null || contract.getOrder_no().isEmpty()) {
+                log.error("合同缺少合同号，无法同步: {}", contract.getContract_name());
+                failCount.incrementAndGet();
+            } else {
+                keyed.add(contract);
+            }
+        }
+
+        // 每批开始前重新按分片过滤，运行期间失去的分片不再处理
+        contracts = ownedContracts(keyed);
+        if (contracts.isEmpty() || progress.isCancelled()) {
+            return;
+        }
+
+        // 一次性预取本批合同的任务、保证金、区域，避免逐个合同查询OA
+        List<String> orderNos = contracts.stream().map(Contract::getOrder_no).collect(Collectors.toList());
+        Map<String, List<ContractTask>> tasksMap = contractDao.getContractTasksByOrderNos(orderNos);
+        Map<String, List<ContractGuarantee>> guaranteesMap = contractDao.getContractGuaranteesByOrderNos(orderNos);
+        Map<String, List<ContractArea>> areasMap = contractDao.getContractAreasByOrderNos(orderNos);
+        Map<String, SyncDigest> lastDigests = skipUnchanged
+                ? contractDao.getSyncDigests(orderNos) : new HashMap<>();
+
+        Map<String, String> failures = new ConcurrentHashMap<>();
+        ConcurrentLinkedQueue<String> succeeded = new ConcurrentLinkedQueue<>();
+        ConcurrentLinkedQueue<SyncDigest> submitted = new ConcurrentLinkedQueue<>();
+        AtomicInteger batchSkipCount = new AtomicInteger(0);
+        List<CompletableFuture<Void>> futures = new ArrayList<>(contracts.size());
+        for (Contract contract : contracts) {
+            futures.add(runAsync(() -> {
+                if (progress.isCancelled()) {
+                    return;
+                }
+                String orderNo = contract.getOrder_no();
+                List<ContractTask> tasks = tasksMap.getOrDefault(orderNo, new ArrayList<>());
+                List<ContractGuarantee> guarantees = guaranteesMap.getOrDefault(orderNo, new ArrayList<>());
+                List<ContractArea> areas = areasMap.getOrDefault(orderNo, new ArrayList<>());
+
+                try {
+                    // 摘要在提交前计算，提交过程中会改写合同号和区域编码
+                    SyncDigest current = digestOf(contract, tasks, guarantees, areas);
+                    SyncDigest last = lastDigests.get(orderNo);
+                    if (isUnchanged(current, last)) {
+                        log.debug("合同内容未变化，跳过 [{}]", orderNo);
+                        recordSkipped(current.getRecordCount(), current.getPayloadBytes());
+                        skippedContracts.incrementAndGet();
+                        batchSkipCount.incrementAndGet();
+                        skipCount.incrementAndGet();
+                        succeeded.add(orderNo);
+                        successCount.incrementAndGet();
+                    } else if (syncContractSafely(contract, tasks, guarantees, areas, current, last, failures)) {
+                        submitted.add(current);
+                        submittedContracts.incrementAndGet();
+                        succeeded.add(orderNo);
+                        successCount.incrementAndGet();
+                    } else {
+                        failCount.incrementAndGet();
+                    }
+                } catch (Exception e) {
+                    // 单个合同的意外异常不能中断整批，否则已提交的合同不会记录同步结果；
+                    // 水位线会越过该合同，必须写入重试队列
+                    log.error("同步合同异常: {}", orderNo, e);
+                    failures.put(orderNo, String.valueOf(e.getMessage()));
+                    scheduleRetry(orderNo, String.valueOf(e.getMessage()));
+                    failCount.incrementAndGet();
+                }
+            }));
+        }
+        // 任务内已捕获全部异常，异常完成的只有被执行器放弃的任务，记为失败，其余合同照常记录结果
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).exceptionally(e -> null).join();
+        for (int i = 0; i < futures.size(); i++) {
+            if (futures.get(i).isCancelled()) {
+                String orderNo = contracts.get(i).getOrder_no();
+                log.warn("同步任务未执行: {}", orderNo);
+                failures.put(orderNo, "同步任务未执行: 等待并发许可时被中断");
+                scheduleRetry(orderNo, "同步任务未执行: 等待并发许可时被中断");
+                failCount.incrementAndGet();
+            }
+        }
+
+        if (batchSkipCount.get() > 0) {
+            log.info("本批跳过内容未变化的合同: {} 个", batchSkipCount.get());
+        }
+        try {
+            contractDao.batchSaveSyncDigests(new ArrayList<>(submitted));
+        } catch (Exception e) {
+            // 摘要缺失只会导致下次重新提交，不影响同步结果
+            log.error("保存同步内容摘要失败", e);
+        }
+
+        // 本批结束时写入积压的日志和状态，保证后续读取的同步状态是最新的
+        try {
+            syncLogWriter.flush();
+            log.debug("同步日志写入完成，队列积压: {}", syncLogWriter.getQueueDepth());
+        } catch (Exception e) {
+            // 写入失败的记录已放回队列，由后台定时写入；本批合同已提交，不能因此中断
+            log.error("写入同步日志和状态失败，队列积压: {}", syncLogWriter.getQueueDepth(), e);
+        }
+
+        try {
+            syncOutboxDao.deleteRetries(succeeded);
+        } catch (Exception e) {
+            // 残留的记录在下次重试时会因同步成功而被删除
+            log.error("移除已同步成功合同的重试记录失败", e);
+        }
+
+        if (!failures.isEmpty()) {
+            log.warn("同步失败的合同: {}", failures);
+        }
+    }
+
+    /**
+     * 同步单个合同并记录失败信息，不向外抛出异常
+     *
+     * @param contract   合同数据
+     * @param tasks      合同任务
+     * @param guarantees 合同保证金
+     * @param areas      合同区域
+     * @param current    本次内容摘要，成功时写入目标系统合同号
+     * @param last       上次成功同步的内容摘要，可为null
+     * @param failures   失败记录（合同号 -> 失败原因）
+     * @return 是否同步成功
+     */
+    private boolean syncContractSafely(Contract contract, List<ContractTask> tasks,
+                                       List<ContractGuarantee> guarantees, List<ContractArea> areas,
+                                       SyncDigest current, SyncDigest last, Map<String, String> failures) {
+        try {
+            // 每个合同开始前重新取Token，批次运行期间Token被刷新后后续合同直接使用新Token
+            syncSingleContract(contractService.getToken(), contract, tasks, guarantees, areas, current, last);
+            return true;
+        } catch (Exception e) {
+            log.error("同步合同失败: {}", contract.getContract_name(), e);
+            failures.put(contract.getOrder_no(), String.valueOf(e.getMessage()));
+            try {
+                syncLogWriter.updateStatus(contract.getOrder_no(), 0, "同步失败: " + e.getMessage());
+                syncLogWriter.log(contract.getOrder_no(), "ERROR", e.getMessage());
+            } catch (Exception logException) {
+                log.error("记录合同同步失败状态异常: {}", contract.getOrder_no(), logException);
+            }
+            scheduleRetry(contract.getOrder_no(), String.valueOf(e.getMessage()));
+            return false;
+        }
+    }
+
+    /**
+     * 将同步失败的合同写入重试队列
+     * 按失败次数指数退避计算下次重试时间，超过最大重试次数后标记为DEAD，不再自动重试
+     *
+     * @param orderNo 合同号
+     * @param error   失败原因
+     */
+    private void scheduleRetry(String orderNo, String error) {
+        try {
+            SyncRetry retry = syncOutboxDao.getRetry(orderNo);
+            int attempts = retry == null ? 1 : retry.getAttempts() + 1;
+            if (attempts >= retryMaxAttempts) {
+                syncOutboxDao.saveRetry(new SyncRetry(orderNo, attempts, null, error, SyncRetry.STATUS_DEAD));
+                log.error("合同 [{}] 已失败 {} 次，不再自动重试: {}", orderNo, attempts, error);
+                syncLogWriter.log(orderNo, "DEAD", "已失败 " + attempts + " 次，不再自动重试");
+                return;
+            }
+            long delay = retryInitialDelay << Math.min(attempts - 1, 30);
+            delay = delay <= 0 ? retryMaxDelay : Math.min(delay, retryMaxDelay);
+            Timestamp nextAttemptTime = new Timestamp(System.currentTimeMillis() + delay);
+            syncOutboxDao.saveRetry(new SyncRetry(orderNo, attempts, nextAttemptTime, error, SyncRetry.STATUS_PENDING));
+            log.info("合同 [{}] 第 {} 次同步失败，{} 后重试", orderNo, attempts, nextAttemptTime);
+        } catch (Exception e) {
+            log.error("写入重试队列失败: {}", orderNo, e);
+        }
+    }
+
     @Override
     public String syncContract(String contractId) {
         log.info("开始同步指定合同: {}", contractId);
@@ -104,7 +780,10 @@ public class SyncServiceImpl implements SyncService {
         contract.setOrder_no(contractId);
 
         try {
-            syncSingleContract(token, contract);
+            syncSingleContract(token, contract,
+                    contractDao.getContractTasks(contractId),
+                    contractDao.getContractGuarantees(contractId),
+                    contractDao.getContractAreas(contractId), null, null);
             return "同步成功: " + contractId;
         } catch (Exception e) {
             log.error("同步合同失败: {}", contractId, e);
@@ -114,90 +793,280 @@ public class SyncServiceImpl implements SyncService {
 
     /**
      * 同步单个合同
+     * 每一步被目标系统确认后记入检查点，失败时保存检查点；下次同步时从失败的步骤继续，
+     * 已确认且内容未变的合同、任务、保证金、区域不再提交；
+     * 与上次成功同步时相比未变化的部分同样跳过
      *
-     * @param token    Token
-     * @param contract 合同数据
+     * @param token      Token
+     * @param contract   合同数据
+     * @param tasks      合同任务
+     * @param guarantees 合同保证金
+     * @param areas      合同区域
+     * @param current    本次内容摘要，成功时写入目标系统合同号；为null时不按内容跳过
+     * @param last       上次成功同步的内容摘要，可为null
      */
-    private void syncSingleContract(String token, Contract contract) {
+    private void syncSingleContract(String token, Contract contract, List<ContractTask> tasks,
+                                    List<ContractGuarantee> guarantees, List<ContractArea> areas,
+                                    SyncDigest current, SyncDigest last) {
         String orderNo = contract.getOrder_no();
         
         // 记录开始同步
         log.info("开始同步合同 [{}]: {}", orderNo, contract.getContract_name());
-        contractDao.logSync(orderNo, "START", "开始同步合同: " + contract.getContract_name());
+        syncLogWriter.log(orderNo, "START", "开始同步合同: " + contract.getContract_name());
+
+        // 上次同步失败时保存的检查点
+        SyncCheckpoint saved = syncCheckpointDao.getCheckpoint(orderNo);
+        SyncCheckpoint checkpoint = saved != null ? saved : new SyncCheckpoint(orderNo);
+
+        String newOrderNo;
+        try {
+            newOrderNo = syncSteps(token, contract, tasks, guarantees, areas, checkpoint,
+                    current != null ? last : null, current);
+        } catch (RuntimeException e) {
+            if (checkpoint.getNewOrderNo() != null) {
+                try {
+                    syncCheckpointDao.saveCheckpoint(checkpoint);
+                } catch (Exception checkpointException) {
+                    log.error("保存同步检查点异常: {}", orderNo, checkpointException);
+                }
+            }
+            throw e;
+        }
 
-        // 1. 创建或更新合同
-        ContractCreateResponse createResponse = contractService.createOrUpdateContract(token, contract);
-        if (!createResponse.isSuccess()) {
-            log.error("创建合同失败 [{}]: {}", orderNo, createResponse.getMess());
-            throw new RuntimeException("创建合同失败: " + createResponse.getMess());
+        if (saved != null) {
+            syncCheckpointDao.deleteCheckpoint(orderNo);
+        }
+        if (current != null) {
+            current.setNewOrderNo(newOrderNo);
         }
+
+        // 更新同步状态
+        Map<String, Object> resultMap = new HashMap<>();
+        resultMap.put("orderNo", newOrderNo);
+        resultMap.put("tasks", tasks.size());
+        resultMap.put("guarantees", guarantees.size());
+        resultMap.put("areas", areas.size());
         
-        // 获取生成的合同号
-        String newOrderNo = createResponse.getOrder_no();
-        log.info("创建合同成功 [{}] -> [{}]", orderNo, newOrderNo);
-        contractDao.logSync(orderNo, "CREATE", "创建合同成功，合同号: " + newOrderNo);
+        syncLogWriter.updateStatus(orderNo, 1, JsonUtil.toJson(resultMap));
+        syncLogWriter.log(orderNo, "COMPLETE", "同步完成");
+        
+        log.info("合同同步成功: [{}] -> [{}]", orderNo, newOrderNo);
+    }
+
+    /**
+     * 按 合同->任务->保证金->区域 顺序提交，跳过检查点中已确认的部分，并将新确认的部分记入检查点
+     *
+     * @return 目标系统的合同号
+     */
+    private String syncSteps(String token, Contract contract, List<ContractTask> tasks,
+                             List<ContractGuarantee> guarantees, List<ContractArea> areas,
+                             SyncCheckpoint checkpoint, SyncDigest last, SyncDigest current) {
+        String orderNo = contract.getOrder_no();
+
+        // 1. 创建或更新合同（摘要在提交前计算，提交时会改写区域编码）
+        String contractDigest = JsonUtil.digest(contract);
+        String newOrderNo;
+        if (contractDigest.equals(checkpoint.getContractDigest()) && checkpoint.getNewOrderNo() != null) {
+            newOrderNo = checkpoint.getNewOrderNo();
+            syncMetrics.recordStepSkipped("create");
+            log.info("合同已创建，从检查点继续 [{}] -> [{}]", orderNo, newOrderNo);
+        } else if (last != null && last.getNewOrderNo() != null
+                && current.getContractDigest().equals(last.getContractDigest())) {
+            newOrderNo = last.getNewOrderNo();
+            // 记入检查点，后续步骤失败时保存已确认的明细，重试时不再重复提交
+            checkpoint.setContractDigest(contractDigest);
+            checkpoint.setNewOrderNo(newOrderNo);
+            recordSkipped(1, JsonUtil.toJsonBytes(contract).length);
+            syncMetrics.recordStepSkipped("create");
+            log.info("合同未变化，跳过创建 [{}] -> [{}]", orderNo, newOrderNo);
+        } else {
+            ContractCreateResponse createResponse = timeStep("create",
+                    () -> contractService.createOrUpdateContract(token, contract), ContractCreateResponse::isSuccess);
+            if (!createResponse.isSuccess()) {
+                log.error("创建合同失败 [{}]: {}", orderNo, createResponse.getMess());
+                throw new RuntimeException("创建合同失败: " + createResponse.getMess());
+            }
+            
+            // 获取生成的合同号
+            newOrderNo = createResponse.getOrder_no();
+            checkpoint.setContractDigest(contractDigest);
+            checkpoint.setNewOrderNo(newOrderNo);
+            log.info("创建合同成功 [{}] -> [{}]", orderNo, newOrderNo);
+            syncLogWriter.log(orderNo, "CREATE", "创建合同成功，合同号: " + newOrderNo);
+        }
 
         // 2. 同步合同任务，添加销售和回笼任务
-        List<ContractTask> tasks = contractDao.getContractTasks(orderNo);
         log.info("获取到合同任务 [{}] -> [{}]: {} 个", orderNo, newOrderNo, tasks.size());
-        if (!tasks.isEmpty()) {
+        if (!tasks.isEmpty() && isPartUnchanged(last, newOrderNo, current == null ? null : current.getTasksDigest(),
+                last == null ? null : last.getTasksDigest())) {
+            recordSkipped(tasks.size(), JsonUtil.toJsonBytes(tasks).length);
+            syncMetrics.recordStepSkipped("tasks");
+            log.info("合同任务未变化，跳过 [{}]", newOrderNo);
+        } else if (!tasks.isEmpty()) {
             for (ContractTask task : tasks) {
                 task.setOrder_no(newOrderNo);
-                log.debug("同步合同任务 [{}]: 销售={}, 回笼={}", newOrderNo, task.getSale_amount(), task.getReturn_amount());
-                ApiResponse taskResponse = contractService.createOrUpdateContractTask(token, task);
-                if (!taskResponse.isSuccess()) {
-                    log.error("创建合同任务失败 [{}]: {}", newOrderNo, taskResponse.getMess());
-                    throw new RuntimeException("创建合同任务失败: " + taskResponse.getMess());
-                }
+            }
+            log.debug("同步合同任务 [{}]: {} 个", newOrderNo, tasks.size());
+            String error = timeStep("tasks", () -> submitUnacknowledged(tasks, checkpoint.getTaskDigests(),
+                    pending -> contractService.batchCreateOrUpdateContractTasks(token, pending)), Objects::isNull);
+            if (error != null) {
+                log.error("创建合同任务失败 [{}]: {}", newOrderNo, error);
+                throw new RuntimeException("创建合同任务失败: " + error);
             }
             log.info("创建合同任务成功 [{}]: {} 个", newOrderNo, tasks.size());
-            contractDao.logSync(orderNo, "TASK", "创建合同任务成功，数量: " + tasks.size());
+            syncLogWriter.log(orderNo, "TASK", "创建合同任务成功，数量: " + tasks.size());
         }
 
         // 3. 同步合同保证金
-        List<ContractGuarantee> guarantees = contractDao.getContractGuarantees(orderNo);
         log.info("获取到合同保证金 [{}] -> [{}]: {} 个", orderNo, newOrderNo, guarantees.size());
-        if (!guarantees.isEmpty()) {
+        if (!guarantees.isEmpty() && isPartUnchanged(last, newOrderNo,
+                current == null ? null : current.getGuaranteesDigest(),
+                last == null ? null : last.getGuaranteesDigest())) {
+            recordSkipped(guarantees.size(), JsonUtil.toJsonBytes(guarantees).length);
+            syncMetrics.recordStepSkipped("guarantees");
+            log.info("合同保证金未变化，跳过 [{}]", newOrderNo);
+        } else if (!guarantees.isEmpty()) {
             for (ContractGuarantee guarantee : guarantees) {
                 guarantee.setOrder_no(newOrderNo);
-                log.debug("同步合同保证金 [{}]: 金额={}", newOrderNo, guarantee.getGuarantee_amount());
-                ApiResponse guaranteeResponse = contractService.createOrUpdateContractGuarantee(token, guarantee);
-                if (!guaranteeResponse.isSuccess()) {
-                    log.error("创建合同保证金失败 [{}]: {}", newOrderNo, guaranteeResponse.getMess());
-                    throw new RuntimeException("创建合同保证金失败: " + guaranteeResponse.getMess());
-                }
+            }
+            log.debug("同步合同保证金 [{}]: {} 个", newOrderNo, guarantees.size());
+            String error = timeStep("guarantees", () -> submitUnacknowledged(guarantees,
+                    checkpoint.getGuaranteeDigests(),
+                    pending -> contractService.batchCreateOrUpdateContractGuarantees(token, pending)), Objects::isNull);
+            if (error != null) {
+                log.error("创建合同保证金失败 [{}]: {}", newOrderNo, error);
+                throw new RuntimeException("创建合同保证金失败: " + error);
             }
             log.info("创建合同保证金成功 [{}]: {} 个", newOrderNo, guarantees.size());
-            contractDao.logSync(orderNo, "GUARANTEE", "创建合同保证金成功，数量: " + guarantees.size());
+            syncLogWriter.log(orderNo, "GUARANTEE", "创建合同保证金成功，数量: " + guarantees.size());
         }
 
-        // 4. 同步合同区域（列表）
-        List<ContractArea> areas = contractDao.getContractAreas(orderNo);
+        // 4. 同步合同区域（列表，整体提交）
         log.info("获取到合同区域 [{}] -> [{}]: {} 个", orderNo, newOrderNo, areas.size());
-        if (!areas.isEmpty()) {
+        if (!areas.isEmpty() && isPartUnchanged(last, newOrderNo, current == null ? null : current.getAreasDigest(),
+                last == null ? null : last.getAreasDigest())) {
+            recordSkipped(areas.size(), JsonUtil.toJsonBytes(areas).length);
+            syncMetrics.recordStepSkipped("areas");
+            log.info("合同区域未变化，跳过 [{}]", newOrderNo);
+        } else if (!areas.isEmpty()) {
             for (ContractArea area : areas) {
                 area.setOrder_no(newOrderNo);
             }
-            log.debug("同步合同区域 [{}]", newOrderNo);
-            ApiResponse areaResponse = contractService.updateContractArea(token, areas);
-            if (!areaResponse.isSuccess()) {
-                log.error("更新合同区域失败 [{}]: {}", newOrderNo, areaResponse.getMess());
-                throw new RuntimeException("更新合同区域失败: " + areaResponse.getMess());
+            String areasDigest = JsonUtil.digest(areas);
+            if (areasDigest.equals(checkpoint.getAreasDigest())) {
+                syncMetrics.recordStepSkipped("areas");
+                log.info("合同区域已更新，跳过 [{}]", newOrderNo);
+            } else {
+                log.debug("同步合同区域 [{}]", newOrderNo);
+                ApiResponse areaResponse = timeStep("areas",
+                        () -> contractService.updateContractArea(token, areas), ApiResponse::isSuccess);
+                if (!areaResponse.isSuccess()) {
+                    log.error("更新合同区域失败 [{}]: {}", newOrderNo, areaResponse.getMess());
+                    throw new RuntimeException("更新合同区域失败: " + areaResponse.getMess());
+                }
+                checkpoint.setAreasDigest(areasDigest);
+                log.info("更新合同区域成功 [{}]: {} 个", newOrderNo, areas.size());
+                syncLogWriter.log(orderNo, "AREA", "更新合同区域成功，数量: " + areas.size());
             }
-            log.info("更新合同区域成功 [{}]: {} 个", newOrderNo, areas.size());
-            contractDao.logSync(orderNo, "AREA", "更新合同区域成功，数量: " + areas.size());
         }
 
-        // 更新同步状态
-        Map<String, Object> resultMap = new HashMap<>();
-        resultMap.put("orderNo", newOrderNo);
-        resultMap.put("tasks", tasks.size());
-        resultMap.put("guarantees", guarantees.size());
-        resultMap.put("areas", areas.size());
-        
-        contractDao.updateContractSyncStatus(orderNo, 1, JsonUtil.toJson(resultMap));
-        contractDao.logSync(orderNo, "COMPLETE", "同步完成");
-        
-        log.info("合同同步成功: [{}] -> [{}]", orderNo, newOrderNo);
+        return newOrderNo;
+    }
+
+    /**
+     * 执行一个同步步骤并记录耗时，调用异常或succeeded判定失败时记为failure
+     */
+    private <T> T timeStep(String step, Supplier<T> call, Predicate<T> succeeded) {
+        long start = System.nanoTime();
+        String outcome = "failure";
+        try {
+            T result = call.get();
+            if (succeeded.test(result)) {
+                outcome = "success";
+            }
+            return result;
+        } finally {
+            syncMetrics.recordStep(step, outcome, start);
+        }
+    }
+
+    /**
+     * 计算合同及其任务、保证金、区域的内容摘要
+     */
+    private SyncDigest digestOf(Contract contract, List<ContractTask> tasks,
+                                List<ContractGuarantee> guarantees, List<ContractArea> areas) {
+        byte[] contractJson = JsonUtil.toJsonBytes(contract);
+        byte[] tasksJson = JsonUtil.toJsonBytes(tasks);
+        byte[] guaranteesJson = JsonUtil.toJsonBytes(guarantees);
+        byte[] areasJson = JsonUtil.toJsonBytes(areas);
+        return new SyncDigest(contract.getOrder_no(), null,
+                DigestUtils.md5DigestAsHex(contractJson),
+                DigestUtils.md5DigestAsHex(tasksJson),
+                DigestUtils.md5DigestAsHex(guaranteesJson),
+                DigestUtils.md5DigestAsHex(areasJson),
+                1 + tasks.size() + guarantees.size() + areas.size(),
+                (long) contractJson.length + tasksJson.length + guaranteesJson.length + areasJson.length);
+    }
+
+    /**
+     * 合同及其任务、保证金、区域是否都与上次成功同步时相同
+     */
+    private boolean isUnchanged(SyncDigest current, SyncDigest last) {
+        return last != null && last.getNewOrderNo() != null
+                && current.getContractDigest().equals(last.getContractDigest())
+                && current.getTasksDigest().equals(last.getTasksDigest())
+                && current.getGuaranteesDigest().equals(last.getGuaranteesDigest())
+                && current.getAreasDigest().equals(last.getAreasDigest());
+    }
+
+    /**
+     * 合同的某一部分是否与上次成功同步时相同（目标系统合同号也须一致）
+     */
+    private boolean isPartUnchanged(SyncDigest last, String newOrderNo, String currentDigest, String lastDigest) {
+        return last != null && newOrderNo.equals(last.getNewOrderNo())
+                && currentDigest != null && currentDigest.equals(lastDigest);
+    }
+
+    private void recordSkipped(long records, long bytes) {
+        skippedRecords.addAndGet(records);
+        skippedBytes.addAndGet(bytes);
+    }
+
+    /**
+     * 只提交未被确认过的明细，并将本次确认的明细摘要加入acknowledged
+     *
+     * @param items        明细列表
+     * @param acknowledged 已确认的明细摘要
+     * @param submitter    提交方法，按顺序返回每条明细的响应
+     * @return 第一条失败的原因，全部成功时返回null
+     */
+    private <T> String submitUnacknowledged(List<T> items, Set<String> acknowledged,
+                                            Function<List<T>, List<ApiResponse>> submitter) {
+        List<T> pending = new ArrayList<>(items.size());
+        List<String> pendingDigests = new ArrayList<>(items.size());
+        for (T item : items) {
+            String digest = JsonUtil.digest(item);
+            if (!acknowledged.contains(digest)) {
+                pending.add(item);
+                pendingDigests.add(digest);
+            }
+        }
+        if (pending.size() < items.size()) {
+            log.info("跳过已确认的明细 {} 条，本次提交 {} 条", items.size() - pending.size(), pending.size());
+        }
+        if (pending.isEmpty()) {
+            return null;
+        }
+
+        List<ApiResponse> responses = submitter.apply(pending);
+        String error = null;
+        for (int i = 0; i < responses.size(); i++) {
+            if (responses.get(i).isSuccess()) {
+                acknowledged.add(pendingDigests.get(i));
+            } else if (error == null) {
+                error = responses.get(i).getMess();
+            }
+        }
+        return error;
     }
 } 
\ No newline at end of file
@@ -0,0 +1,290 @@
+package com.seeyon.A8ContractPost.service;
+
+import com.seeyon.A8ContractPost.dao.SyncLeaseDao;
+import com.seeyon.A8ContractPost.model.SyncLease;
+import com.seeyon.A8ContractPost.model.SyncWatermark;
+import com.seeyon.A8ContractPost.util.SyncMetrics;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.lang.management.ManagementFactory;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 同步分片管理器
+ * 多实例部署时，合同号按哈希分到固定数量的分片，各实例通过OA库中的租约表认领分片，只同步自己持有的分片。
+ * 每个实例定时续约并登记心跳，按在线实例数均分分片：少于应得数量时接管无人持有或租约已过期的分片，
+ * 多于应得数量时释放多出的分片；实例宕机后其租约过期，由其他实例接管。
+ * 未启用时视为持有全部分片，不访问租约表
+ */
+@Slf4j
+@Component
+public class SyncShardManager {
+
+    private final SyncLeaseDao syncLeaseDao;
+    private final SyncMetrics syncMetrics;
+
+    @Value("${contract.sync.shard.enabled:false}")
+    private boolean enabled;
+
+    /**
+     * 分片数，所有实例必须一致
+     */
+    @Value("${contract.sync.shard.count:16}")
+    private int shardCount;
+
+    /**
+     * 租约时长（毫秒）
+     */
+    @Value("${contract.sync.shard.lease-duration:30000}")
+    private long leaseDuration;
+
+    /**
+     * 续约间隔（毫秒）
+     */
+    @Value("${contract.sync.shard.renew-interval:10000}")
+    private long renewInterval;
+
+    @Value("${contract.sync.shard.instance-id:}")
+    private String instanceId;
+
+    /**
+     * 当前持有的分片，整体替换保证读取一致
+     */
+    private volatile Set<Integer> ownedShards = Collections.emptySet();
+
+    /**
+     * 持有的租约在本地视为有效的截止时间（System.nanoTime），续约失败超过该时间后不再同步任何分片
+     */
+    private volatile long ownedUntilNanos;
+
+    /**
+     * 租约表是否已初始化，失败时在下次续约时重试
+     */
+    private boolean shardsReady;
+
+    private ScheduledExecutorService leaseExecutor;
+
+    public SyncShardManager(SyncLeaseDao syncLeaseDao, SyncMetrics syncMetrics) {
+        this.syncLeaseDao = syncLeaseDao;
+        this.syncMetrics = syncMetrics;
+    }
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+        if (renewInterval >= leaseDuration) {
+            throw new IllegalArgumentException("contract.sync.shard.renew-interval必须小于lease-duration");
+        }
+        if (instanceId == null || instanceId.isEmpty()) {
+            // 进程号@主机名
+            instanceId = ManagementFactory.getRuntimeMXBean().getName();
+        }
+        syncMetrics.gauge("contract.sync.shard.owned", Tags.empty(), this, manager -> manager.getOwnedShards().size());
+
+        leaseExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "shard-lease");
+            thread.setDaemon(true);
+            return thread;
+        });
+        leaseExecutor.scheduleWithFixedDelay(this::heartbeat, 0, renewInterval, TimeUnit.MILLISECONDS);
+        log.info("已启用多实例分片同步，实例: {}，分片数: {}，租约时长: {} 毫秒", instanceId, shardCount, leaseDuration);
+    }
+
+    /**
+     * 实例停止时释放持有的租约，其他实例无需等待租约过期即可接管
+     */
+    @PreDestroy
+    public void destroy() {
+        if (leaseExecutor == null) {
+            return;
+        }
+        leaseExecutor.shutdownNow();
+        ownedShards = Collections.emptySet();
+        try {
+            int released = syncLeaseDao.releaseLeases(instanceId, null);
+            syncLeaseDao.deleteInstance(instanceId);
+            log.info("实例停止，已释放分片租约: {} 个", released);
+        } catch (Exception e) {
+            log.warn("实例停止时释放分片租约失败，租约将在到期后由其他实例接管", e);
+        }
+    }
+
+    /**
+     * @return 是否启用多实例分片
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 计算合同所属分片
+     * String.hashCode的算法由Java规范固定，各实例、各版本计算结果一致
+     *
+     * @param orderNo 合同号
+     * @return 分片号
+     */
+    public int shardOf(String orderNo) {
+        return Math.floorMod(orderNo == null ? 0 : orderNo.hashCode(), shardCount);
+    }
+
+    /**
+     * 判断合同是否由本实例同步
+     *
+     * @param orderNo 合同号
+     * @return 未启用分片时总是true；启用时本实例持有该合同所属分片的有效租约才为true
+     */
+    public boolean owns(String orderNo) {
+        if (!enabled) {
+            return true;
+        }
+        return System.nanoTime() - ownedUntilNanos < 0 && ownedShards.contains(shardOf(orderNo));
+    }
+
+    /**
+     * @return 本实例当前持有且在有效期内的分片
+     */
+    public Set<Integer> getOwnedShards() {
+        if (!enabled) {
+            return Collections.emptySet();
+        }
+        return System.nanoTime() - ownedUntilNanos < 0 ? ownedShards : Collections.emptySet();
+    }
+
+    /**
+     * 获取分片的增量同步水位线
+     *
+     * @param shardIds 分片号
+     * @return 分片号到水位线的映射，尚未记录水位线的分片不在其中
+     */
+    public Map<Integer, SyncWatermark> getWatermarks(Set<Integer> shardIds) {
+        return syncLeaseDao.getWatermarks(shardIds);
+    }
+
+    /**
+     * 推进本实例仍持有的分片的水位线
+     *
+     * @param shardIds  分片号
+     * @param watermark 新的水位线
+     * @return 推进的分片数
+     */
+    public int advanceWatermarks(Set<Integer> shardIds, SyncWatermark watermark) {
+        return syncLeaseDao.advanceWatermarks(instanceId, shardIds, watermark);
+    }
+
+    /**
+     * 获取分片持有情况
+     *
+     * @return 本实例和全部分片的租约信息
+     */
+    public Map<String, Object> getShardReport() {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("enabled", enabled);
+        if (!enabled) {
+            return report;
+        }
+        report.put("instanceId", instanceId);
+        report.put("shardCount", shardCount);
+        report.put("ownedShards", new TreeSet<>(getOwnedShards()));
+        try {
+            Timestamp now = syncLeaseDao.getCurrentTime();
+            report.put("liveInstances", syncLeaseDao.getLiveInstances(now));
+            List<Map<String, Object>> leases = new ArrayList<>();
+            for (SyncLease lease : syncLeaseDao.getLeases(shardCount)) {
+                Map<String, Object> item = new LinkedHashMap<>();
+                item.put("shardId", lease.getShardId());
+                item.put("owner", isValid(lease, now) ? lease.getOwner() : null);
+                item.put("leaseUntil", lease.getLeaseUntil() == null ? null : lease.getLeaseUntil().toString());
+                leases.add(item);
+            }
+            report.put("leases", leases);
+        } catch (Exception e) {
+            report.put("error", "读取租约表失败: " + e.getMessage());
+        }
+        return report;
+    }
+
+    /**
+     * 续约并按在线实例数重新均分分片
+     * 每个实例最多持有 ceil(分片数 / 在线实例数) 个分片，实例数多于分片数时多出的实例作为备用
+     */
+    void heartbeat() {
+        try {
+            if (!shardsReady) {
+                syncLeaseDao.initShards(shardCount);
+                shardsReady = true;
+            }
+
+            long startNanos = System.nanoTime();
+            Timestamp now = syncLeaseDao.getCurrentTime();
+            Timestamp until = new Timestamp(now.getTime() + leaseDuration);
+
+            syncLeaseDao.saveInstance(instanceId, until);
+            syncLeaseDao.renewLeases(instanceId, until, now);
+
+            Set<Integer> owned = new TreeSet<>();
+            List<SyncLease> available = new ArrayList<>();
+            for (SyncLease lease : syncLeaseDao.getLeases(shardCount)) {
+                if (!isValid(lease, now)) {
+                    available.add(lease);
+                } else if (instanceId.equals(lease.getOwner())) {
+                    owned.add(lease.getShardId());
+                }
+            }
+
+            int liveInstances = Math.max(1, syncLeaseDao.getLiveInstances(now).size());
+            int fairShare = (shardCount + liveInstances - 1) / liveInstances;
+
+            for (SyncLease lease : available) {
+                if (owned.size() >= fairShare) {
+                    break;
+                }
+                if (syncLeaseDao.tryAcquire(lease.getShardId(), instanceId, until, now)) {
+                    owned.add(lease.getShardId());
+                    if (lease.getOwner() != null) {
+                        log.info("接管租约已过期的分片: {}，原持有实例: {}", lease.getShardId(), lease.getOwner());
+                    } else {
+                        log.debug("获取分片: {}", lease.getShardId());
+                    }
+                }
+            }
+
+            if (owned.size() > fairShare) {
+                // 有新实例加入，释放多出的分片由其接管；正在进行的同步在下一批开始前即不再处理这些分片
+                List<Integer> extra = new ArrayList<>(new ArrayList<>(owned).subList(fairShare, owned.size()));
+                syncLeaseDao.releaseLeases(instanceId, extra);
+                owned.removeAll(extra);
+                log.info("在线实例数: {}，释放多出的分片: {}", liveInstances, extra);
+            }
+
+            if (!owned.equals(ownedShards)) {
+                log.info("本实例持有的分片: {}", owned);
+            }
+            ownedShards = Collections.unmodifiableSet(owned);
+            // 以本次续约开始时间计算，预留一个续约间隔的余量，避免租约在数据库中到期后本地仍在同步
+            ownedUntilNanos = startNanos + TimeUnit.MILLISECONDS.toNanos(leaseDuration - renewInterval);
+        } catch (Exception e) {
+            log.error("分片租约续约失败，持有的分片在本地有效期结束后将停止同步", e);
+        }
+    }
+
+    private static boolean isValid(SyncLease lease, Timestamp now) {
+        return lease.getOwner() != null && lease.getLeaseUntil() != null && !lease.getLeaseUntil().before(now);
+    }
+}
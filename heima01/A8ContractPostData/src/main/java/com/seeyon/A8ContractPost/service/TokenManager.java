@@ -0,0 +1,246 @@
+package com.seeyon.A8ContractPost.service;
+
+import com.seeyon.A8ContractPost.model.ApiResponse;
+import com.seeyon.A8ContractPost.model.LoginRequest;
+import com.seeyon.A8ContractPost.model.LoginResponse;
+import com.seeyon.A8ContractPost.util.HttpClientUtil;
+import com.seeyon.A8ContractPost.util.JsonUtil;
+import com.seeyon.A8ContractPost.util.SyncMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token管理器
+ * 同一时间只允许一个线程登录，其他线程等待并复用登录结果；在Token过期前后台主动刷新
+ */
+@Slf4j
+@Component
+public class TokenManager {
+
+    private final HttpClientUtil httpClientUtil;
+    private final SyncMetrics syncMetrics;
+
+    @Value("${contract.api.base-url}")
+    private String baseUrl;
+
+    @Value("${contract.api.username}")
+    private String username;
+
+    @Value("${contract.api.password}")
+    private String password;
+
+    @Value("${contract.api.lang-code}")
+    private String langCode;
+
+    @Value("${contract.api.token-ttl}")
+    private long tokenTtl;
+
+    /**
+     * 提前刷新时间（毫秒），在Token过期前这段时间内后台刷新
+     */
+    @Value("${contract.api.token-refresh-ahead:600000}")
+    private long refreshAhead;
+
+    /**
+     * 目标系统以HTTP 200返回业务失败来表示Token失效时的响应消息，整条消息完全一致才视为Token失效；
+     * 接口文档未说明Token失效时的响应，默认为空，需按抓取到的实际响应配置
+     */
+    @Value("${contract.api.token-invalid-messages:}")
+    private String[] invalidMessages;
+
+    /**
+     * 目标系统表示Token失效的业务状态码，默认为空
+     */
+    @Value("${contract.api.token-invalid-states:}")
+    private String[] invalidStates;
+
+    private final Set<String> invalidMessageSet = new HashSet<>();
+    private final Set<Integer> invalidStateSet = new HashSet<>();
+
+    private final Object loginLock = new Object();
+
+    // 当前Token及其过期时间，整体替换保证读取一致
+    private volatile CachedToken current;
+
+    private ScheduledExecutorService refreshExecutor;
+    private ScheduledFuture<?> refreshFuture;
+
+    public TokenManager(HttpClientUtil httpClientUtil, SyncMetrics syncMetrics) {
+        this.httpClientUtil = httpClientUtil;
+        this.syncMetrics = syncMetrics;
+    }
+
+    @PostConstruct
+    public void init() {
+        for (String message : invalidMessages) {
+            if (!message.trim().isEmpty()) {
+                invalidMessageSet.add(message.trim());
+            }
+        }
+        for (String state : invalidStates) {
+            if (!state.trim().isEmpty()) {
+                invalidStateSet.add(Integer.parseInt(state.trim()));
+            }
+        }
+        refreshExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "token-refresher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void destroy() {
+        refreshExecutor.shutdownNow();
+    }
+
+    /**
+     * 获取有效Token
+     * Token有效时直接返回；否则只有一个线程执行登录，其他线程等待后复用其结果
+     *
+     * @return Token字符串
+     */
+    public String getToken() {
+        CachedToken token = current;
+        if (token != null && token.isValid()) {
+            return token.value;
+        }
+
+        synchronized (loginLock) {
+            token = current;
+            if (token != null && token.isValid()) {
+                return token.value;
+            }
+            return login("initial");
+        }
+    }
+
+    /**
+     * 接口提示Token失效时刷新Token
+     * 若其他线程已经换过新Token则直接返回新Token，不重复登录
+     *
+     * @param staleToken 已失效的Token
+     * @return 新Token
+     */
+    public String refreshToken(String staleToken) {
+        synchronized (loginLock) {
+            CachedToken token = current;
+            if (token != null && token.isValid() && !token.value.equals(staleToken)) {
+                return token.value;
+            }
+            return login("invalid");
+        }
+    }
+
+    /**
+     * 判断接口响应是否表示Token失效
+     * HTTP 401由HttpClientUtil直接抛出ApiUnauthorizedException，不经过这里；
+     * 这里只认配置的Token失效状态码或完整消息，不按关键字模糊匹配，
+     * 避免把消息中恰好带有“登录”“token”的业务错误当作Token失效，重新登录后再次提交不幂等的接口
+     *
+     * @param response 接口响应
+     * @return 是否Token失效
+     */
+    public boolean isTokenInvalid(ApiResponse response) {
+        if (response == null || response.isSuccess()) {
+            return false;
+        }
+        if (response.getState() != null && invalidStateSet.contains(response.getState())) {
+            return true;
+        }
+        return response.getMess() != null && invalidMessageSet.contains(response.getMess().trim());
+    }
+
+    /**
+     * 登录获取Token并记录指标，调用方需持有loginLock
+     *
+     * @param reason 登录原因：initial、invalid、scheduled
+     */
+    private String login(String reason) {
+        boolean success = false;
+        try {
+            String token = doLogin();
+            success = true;
+            return token;
+        } finally {
+            syncMetrics.incrementTokenRefresh(reason, success);
+        }
+    }
+
+    /**
+     * 登录获取Token
+     */
+    private String doLogin() {
+        // 构建登录请求
+        LoginRequest loginRequest = new LoginRequest(username, password, langCode);
+        String requestJson = JsonUtil.toJson(loginRequest);
+
+        // 发送登录请求
+        String url = baseUrl + "/GetData/DataAnalysisLogin";
+        long currentTime = System.currentTimeMillis();
+        String responseJson = httpClientUtil.doPost(url, requestJson);
+
+        // 解析响应
+        LoginResponse loginResponse = JsonUtil.fromJson(responseJson, LoginResponse.class);
+
+        if (!loginResponse.isSuccess()) {
+            log.error("获取Token失败: {}", loginResponse.getMess());
+            throw new RuntimeException("获取Token失败: " + loginResponse.getMess());
+        }
+
+        current = new CachedToken(loginResponse.getMess(), currentTime + tokenTtl);
+        log.info("成功获取Token: {}", current.value);
+        scheduleRefresh();
+        return current.value;
+    }
+
+    /**
+     * 在Token过期前安排后台刷新，刷新期间其他线程继续使用旧Token
+     */
+    private void scheduleRefresh() {
+        if (refreshFuture != null) {
+            refreshFuture.cancel(false);
+        }
+        long delay = tokenTtl - refreshAhead;
+        if (delay <= 0 || refreshExecutor.isShutdown()) {
+            return;
+        }
+        refreshFuture = refreshExecutor.schedule(() -> {
+            try {
+                synchronized (loginLock) {
+                    log.info("Token即将过期，后台刷新Token");
+                    login("scheduled");
+                }
+            } catch (Exception e) {
+                log.error("后台刷新Token失败，将在下次使用时重新登录", e);
+            }
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 缓存的Token
+     */
+    private static class CachedToken {
+        private final String value;
+        private final long expireTime;
+
+        CachedToken(String value, long expireTime) {
+            this.value = value;
+            this.expireTime = expireTime;
+        }
+
+        boolean isValid() {
+            return System.currentTimeMillis() < expireTime;
+        }
+    }
+}
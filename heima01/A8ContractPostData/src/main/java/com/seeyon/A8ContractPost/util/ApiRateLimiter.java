@@ -0,0 +1,151 @@
+package com.seeyon.A8ContractPost.util;
+
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 目标系统接口限流
+ * 按接口（URL最后一段，如ContractAddorUpdDoc）自适应调整并发数，同步时按目标系统能承受的速度运行，无需手工调整线程数；
+ * 每秒请求数上限默认不启用，只在目标系统有明确的调用配额时配置，作为高于自适应结果的安全上限
+ */
+@Slf4j
+@Component
+public class ApiRateLimiter {
+
+    /**
+     * 是否启用限流
+     */
+    @Value("${contract.api.throttle.enabled:true}")
+    private boolean enabled;
+
+    /**
+     * 未单独配置的接口每秒请求数上限，0表示不限速率只自适应限制并发
+     */
+    @Value("${contract.api.throttle.default-rate:0}")
+    private double defaultRate;
+
+    /**
+     * 单独配置每秒请求数上限的接口，格式为 接口名:每秒请求数
+     */
+    @Value("${contract.api.throttle.endpoint-rates:}")
+    private String[] endpointRates;
+
+    /**
+     * 令牌桶容量，即空闲后允许的突发请求数
+     */
+    @Value("${contract.api.throttle.burst:10}")
+    private double burst;
+
+    @Value("${contract.api.throttle.min-concurrency:1}")
+    private int minConcurrency;
+
+    @Value("${contract.api.throttle.max-concurrency:32}")
+    private int maxConcurrency;
+
+    @Value("${contract.api.throttle.initial-concurrency:4}")
+    private int initialConcurrency;
+
+    /**
+     * 响应耗时阈值（毫秒），超过时视为目标系统过载并降低并发
+     */
+    @Value("${contract.api.throttle.latency-threshold:2000}")
+    private long latencyThreshold;
+
+    /**
+     * 过载时并发上限的缩减比例
+     */
+    @Value("${contract.api.throttle.backoff-ratio:0.7}")
+    private double backoffRatio;
+
+    /**
+     * 等待许可的超时（毫秒）
+     */
+    @Value("${contract.api.throttle.acquire-timeout:60000}")
+    private long acquireTimeout;
+
+    private final Map<String, Double> rates = new HashMap<>();
+    private final ConcurrentMap<String, EndpointLimiter> limiters = new ConcurrentHashMap<>();
+    private final SyncMetrics syncMetrics;
+
+    public ApiRateLimiter(SyncMetrics syncMetrics) {
+        this.syncMetrics = syncMetrics;
+    }
+
+    @PostConstruct
+    public void init() {
+        for (String entry : endpointRates) {
+            String[] parts = entry.trim().split(":");
+            if (parts.length == 2) {
+                rates.put(parts[0].trim(), Double.parseDouble(parts[1].trim()));
+            } else if (!entry.trim().isEmpty()) {
+                log.warn("忽略无效的接口限流配置: {}", entry);
+            }
+        }
+        log.info("接口限流{}，默认每秒请求数: {}, 单独配置: {}", enabled ? "已启用" : "未启用", defaultRate, rates);
+    }
+
+    /**
+     * 获取接口对应的限流器
+     *
+     * @param path 请求路径
+     * @return 限流器，未启用限流时返回null
+     */
+    public EndpointLimiter limiterFor(String path) {
+        if (!enabled) {
+            return null;
+        }
+        return limiters.computeIfAbsent(endpointOf(path), this::createLimiter);
+    }
+
+    /**
+     * 获取已创建的全部限流器
+     *
+     * @return 限流器列表
+     */
+    public Collection<EndpointLimiter> getLimiters() {
+        return new ArrayList<>(limiters.values());
+    }
+
+    /**
+     * 判断响应状态码是否表示目标系统过载
+     *
+     * @param statusCode HTTP状态码
+     * @return 是否过载
+     */
+    public static boolean isOverloaded(int statusCode) {
+        return statusCode == 429 || statusCode >= 500;
+    }
+
+    private EndpointLimiter createLimiter(String endpoint) {
+        double rate = rates.getOrDefault(endpoint, defaultRate);
+        EndpointLimiter limiter = new EndpointLimiter(endpoint, rate, burst, minConcurrency, maxConcurrency,
+                initialConcurrency, latencyThreshold, backoffRatio, acquireTimeout);
+        syncMetrics.gauge("contract.api.throttle.limit", Tags.of("endpoint", endpoint), limiter, EndpointLimiter::getLimit);
+        syncMetrics.gauge("contract.api.throttle.in.flight", Tags.of("endpoint", endpoint), limiter, EndpointLimiter::getInFlight);
+        return limiter;
+    }
+
+    /**
+     * 从请求路径中取接口名（最后一段）
+     *
+     * @param path 请求路径
+     * @return 接口名
+     */
+    public static String endpointOf(String path) {
+        if (path == null) {
+            return "";
+        }
+        int end = path.endsWith("/") ? path.length() - 1 : path.length();
+        return path.substring(path.lastIndexOf('/', end - 1) + 1, end);
+    }
+}
@@ -0,0 +1,182 @@
+package com.seeyon.A8ContractPost.util;
+
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.conn.ConnectTimeoutException;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 目标系统接口的重试与熔断策略
+ * 网络异常和目标系统过载（429/5xx）时按指数退避加随机抖动重试；
+ * 不幂等的接口只在请求确定未被目标系统处理时重试，避免重复创建数据。
+ * 每个接口一个熔断器，目标系统不可用时快速失败，不再逐条等待超时
+ */
+@Slf4j
+@Component
+public class ApiRetryPolicy {
+
+    /**
+     * 最大尝试次数（含首次请求）
+     */
+    @Value("${contract.api.retry.max-attempts:3}")
+    private int maxAttempts;
+
+    /**
+     * 首次重试的退避时间（毫秒），之后每次翻倍
+     */
+    @Value("${contract.api.retry.initial-backoff:500}")
+    private long initialBackoff;
+
+    /**
+     * 最大退避时间（毫秒）
+     */
+    @Value("${contract.api.retry.max-backoff:10000}")
+    private long maxBackoff;
+
+    /**
+     * 不幂等的接口，重复提交会产生重复数据
+     */
+    @Value("${contract.api.retry.non-idempotent:ContractAddorUpdDoc}")
+    private String[] nonIdempotentEndpoints;
+
+    /**
+     * 触发熔断的连续失败次数
+     */
+    @Value("${contract.api.circuit-breaker.failure-threshold:5}")
+    private int failureThreshold;
+
+    /**
+     * 熔断时长（毫秒）
+     */
+    @Value("${contract.api.circuit-breaker.open-duration:30000}")
+    private long openDuration;
+
+    private Set<String> nonIdempotent;
+    private final ConcurrentMap<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+    private final SyncMetrics syncMetrics;
+
+    public ApiRetryPolicy(SyncMetrics syncMetrics) {
+        this.syncMetrics = syncMetrics;
+    }
+
+    @PostConstruct
+    public void init() {
+        nonIdempotent = new HashSet<>();
+        for (String endpoint : nonIdempotentEndpoints) {
+            if (!endpoint.trim().isEmpty()) {
+                nonIdempotent.add(endpoint.trim());
+            }
+        }
+    }
+
+    /**
+     * 获取接口对应的熔断器
+     *
+     * @param path 请求路径
+     * @return 熔断器
+     */
+    public CircuitBreaker breakerFor(String path) {
+        return breakers.computeIfAbsent(ApiRateLimiter.endpointOf(path), this::createBreaker);
+    }
+
+    private CircuitBreaker createBreaker(String endpoint) {
+        CircuitBreaker breaker = new CircuitBreaker(endpoint, failureThreshold, openDuration);
+        // 熔断器状态：0 正常，1 探测中，2 熔断中
+        syncMetrics.gauge("contract.api.circuit.state", Tags.of("endpoint", endpoint), breaker,
+                b -> b.getState() == CircuitBreaker.State.CLOSED ? 0 : b.getState() == CircuitBreaker.State.HALF_OPEN ? 1 : 2);
+        return breaker;
+    }
+
+    /**
+     * 获取已创建的全部熔断器
+     *
+     * @return 熔断器列表
+     */
+    public Collection<CircuitBreaker> getBreakers() {
+        return new ArrayList<>(breakers.values());
+    }
+
+    /**
+     * 请求是否幂等（GET请求及未配置为不幂等的接口）
+     *
+     * @param request 请求
+     * @return 是否幂等
+     */
+    public boolean isIdempotent(HttpRequestBase request) {
+        if ("GET".equals(request.getMethod())) {
+            return true;
+        }
+        return !nonIdempotent.contains(ApiRateLimiter.endpointOf(request.getURI().getPath()));
+    }
+
+    /**
+     * 判断异常后是否可以重试
+     *
+     * @param e          请求异常
+     * @param idempotent 请求是否幂等
+     * @return 是否重试
+     */
+    public boolean isRetryable(IOException e, boolean idempotent) {
+        if (idempotent) {
+            return true;
+        }
+        // 不幂等的请求只在确定未发出时重试
+        return e instanceof ConnectException
+                || e instanceof ConnectTimeoutException
+                || e instanceof ConnectionPoolTimeoutException
+                || e instanceof UnknownHostException
+                || e instanceof NoRouteToHostException;
+    }
+
+    /**
+     * 判断响应状态码是否可以重试
+     *
+     * @param statusCode HTTP状态码
+     * @param idempotent 请求是否幂等
+     * @return 是否重试
+     */
+    public boolean isRetryable(int statusCode, boolean idempotent) {
+        // 429和503表示目标系统未处理请求，其他5xx只对幂等请求重试
+        if (statusCode == 429 || statusCode == 503) {
+            return true;
+        }
+        return idempotent && statusCode >= 500;
+    }
+
+    /**
+     * 最大尝试次数
+     *
+     * @return 最大尝试次数
+     */
+    public int getMaxAttempts() {
+        return Math.max(1, maxAttempts);
+    }
+
+    /**
+     * 第attempt次失败后的退避时间，使用全抖动：在0到指数退避上限之间随机
+     *
+     * @param attempt 已尝试次数，从1开始
+     * @return 退避时间（毫秒）
+     */
+    public long backoffMillis(int attempt) {
+        long cap = initialBackoff << Math.min(attempt - 1, 20);
+        cap = Math.min(maxBackoff, cap);
+        return cap <= 0 ? 0 : ThreadLocalRandom.current().nextLong(cap + 1);
+    }
+}
@@ -0,0 +1,14 @@
+package com.seeyon.A8ContractPost.util;
+
+/**
+ * 接口返回 HTTP 401 Unauthorized
+ * 请求携带的Token未被目标系统接受，调用方重新登录后可以用新Token重试
+ */
+public class ApiUnauthorizedException extends RuntimeException {
+
+    public static final int STATUS = 401;
+
+    public ApiUnauthorizedException(String url) {
+        super("接口返回 HTTP 401，Token无效或已过期: " + url);
+    }
+}
@@ -0,0 +1,320 @@
+package com.seeyon.A8ContractPost.util;
+
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.ssl.NoopHostnameVerifier;
+import org.apache.http.conn.ssl.TrustStrategy;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.ContentType;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.apache.http.nio.conn.NoopIOSessionStrategy;
+import org.apache.http.nio.conn.SchemeIOSessionStrategy;
+import org.apache.http.nio.conn.ssl.SSLIOSessionStrategy;
+import org.apache.http.nio.reactor.IOReactorException;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.ssl.SSLContextBuilder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.net.ssl.SSLContext;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.GeneralSecurityException;
+import java.security.cert.X509Certificate;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * 异步HTTP请求工具类
+ * 基于NIO的HttpAsyncClient，少量IO线程即可同时处理大量进行中的请求，不会为每个请求占用一个线程。
+ * 仅在contract.api.transport=async时创建
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "contract.api.transport", havingValue = "async")
+public class AsyncHttpClientUtil {
+
+    /**
+     * IO线程数，默认与CPU核数相同
+     */
+    @Value("${contract.api.http.async.io-threads:0}")
+    private int ioThreads;
+
+    /**
+     * 连接池最大连接数（即最大同时进行中的请求数）
+     */
+    @Value("${contract.api.http.async.max-total:500}")
+    private int maxTotal;
+
+    /**
+     * 每个路由（目标主机）最大连接数
+     */
+    @Value("${contract.api.http.async.max-per-route:200}")
+    private int maxPerRoute;
+
+    @Value("${contract.api.http.connect-timeout:10000}")
+    private int connectTimeout;
+
+    @Value("${contract.api.http.socket-timeout:30000}")
+    private int socketTimeout;
+
+    @Value("${contract.api.http.connection-request-timeout:5000}")
+    private int connectionRequestTimeout;
+
+    private final ApiRateLimiter apiRateLimiter;
+    private final ApiRetryPolicy apiRetryPolicy;
+    private final SyncMetrics syncMetrics;
+
+    private PoolingNHttpClientConnectionManager connectionManager;
+    private CloseableHttpAsyncClient httpClient;
+    // 限流许可的延迟放行与等待超时，不执行请求本身
+    private ScheduledExecutorService throttleTimer;
+
+    public AsyncHttpClientUtil(ApiRateLimiter apiRateLimiter, ApiRetryPolicy apiRetryPolicy,
+                               SyncMetrics syncMetrics) {
+        this.apiRateLimiter = apiRateLimiter;
+        this.apiRetryPolicy = apiRetryPolicy;
+        this.syncMetrics = syncMetrics;
+    }
+
+    /**
+     * 初始化异步HttpClient并启动IO线程
+     */
+    @PostConstruct
+    public void init() {
+        int threads = ioThreads > 0 ? ioThreads : Runtime.getRuntime().availableProcessors();
+        try {
+            IOReactorConfig ioReactorConfig = IOReactorConfig.custom()
+                    .setIoThreadCount(threads)
+                    .setConnectTimeout(connectTimeout)
+                    .setSoTimeout(socketTimeout)
+                    .build();
+            connectionManager = new PoolingNHttpClientConnectionManager(
+                    new DefaultConnectingIOReactor(ioReactorConfig), createSessionStrategyRegistry());
+        } catch (IOReactorException e) {
+            log.error("创建异步HttpClient失败", e);
+            throw new RuntimeException("创建异步HttpClient失败", e);
+        }
+        connectionManager.setMaxTotal(maxTotal);
+        connectionManager.setDefaultMaxPerRoute(maxPerRoute);
+
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(connectTimeout)
+                .setSocketTimeout(socketTimeout)
+                .setConnectionRequestTimeout(connectionRequestTimeout)
+                .build();
+
+        httpClient = HttpAsyncClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .build();
+        httpClient.start();
+        throttleTimer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "api-throttle-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        // 连接池使用情况
+        syncMetrics.gauge("contract.api.http.async.pool", Tags.of("state", "leased"), this, util -> util.getPoolStats().getLeased());
+        syncMetrics.gauge("contract.api.http.async.pool", Tags.of("state", "available"), this, util -> util.getPoolStats().getAvailable());
+        syncMetrics.gauge("contract.api.http.async.pool", Tags.of("state", "pending"), this, util -> util.getPoolStats().getPending());
+        syncMetrics.gauge("contract.api.http.async.pool", Tags.of("state", "max"), this, util -> util.getPoolStats().getMax());
+
+        log.info("异步HttpClient初始化完成，IO线程数: {}, 最大连接数: {}, 每路由最大连接数: {}",
+                threads, maxTotal, maxPerRoute);
+    }
+
+    /**
+     * 关闭异步HttpClient及IO线程
+     */
+    @PreDestroy
+    public void destroy() {
+        if (throttleTimer != null) {
+            throttleTimer.shutdownNow();
+        }
+        try {
+            if (httpClient != null) {
+                httpClient.close();
+            }
+            log.info("异步HttpClient已关闭");
+        } catch (IOException e) {
+            log.error("关闭异步HttpClient失败", e);
+        }
+    }
+
+    /**
+     * 创建支持HTTPS的会话策略注册表，与同步客户端一样信任所有证书
+     */
+    private Registry<SchemeIOSessionStrategy> createSessionStrategyRegistry() {
+        try {
+            TrustStrategy acceptingTrustStrategy = (X509Certificate[] chain, String authType) -> true;
+            SSLContext sslContext = new SSLContextBuilder()
+                    .loadTrustMaterial(null, acceptingTrustStrategy)
+                    .build();
+
+            SSLIOSessionStrategy sslStrategy = new SSLIOSessionStrategy(
+                    sslContext,
+                    new String[]{"TLSv1", "TLSv1.1", "TLSv1.2"},
+                    null,
+                    NoopHostnameVerifier.INSTANCE);
+
+            return RegistryBuilder.<SchemeIOSessionStrategy>create()
+                    .register("http", NoopIOSessionStrategy.INSTANCE)
+                    .register("https", sslStrategy)
+                    .build();
+        } catch (GeneralSecurityException e) {
+            log.error("创建异步HttpClient失败", e);
+            throw new RuntimeException("创建异步HttpClient失败", e);
+        }
+    }
+
+    /**
+     * 异步发送POST请求
+     * 熔断拒绝、等待限流许可超时均以异常结束的Future返回，调用线程不会阻塞；
+     * 响应由IO线程交给处理器解析，处理器中不应执行阻塞操作
+     *
+     * @param url     请求URL
+     * @param json    UTF-8编码的请求JSON
+     * @param handler 响应流处理器
+     * @param <T>     结果类型
+     * @return 处理结果的Future，没有响应内容时结果为null；接口返回 HTTP 401 时以ApiUnauthorizedException异常完成
+     */
+    public <T> CompletableFuture<T> doPost(String url, byte[] json, HttpClientUtil.StreamHandler<T> handler) {
+        HttpPost httpPost = new HttpPost(url);
+        httpPost.setHeader("Content-Type", "application/json;charset=UTF-8");
+
+        if (json != null) {
+            // ContentType.APPLICATION_JSON已带charset=UTF-8；Content-Encoding用于gzip等压缩编码，不能填字符集
+            httpPost.setEntity(new ByteArrayEntity(json, ContentType.APPLICATION_JSON));
+        }
+
+        String path = httpPost.getURI().getPath();
+        String endpoint = ApiRateLimiter.endpointOf(path);
+        CircuitBreaker breaker = apiRetryPolicy.breakerFor(path);
+        try {
+            breaker.acquirePermission();
+        } catch (RuntimeException e) {
+            syncMetrics.incrementApiRejected(endpoint);
+            return failedFuture(e);
+        }
+
+        // 许可不足时不占用调用线程，获得许可后在释放许可的线程或限流定时线程中发出请求
+        EndpointLimiter limiter = apiRateLimiter.limiterFor(path);
+        long waitStart = System.nanoTime();
+        CompletableFuture<Long> permit = limiter == null
+                ? CompletableFuture.completedFuture(waitStart) : limiter.acquireAsync(throttleTimer);
+
+        CompletableFuture<T> future = new CompletableFuture<>();
+        permit.whenComplete((startNanos, e) -> {
+            if (e != null) {
+                breaker.onIgnored();
+                future.completeExceptionally(e);
+                return;
+            }
+            if (limiter != null) {
+                syncMetrics.recordThrottleWait(endpoint, startNanos - waitStart);
+            }
+            execute(httpPost, url, handler, endpoint, breaker, limiter, startNanos, future);
+        });
+        return future;
+    }
+
+    /**
+     * 在已获得许可后发出请求，请求完成后在IO线程中记录结果并释放许可
+     */
+    private <T> void execute(HttpPost httpPost, String url, HttpClientUtil.StreamHandler<T> handler, String endpoint,
+                             CircuitBreaker breaker, EndpointLimiter limiter, long startNanos,
+                             CompletableFuture<T> future) {
+        FutureCallback<HttpResponse> callback = new FutureCallback<HttpResponse>() {
+            @Override
+            public void completed(HttpResponse response) {
+                boolean overloaded = ApiRateLimiter.isOverloaded(response.getStatusLine().getStatusCode());
+                release(overloaded ? "OVERLOADED" : "SUCCESS");
+                if (overloaded) {
+                    breaker.onFailure();
+                } else {
+                    breaker.onSuccess();
+                }
+                if (response.getStatusLine().getStatusCode() == ApiUnauthorizedException.STATUS) {
+                    future.completeExceptionally(new ApiUnauthorizedException(url));
+                    return;
+                }
+                HttpEntity entity = response.getEntity();
+                if (entity == null) {
+                    future.complete(null);
+                    return;
+                }
+                try (InputStream content = entity.getContent()) {
+                    future.complete(handler.handle(content));
+                } catch (Exception e) {
+                    log.error("POST请求响应解析异常: {}", url, e);
+                    future.completeExceptionally(new RuntimeException("POST请求响应解析异常", e));
+                }
+            }
+
+            @Override
+            public void failed(Exception e) {
+                release("ERROR");
+                breaker.onFailure();
+                log.error("POST请求异常: {}", url, e);
+                future.completeExceptionally(new RuntimeException("POST请求异常", e));
+            }
+
+            @Override
+            public void cancelled() {
+                release(null);
+                breaker.onIgnored();
+                future.cancel(false);
+            }
+
+            /**
+             * @param outcome 请求结果，请求被取消时为null，不记录指标
+             */
+            private void release(String outcome) {
+                if (outcome != null) {
+                    syncMetrics.recordApiRequest(endpoint, outcome, System.nanoTime() - startNanos);
+                }
+                if (limiter != null) {
+                    limiter.release(startNanos, outcome != null && !"SUCCESS".equals(outcome));
+                }
+            }
+        };
+        try {
+            httpClient.execute(httpPost, callback);
+        } catch (RuntimeException e) {
+            // 客户端已关闭等情况下execute直接抛出，同样要释放许可
+            callback.failed(e);
+        }
+    }
+
+    private static <T> CompletableFuture<T> failedFuture(Throwable e) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        future.completeExceptionally(e);
+        return future;
+    }
+
+    /**
+     * 获取进行中与等待中的请求数
+     *
+     * @return 连接池状态（租用、空闲、等待、最大）
+     */
+    public PoolStats getPoolStats() {
+        return connectionManager.getTotalStats();
+    }
+}
@@ -0,0 +1,121 @@
+package com.seeyon.A8ContractPost.util;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 单个接口的熔断器
+ * 连续失败达到阈值后熔断，熔断期间直接拒绝请求；熔断时间结束后放行一个探测请求，
+ * 探测成功则恢复，失败则继续熔断
+ */
+@Slf4j
+public class CircuitBreaker {
+
+    /**
+     * 熔断器状态
+     */
+    public enum State {
+        /**
+         * 正常
+         */
+        CLOSED,
+        /**
+         * 熔断中
+         */
+        OPEN,
+        /**
+         * 熔断结束，正在探测
+         */
+        HALF_OPEN
+    }
+
+    private final String name;
+    private final int failureThreshold;
+    private final long openDurationMillis;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean probing;
+
+    /**
+     * @param name               接口名称
+     * @param failureThreshold   触发熔断的连续失败次数
+     * @param openDurationMillis 熔断时长（毫秒）
+     */
+    public CircuitBreaker(String name, int failureThreshold, long openDurationMillis) {
+        this.name = name;
+        this.failureThreshold = failureThreshold;
+        this.openDurationMillis = openDurationMillis;
+    }
+
+    /**
+     * 请求前检查是否放行，熔断中时抛出异常
+     */
+    public synchronized void acquirePermission() {
+        if (state == State.OPEN) {
+            long remaining = openedAt + openDurationMillis - System.currentTimeMillis();
+            if (remaining > 0) {
+                throw new RuntimeException("接口 " + name + " 熔断中，" + remaining + " 毫秒后重试");
+            }
+            state = State.HALF_OPEN;
+            probing = false;
+        }
+        if (state == State.HALF_OPEN) {
+            if (probing) {
+                throw new RuntimeException("接口 " + name + " 熔断恢复探测中");
+            }
+            probing = true;
+            log.info("接口 {} 熔断结束，发送探测请求", name);
+        }
+    }
+
+    /**
+     * 记录请求成功
+     */
+    public synchronized void onSuccess() {
+        if (state != State.CLOSED) {
+            log.info("接口 {} 已恢复", name);
+        }
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        probing = false;
+    }
+
+    /**
+     * 记录请求失败（网络异常或服务端错误）
+     */
+    public synchronized void onFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+            state = State.OPEN;
+            openedAt = System.currentTimeMillis();
+            probing = false;
+            log.error("接口 {} 连续失败 {} 次，熔断 {} 毫秒", name, consecutiveFailures, openDurationMillis);
+        }
+    }
+
+    /**
+     * 已放行但未发出的请求（如等待限流超时），不计入成功或失败
+     */
+    public synchronized void onIgnored() {
+        probing = false;
+    }
+
+    /**
+     * 接口名称
+     *
+     * @return 接口名称
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 当前状态
+     *
+     * @return 熔断器状态
+     */
+    public synchronized State getState() {
+        return state;
+    }
+}
@@ -0,0 +1,81 @@
+package com.seeyon.A8ContractPost.util;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 限制并发数的执行器
+ * 每个任务都立即交给底层执行器（如每任务一个虚拟线程），任务开始执行前先获取许可，
+ * 同时运行的任务数不超过许可数，超出的任务在各自线程中等待，不占用提交线程；
+ * 等待许可时被中断的任务不会执行，需要得知这种情况的调用方应以Future（如FutureTask）提交任务
+ */
+@Slf4j
+public class ConcurrencyLimitedExecutor implements Executor {
+
+    private final ExecutorService delegate;
+    private final Semaphore permits;
+    private final int maxConcurrency;
+
+    /**
+     * @param delegate       底层执行器
+     * @param maxConcurrency 最大并发任务数
+     */
+    public ConcurrencyLimitedExecutor(ExecutorService delegate, int maxConcurrency) {
+        this.delegate = delegate;
+        this.permits = new Semaphore(maxConcurrency);
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        delegate.execute(() -> {
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                // 等待许可时被中断（如shutdownNow）不再执行任务；任务是Future时将其取消，等待结果的调用方不会一直阻塞
+                if (task instanceof Future) {
+                    ((Future<?>) task).cancel(false);
+                } else {
+                    log.warn("等待并发许可时被中断，放弃执行任务");
+                }
+                Thread.currentThread().interrupt();
+                return;
+            }
+            try {
+                task.run();
+            } finally {
+                permits.release();
+            }
+        });
+    }
+
+    /**
+     * 获取正在执行的任务数
+     *
+     * @return 已占用的许可数
+     */
+    public int getActiveCount() {
+        return maxConcurrency - permits.availablePermits();
+    }
+
+    /**
+     * 停止接收新任务，并等待已提交的任务完成
+     */
+    public void shutdown() {
+        delegate.shutdown();
+        try {
+            if (!delegate.awaitTermination(60, TimeUnit.SECONDS)) {
+                log.warn("同步任务未在60秒内完成，强制停止");
+                delegate.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            delegate.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,316 @@
+package com.seeyon.A8ContractPost.util;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 单个接口的限流器
+ * 令牌桶限制每秒请求数（可选的安全上限，每秒请求数为0时不限速率）；并发数上限按AIMD方式自适应调整：
+ * 请求正常且耗时未超过阈值时缓慢增加上限，出现限流/服务端错误或耗时超过阈值时按比例降低上限。
+ * acquire在调用线程中等待许可；acquireAsync不阻塞调用线程，并发已满时排队，由释放许可的线程按到达顺序放行
+ */
+@Slf4j
+public class EndpointLimiter {
+
+    private final String name;
+
+    // 令牌桶
+    private final double permitsPerSecond;
+    private final double maxBurst;
+    private double storedPermits;
+    private long lastRefillNanos;
+
+    // 自适应并发上限
+    private final int minConcurrency;
+    private final int maxConcurrency;
+    private final long latencyThresholdNanos;
+    private final double backoffRatio;
+    private final long acquireTimeoutMillis;
+    private double limit;
+    private int inFlight;
+    private long lastDecreaseNanos;
+
+    // 等待并发许可的异步请求
+    private final Deque<AsyncWaiter> asyncWaiters = new ArrayDeque<>();
+
+    /**
+     * @param name                 接口名称
+     * @param permitsPerSecond     每秒请求数
+     * @param maxBurst             令牌桶容量（允许的突发请求数）
+     * @param minConcurrency       最小并发数
+     * @param maxConcurrency       最大并发数
+     * @param initialConcurrency   初始并发数
+     * @param latencyThresholdMs   耗时阈值（毫秒），超过视为目标系统过载
+     * @param backoffRatio         过载时并发上限的缩减比例
+     * @param acquireTimeoutMillis 等待许可的超时（毫秒）
+     */
+    public EndpointLimiter(String name, double permitsPerSecond, double maxBurst, int minConcurrency,
+                           int maxConcurrency, int initialConcurrency, long latencyThresholdMs,
+                           double backoffRatio, long acquireTimeoutMillis) {
+        this.name = name;
+        this.permitsPerSecond = permitsPerSecond;
+        this.maxBurst = Math.max(1, maxBurst);
+        this.storedPermits = this.maxBurst;
+        this.lastRefillNanos = System.nanoTime();
+        this.minConcurrency = Math.max(1, minConcurrency);
+        this.maxConcurrency = Math.max(this.minConcurrency, maxConcurrency);
+        this.limit = Math.min(this.maxConcurrency, Math.max(this.minConcurrency, initialConcurrency));
+        this.latencyThresholdNanos = TimeUnit.MILLISECONDS.toNanos(latencyThresholdMs);
+        this.backoffRatio = backoffRatio;
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+    }
+
+    /**
+     * 获取请求许可，令牌不足或并发已满时等待
+     *
+     * @return 开始时间（纳秒），释放许可时传回
+     */
+    public long acquire() {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(acquireTimeoutMillis);
+        acquireConcurrency(deadline);
+        try {
+            acquireRate(deadline);
+        } catch (RuntimeException e) {
+            releaseConcurrency();
+            throw e;
+        }
+        return System.nanoTime();
+    }
+
+    /**
+     * 异步获取请求许可，不阻塞调用线程
+     * 并发已满时排队，其他请求释放许可时按到达顺序放行；令牌不足时由timer延迟放行；
+     * 等待超过acquireTimeout时Future以异常结束
+     *
+     * @param timer 延迟放行和超时使用的调度器
+     * @return 获得许可时完成，值为开始时间（纳秒），释放许可时传回
+     */
+    public CompletableFuture<Long> acquireAsync(ScheduledExecutorService timer) {
+        AsyncWaiter waiter = new AsyncWaiter(timer,
+                System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(acquireTimeoutMillis));
+        boolean acquired;
+        synchronized (this) {
+            acquired = asyncWaiters.isEmpty() && inFlight < (int) limit;
+            if (acquired) {
+                inFlight++;
+            } else {
+                asyncWaiters.addLast(waiter);
+            }
+        }
+        if (acquired) {
+            acquireRateAsync(waiter);
+            return waiter.future;
+        }
+
+        try {
+            waiter.timeout = timer.schedule(() -> {
+                if (removeWaiter(waiter)) {
+                    waiter.future.completeExceptionally(new RuntimeException("等待接口 " + name + " 的并发许可超时"));
+                }
+            }, acquireTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            if (removeWaiter(waiter)) {
+                waiter.future.completeExceptionally(e);
+            }
+        }
+        return waiter.future;
+    }
+
+    /**
+     * 释放请求许可，并根据本次请求的结果调整并发上限
+     *
+     * @param startNanos acquire返回的开始时间
+     * @param overloaded 是否出现限流、服务端错误或网络异常
+     */
+    public void release(long startNanos, boolean overloaded) {
+        List<AsyncWaiter> granted;
+        synchronized (this) {
+            long now = System.nanoTime();
+            long latency = now - startNanos;
+            if (overloaded || latency > latencyThresholdNanos) {
+                // 乘性减少；一个阈值周期内只减少一次，避免同一波请求把上限连续压到最低
+                if (now - lastDecreaseNanos > latencyThresholdNanos) {
+                    double previous = limit;
+                    limit = Math.max(minConcurrency, limit * backoffRatio);
+                    lastDecreaseNanos = now;
+                    if ((int) previous != (int) limit) {
+                        log.warn("接口 {} {}，并发上限 {} -> {}", name,
+                                overloaded ? "出现错误" : "响应变慢(" + TimeUnit.NANOSECONDS.toMillis(latency) + "ms)",
+                                (int) previous, (int) limit);
+                    }
+                }
+            } else if (inFlight >= (int) limit) {
+                // 加性增加：并发已用满且请求正常时，每完成约limit个请求上限加1
+                limit = Math.min(maxConcurrency, limit + 1.0 / limit);
+            }
+            inFlight--;
+            granted = grantWaiters();
+            notifyAll();
+        }
+        granted.forEach(this::acquireRateAsync);
+    }
+
+    private synchronized void acquireConcurrency(long deadline) {
+        while (inFlight >= (int) limit) {
+            long waitMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (waitMillis <= 0) {
+                throw new RuntimeException("等待接口 " + name + " 的并发许可超时");
+            }
+            try {
+                wait(waitMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("等待接口 " + name + " 的并发许可被中断", e);
+            }
+        }
+        inFlight++;
+    }
+
+    private void releaseConcurrency() {
+        List<AsyncWaiter> granted;
+        synchronized (this) {
+            inFlight--;
+            granted = grantWaiters();
+            notifyAll();
+        }
+        granted.forEach(this::acquireRateAsync);
+    }
+
+    /**
+     * 按到达顺序为排队的异步请求分配空出的并发许可，调用方需持有锁；
+     * 返回的请求在锁外继续获取令牌，避免在锁内执行Future的回调
+     */
+    private List<AsyncWaiter> grantWaiters() {
+        if (asyncWaiters.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<AsyncWaiter> granted = new ArrayList<>();
+        while (!asyncWaiters.isEmpty() && inFlight < (int) limit) {
+            AsyncWaiter waiter = asyncWaiters.pollFirst();
+            if (waiter.timeout != null) {
+                waiter.timeout.cancel(false);
+            }
+            inFlight++;
+            granted.add(waiter);
+        }
+        return granted;
+    }
+
+    private synchronized boolean removeWaiter(AsyncWaiter waiter) {
+        return asyncWaiters.remove(waiter);
+    }
+
+    /**
+     * 已获得并发许可的异步请求获取令牌，令牌不足时由timer在令牌补足后放行
+     */
+    private void acquireRateAsync(AsyncWaiter waiter) {
+        long waitNanos = permitsPerSecond <= 0 ? 0 : reservePermit();
+        if (waitNanos <= 0) {
+            waiter.future.complete(System.nanoTime());
+            return;
+        }
+        if (System.nanoTime() + waitNanos > waiter.deadline) {
+            releaseConcurrency();
+            waiter.future.completeExceptionally(new RuntimeException("等待接口 " + name + " 的限流许可超时"));
+            return;
+        }
+        try {
+            waiter.timer.schedule(() -> waiter.future.complete(System.nanoTime()), waitNanos, TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException e) {
+            releaseConcurrency();
+            waiter.future.completeExceptionally(e);
+        }
+    }
+
+    private void acquireRate(long deadline) {
+        if (permitsPerSecond <= 0) {
+            return;
+        }
+        long waitNanos = reservePermit();
+        if (waitNanos <= 0) {
+            return;
+        }
+        if (System.nanoTime() + waitNanos > deadline) {
+            throw new RuntimeException("等待接口 " + name + " 的限流许可超时");
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("等待接口 " + name + " 的限流许可被中断", e);
+        }
+    }
+
+    /**
+     * 预占一个令牌，返回需要等待的时间；令牌可透支，由等待时间偿还
+     */
+    private synchronized long reservePermit() {
+        long now = System.nanoTime();
+        double refill = (now - lastRefillNanos) / 1e9 * permitsPerSecond;
+        storedPermits = Math.min(maxBurst, storedPermits + refill);
+        lastRefillNanos = now;
+        storedPermits -= 1;
+        return storedPermits >= 0 ? 0 : (long) (-storedPermits / permitsPerSecond * 1e9);
+    }
+
+    /**
+     * 接口名称
+     *
+     * @return 接口名称
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 当前并发上限
+     *
+     * @return 并发上限
+     */
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    /**
+     * 进行中的请求数
+     *
+     * @return 进行中的请求数
+     */
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    /**
+     * 每秒请求数上限
+     *
+     * @return 每秒请求数
+     */
+    public double getPermitsPerSecond() {
+        return permitsPerSecond;
+    }
+
+    /**
+     * 等待许可的异步请求
+     */
+    private static class AsyncWaiter {
+        private final CompletableFuture<Long> future = new CompletableFuture<>();
+        private final ScheduledExecutorService timer;
+        private final long deadline;
+        private volatile ScheduledFuture<?> timeout;
+
+        AsyncWaiter(ScheduledExecutorService timer, long deadline) {
+            this.timer = timer;
+            this.deadline = deadline;
+        }
+    }
+}
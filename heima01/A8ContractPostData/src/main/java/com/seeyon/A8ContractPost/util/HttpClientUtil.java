@@ -1,44 +1,174 @@
 package com.seeyon.A8ContractPost.util;
 
+import io.micrometer.core.instrument.Tags;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.http.HttpEntity;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
 import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
 import org.apache.http.conn.ssl.NoopHostnameVerifier;
 import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
 import org.apache.http.conn.ssl.TrustStrategy;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.ContentType;
 import org.apache.http.entity.StringEntity;
 import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
 import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
 import org.apache.http.ssl.SSLContextBuilder;
 import org.apache.http.util.EntityUtils;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.net.ssl.SSLContext;
 import java.io.IOException;
+import java.io.InputStream;
 import java.security.KeyManagementException;
 import java.security.KeyStoreException;
 import java.security.NoSuchAlgorithmException;
 import java.security.cert.X509Certificate;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 /**
  * HTTP请求工具类
+ * 使用连接池复用长连接，所有请求共享同一个HttpClient
  */
 @Slf4j
 @Component
 public class HttpClientUtil {
 
-    private static final int CONNECT_TIMEOUT = 10000; // 10秒
-    private static final int SOCKET_TIMEOUT = 30000; // 30秒
     private static final String CHARSET = "UTF-8";
 
     /**
-     * 创建支持HTTPS的HttpClient
+     * 连接池最大连接数
      */
-    private CloseableHttpClient createHttpClient() {
+    @Value("${contract.api.http.max-total:50}")
+    private int maxTotal;
+
+    /**
+     * 每个路由（目标主机）最大连接数
+     */
+    @Value("${contract.api.http.max-per-route:20}")
+    private int maxPerRoute;
+
+    /**
+     * 建立连接超时（毫秒）
+     */
+    @Value("${contract.api.http.connect-timeout:10000}")
+    private int connectTimeout;
+
+    /**
+     * 读取响应超时（毫秒）
+     */
+    @Value("${contract.api.http.socket-timeout:30000}")
+    private int socketTimeout;
+
+    /**
+     * 从连接池获取连接的超时（毫秒）
+     */
+    @Value("${contract.api.http.connection-request-timeout:5000}")
+    private int connectionRequestTimeout;
+
+    /**
+     * 服务端未返回Keep-Alive头时，连接默认保活时间（毫秒）
+     */
+    @Value("${contract.api.http.keep-alive:30000}")
+    private long keepAlive;
+
+    /**
+     * 空闲连接回收阈值（毫秒），空闲超过该时间的连接将被关闭
+     */
+    @Value("${contract.api.http.idle-timeout:60000}")
+    private long idleTimeout;
+
+    /**
+     * 连接空闲超过该时间（毫秒）后再次使用前先做有效性校验
+     */
+    @Value("${contract.api.http.validate-after-inactivity:2000}")
+    private int validateAfterInactivity;
+
+    private final ApiRateLimiter apiRateLimiter;
+    private final ApiRetryPolicy apiRetryPolicy;
+    private final SyncMetrics syncMetrics;
+
+    private PoolingHttpClientConnectionManager connectionManager;
+    private CloseableHttpClient httpClient;
+
+    public HttpClientUtil(ApiRateLimiter apiRateLimiter, ApiRetryPolicy apiRetryPolicy, SyncMetrics syncMetrics) {
+        this.apiRateLimiter = apiRateLimiter;
+        this.apiRetryPolicy = apiRetryPolicy;
+        this.syncMetrics = syncMetrics;
+    }
+
+    /**
+     * 初始化长连接HttpClient
+     * SSL上下文与连接池只创建一次，所有请求复用同一个客户端，避免每次请求重新握手
+     */
+    @PostConstruct
+    public void init() {
+        connectionManager = new PoolingHttpClientConnectionManager(createSocketFactoryRegistry());
+        connectionManager.setMaxTotal(maxTotal);
+        connectionManager.setDefaultMaxPerRoute(maxPerRoute);
+        connectionManager.setValidateAfterInactivity(validateAfterInactivity);
+
+        // 配置请求超时
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(connectTimeout)
+                .setSocketTimeout(socketTimeout)
+                .setConnectionRequestTimeout(connectionRequestTimeout)
+                .build();
+
+        // 创建HttpClient，后台线程定期回收过期和空闲连接
+        httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .setKeepAliveStrategy(createKeepAliveStrategy())
+                // 重试由ApiRetryPolicy统一处理
+                .disableAutomaticRetries()
+                .evictExpiredConnections()
+                .evictIdleConnections(idleTimeout, TimeUnit.MILLISECONDS)
+                .build();
+
+        // 连接池使用情况
+        syncMetrics.gauge("contract.api.http.pool", Tags.of("state", "leased"), this, util -> util.getPoolStats().getLeased());
+        syncMetrics.gauge("contract.api.http.pool", Tags.of("state", "available"), this, util -> util.getPoolStats().getAvailable());
+        syncMetrics.gauge("contract.api.http.pool", Tags.of("state", "pending"), this, util -> util.getPoolStats().getPending());
+        syncMetrics.gauge("contract.api.http.pool", Tags.of("state", "max"), this, util -> util.getPoolStats().getMax());
+
+        log.info("HttpClient连接池初始化完成，最大连接数: {}, 每路由最大连接数: {}", maxTotal, maxPerRoute);
+    }
+
+    /**
+     * 关闭HttpClient及连接池
+     */
+    @PreDestroy
+    public void destroy() {
+        try {
+            if (httpClient != null) {
+                httpClient.close();
+            }
+            log.info("HttpClient连接池已关闭");
+        } catch (IOException e) {
+            log.error("关闭HttpClient失败", e);
+        }
+    }
+
+    /**
+     * 创建支持HTTPS的连接工厂注册表
+     */
+    private Registry<ConnectionSocketFactory> createSocketFactoryRegistry() {
         try {
             // 创建SSL上下文，信任所有证书
             TrustStrategy acceptingTrustStrategy = (X509Certificate[] chain, String authType) -> true;
@@ -52,17 +182,10 @@ public class HttpClientUtil {
                     new String[]{"TLSv1", "TLSv1.1", "TLSv1.2"},
                     null,
                     NoopHostnameVerifier.INSTANCE);
-            
-            // 配置请求超时
-            RequestConfig requestConfig = RequestConfig.custom()
-                    .setConnectTimeout(CONNECT_TIMEOUT)
-                    .setSocketTimeout(SOCKET_TIMEOUT)
-                    .build();
-            
-            // 创建HttpClient
-            return HttpClients.custom()
-                    .setSSLSocketFactory(csf)
-                    .setDefaultRequestConfig(requestConfig)
+
+            return RegistryBuilder.<ConnectionSocketFactory>create()
+                    .register("http", PlainConnectionSocketFactory.getSocketFactory())
+                    .register("https", csf)
                     .build();
         } catch (NoSuchAlgorithmException | KeyStoreException | KeyManagementException e) {
             log.error("创建HttpClient失败", e);
@@ -70,6 +193,26 @@ public class HttpClientUtil {
         }
     }
 
+    /**
+     * 创建Keep-Alive策略
+     * 优先使用服务端Keep-Alive头中的timeout，未指定时使用配置的默认保活时间
+     */
+    private ConnectionKeepAliveStrategy createKeepAliveStrategy() {
+        return (response, context) -> {
+            long duration = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+            return duration > 0 ? duration : keepAlive;
+        };
+    }
+
+    /**
+     * 获取连接池状态
+     *
+     * @return 连接池状态（租用、空闲、等待、最大）
+     */
+    public PoolStats getPoolStats() {
+        return connectionManager.getTotalStats();
+    }
+
     /**
      * 发送GET请求
      *
@@ -78,21 +221,9 @@ public class HttpClientUtil {
      * @return 响应内容
      */
     public String doGet(String url, Map<String, String> params) {
-        // 构建带参数的URL
-        StringBuilder urlBuilder = new StringBuilder(url);
-        if (params != null && !params.isEmpty()) {
-            urlBuilder.append("?");
-            params.forEach((key, value) -> {
-                urlBuilder.append(key).append("=").append(value).append("&");
-            });
-            urlBuilder.deleteCharAt(urlBuilder.length() - 1);
-        }
+        HttpGet httpGet = buildGet(url, params);
 
-        HttpGet httpGet = new HttpGet(urlBuilder.toString());
-        httpGet.setHeader("Content-Type", "application/json;charset=UTF-8");
-
-        try (CloseableHttpClient httpClient = createHttpClient();
-             CloseableHttpResponse response = httpClient.execute(httpGet)) {
+        try (CloseableHttpResponse response = execute(httpGet)) {
             
             HttpEntity entity = response.getEntity();
             if (entity != null) {
@@ -108,6 +239,146 @@ public class HttpClientUtil {
         return null;
     }
 
+    /**
+     * 发送GET请求，并直接从响应流中读取结果
+     * 响应内容不会先整体读入字符串，适合数据量较大的接口
+     *
+     * @param url     请求URL
+     * @param params  请求参数
+     * @param handler 响应流处理器，在连接释放前调用
+     * @param <T>     结果类型
+     * @return 处理结果，没有响应内容时返回null
+     */
+    public <T> T doGet(String url, Map<String, String> params, StreamHandler<T> handler) {
+        HttpGet httpGet = buildGet(url, params);
+
+        try (CloseableHttpResponse response = execute(httpGet)) {
+
+            HttpEntity entity = response.getEntity();
+            if (entity != null) {
+                try (InputStream content = entity.getContent()) {
+                    return handler.handle(content);
+                } finally {
+                    // 读完剩余内容，使连接可以归还连接池复用
+                    EntityUtils.consumeQuietly(entity);
+                }
+            }
+        } catch (IOException e) {
+            log.error("GET请求异常: {}", url, e);
+            throw new RuntimeException("GET请求异常", e);
+        }
+
+        return null;
+    }
+
+    /**
+     * 执行请求：经熔断检查和接口限流后发送，网络异常或目标系统过载时按重试策略退避重试
+     * 重试次数用尽后，异常原样抛出，过载响应原样返回
+     */
+    private CloseableHttpResponse execute(HttpRequestBase request) throws IOException {
+        String path = request.getURI().getPath();
+        String endpoint = ApiRateLimiter.endpointOf(path);
+        CircuitBreaker breaker = apiRetryPolicy.breakerFor(path);
+        boolean idempotent = apiRetryPolicy.isIdempotent(request);
+        int maxAttempts = apiRetryPolicy.getMaxAttempts();
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                breaker.acquirePermission();
+            } catch (RuntimeException e) {
+                syncMetrics.incrementApiRejected(endpoint);
+                throw e;
+            }
+            try {
+                CloseableHttpResponse response = executeLimited(request);
+                int statusCode = response.getStatusLine().getStatusCode();
+                if (!ApiRateLimiter.isOverloaded(statusCode)) {
+                    breaker.onSuccess();
+                    return response;
+                }
+                breaker.onFailure();
+                if (!shouldRetry(breaker, attempt, maxAttempts) || !apiRetryPolicy.isRetryable(statusCode, idempotent)) {
+                    return response;
+                }
+                log.warn("请求返回 {}，第 {} 次重试: {}", statusCode, attempt, path);
+                syncMetrics.incrementApiRetry(endpoint, "STATUS");
+                EntityUtils.consumeQuietly(response.getEntity());
+                response.close();
+            } catch (IOException e) {
+                breaker.onFailure();
+                if (!shouldRetry(breaker, attempt, maxAttempts) || !apiRetryPolicy.isRetryable(e, idempotent)) {
+                    throw e;
+                }
+                log.warn("请求异常，第 {} 次重试: {}, {}", attempt, path, e.toString());
+                syncMetrics.incrementApiRetry(endpoint, "IO");
+            } catch (RuntimeException e) {
+                // 等待限流许可超时等，请求未发出
+                breaker.onIgnored();
+                throw e;
+            }
+            sleepBackoff(apiRetryPolicy.backoffMillis(attempt));
+        }
+    }
+
+    /**
+     * 经接口限流后发送请求
+     * 以收到响应头的耗时及状态码作为目标系统负载的依据，同时记录请求耗时指标
+     */
+    private CloseableHttpResponse executeLimited(HttpRequestBase request) throws IOException {
+        String path = request.getURI().getPath();
+        String endpoint = ApiRateLimiter.endpointOf(path);
+        EndpointLimiter limiter = apiRateLimiter.limiterFor(path);
+
+        long waitStart = System.nanoTime();
+        long startNanos = limiter == null ? waitStart : limiter.acquire();
+        if (limiter != null) {
+            syncMetrics.recordThrottleWait(endpoint, startNanos - waitStart);
+        }
+        String outcome = "ERROR";
+        try {
+            CloseableHttpResponse response = httpClient.execute(request);
+            outcome = ApiRateLimiter.isOverloaded(response.getStatusLine().getStatusCode()) ? "OVERLOADED" : "SUCCESS";
+            return response;
+        } finally {
+            syncMetrics.recordApiRequest(endpoint, outcome, System.nanoTime() - startNanos);
+            if (limiter != null) {
+                limiter.release(startNanos, !"SUCCESS".equals(outcome));
+            }
+        }
+    }
+
+    /**
+     * 未用完尝试次数且未因本次失败触发熔断时才重试
+     */
+    private static boolean shouldRetry(CircuitBreaker breaker, int attempt, int maxAttempts) {
+        return attempt < maxAttempts && breaker.getState() != CircuitBreaker.State.OPEN;
+    }
+
+    private static void sleepBackoff(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("重试等待被中断", e);
+        }
+    }
+
+    private HttpGet buildGet(String url, Map<String, String> params) {
+        // 构建带参数的URL
+        StringBuilder urlBuilder = new StringBuilder(url);
+        if (params != null && !params.isEmpty()) {
+            urlBuilder.append("?");
+            params.forEach((key, value) -> {
+                urlBuilder.append(key).append("=").append(value).append("&");
+            });
+            urlBuilder.deleteCharAt(urlBuilder.length() - 1);
+        }
+
+        HttpGet httpGet = new HttpGet(urlBuilder.toString());
+        httpGet.setHeader("Content-Type", "application/json;charset=UTF-8");
+        return httpGet;
+    }
+
     /**
      * 发送POST请求
      *
@@ -126,8 +397,7 @@ public class HttpClientUtil {
             httpPost.setEntity(entity);
         }
         
-        try (CloseableHttpClient httpClient = createHttpClient();
-             CloseableHttpResponse response = httpClient.execute(httpPost)) {
+        try (CloseableHttpResponse response = execute(httpPost)) {
             
             HttpEntity entity = response.getEntity();
             if (entity != null) {
@@ -142,4 +412,63 @@ public class HttpClientUtil {
         
         return null;
     }
-} 
\ No newline at end of file
+
+    /**
+     * 发送POST请求，请求体为已编码的JSON字节，并直接从响应流中读取结果
+     *
+     * @param url     请求URL
+     * @param json    UTF-8编码的请求JSON
+     * @param handler 响应流处理器，在连接释放前调用
+     * @param <T>     结果类型
+     * @return 处理结果，没有响应内容时返回null
+     * @throws ApiUnauthorizedException 接口返回 HTTP 401
+     */
+    public <T> T doPost(String url, byte[] json, StreamHandler<T> handler) {
+        HttpPost httpPost = new HttpPost(url);
+        httpPost.setHeader("Content-Type", "application/json;charset=UTF-8");
+
+        if (json != null) {
+            // ContentType.APPLICATION_JSON已带charset=UTF-8；Content-Encoding用于gzip等压缩编码，不能填字符集
+            httpPost.setEntity(new ByteArrayEntity(json, ContentType.APPLICATION_JSON));
+        }
+
+        try (CloseableHttpResponse response = execute(httpPost)) {
+
+            HttpEntity entity = response.getEntity();
+            if (response.getStatusLine().getStatusCode() == ApiUnauthorizedException.STATUS) {
+                EntityUtils.consumeQuietly(entity);
+                throw new ApiUnauthorizedException(url);
+            }
+            if (entity != null) {
+                try (InputStream content = entity.getContent()) {
+                    return handler.handle(content);
+                } finally {
+                    EntityUtils.consumeQuietly(entity);
+                }
+            }
+        } catch (IOException e) {
+            log.error("POST请求异常: {}", url, e);
+            throw new RuntimeException("POST请求异常", e);
+        }
+
+        return null;
+    }
+
+    /**
+     * 响应流处理器
+     *
+     * @param <T> 结果类型
+     */
+    @FunctionalInterface
+    public interface StreamHandler<T> {
+
+        /**
+         * 处理响应流
+         *
+         * @param content 响应内容流
+         * @return 处理结果
+         * @throws IOException 读取失败
+         */
+        T handle(InputStream content) throws IOException;
+    }
+}
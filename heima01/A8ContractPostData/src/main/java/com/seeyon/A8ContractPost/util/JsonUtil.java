@@ -1,26 +1,87 @@
 package com.seeyon.A8ContractPost.util;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.Module;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.util.DigestUtils;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * JSON处理工具类
+ * 按类型缓存ObjectReader/ObjectWriter，每次调用不再重新解析类型
  */
 @Slf4j
 public class JsonUtil {
 
+    /**
+     * Afterburner模块类名，使用afterburner构建配置时加入类路径
+     */
+    private static final String AFTERBURNER_MODULE = "com.fasterxml.jackson.module.afterburner.AfterburnerModule";
+
     private static final ObjectMapper objectMapper = new ObjectMapper();
 
+    // 按类型缓存的读写器，ObjectReader/ObjectWriter不可变，可被多个线程共享
+    private static final ConcurrentMap<Class<?>, ObjectReader> readers = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<Class<?>, ObjectReader> listReaders = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<Class<?>, ObjectWriter> writers = new ConcurrentHashMap<>();
+    private static final ObjectReader mapReader;
+
     static {
         // 配置ObjectMapper
         objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        // 写入输出流后不关闭，由调用方管理流的生命周期
+        objectMapper.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+        registerAfterburner();
+        mapReader = objectMapper.readerFor(new TypeReference<Map<String, Object>>() {});
+    }
+
+    /**
+     * 类路径中有Afterburner时注册，以生成的字节码代替反射读写属性
+     */
+    private static void registerAfterburner() {
+        try {
+            Class<?> moduleClass = Class.forName(AFTERBURNER_MODULE);
+            objectMapper.registerModule((Module) moduleClass.getDeclaredConstructor().newInstance());
+            log.info("已启用Jackson Afterburner模块");
+        } catch (ClassNotFoundException e) {
+            // 未使用afterburner构建配置，保持默认的反射方式
+        } catch (Exception e) {
+            log.warn("注册Jackson Afterburner模块失败，使用默认方式", e);
+        }
+    }
+
+    /**
+     * 获取指定类型的ObjectReader
+     *
+     * @param clazz 目标类
+     * @return 缓存的ObjectReader
+     */
+    public static ObjectReader readerFor(Class<?> clazz) {
+        return readers.computeIfAbsent(clazz, objectMapper::readerFor);
+    }
+
+    /**
+     * 获取指定类型的ObjectWriter
+     *
+     * @param clazz 对象类
+     * @return 缓存的ObjectWriter
+     */
+    public static ObjectWriter writerFor(Class<?> clazz) {
+        return writers.computeIfAbsent(clazz, objectMapper::writerFor);
     }
 
     /**
@@ -31,13 +92,55 @@ public class JsonUtil {
      */
     public static String toJson(Object obj) {
         try {
-            return objectMapper.writeValueAsString(obj);
+            return obj == null ? "null" : writerFor(obj.getClass()).writeValueAsString(obj);
         } catch (JsonProcessingException e) {
             log.error("对象转JSON字符串失败", e);
             throw new RuntimeException("对象转JSON字符串失败", e);
         }
     }
 
+    /**
+     * 对象转UTF-8编码的JSON字节数组
+     * 直接编码为字节，省去中间字符串，用于请求体
+     *
+     * @param obj 对象
+     * @return JSON字节数组
+     */
+    public static byte[] toJsonBytes(Object obj) {
+        try {
+            return obj == null ? objectMapper.writeValueAsBytes(null) : writerFor(obj.getClass()).writeValueAsBytes(obj);
+        } catch (JsonProcessingException e) {
+            log.error("对象转JSON字节数组失败", e);
+            throw new RuntimeException("对象转JSON字节数组失败", e);
+        }
+    }
+
+    /**
+     * 计算对象JSON内容的摘要（MD5十六进制），用于判断提交的数据是否变化
+     *
+     * @param obj 对象
+     * @return 摘要
+     */
+    public static String digest(Object obj) {
+        return DigestUtils.md5DigestAsHex(toJsonBytes(obj));
+    }
+
+    /**
+     * 对象以JSON写入输出流
+     *
+     * @param out 输出流，写入后不关闭
+     * @param obj 对象
+     */
+    public static void writeJson(OutputStream out, Object obj) {
+        try {
+            ObjectWriter writer = obj == null ? objectMapper.writer() : writerFor(obj.getClass());
+            writer.writeValue(out, obj);
+        } catch (IOException e) {
+            log.error("对象写入JSON输出流失败", e);
+            throw new RuntimeException("对象写入JSON输出流失败", e);
+        }
+    }
+
     /**
      * JSON字符串转对象
      *
@@ -48,13 +151,47 @@ public class JsonUtil {
      */
     public static <T> T fromJson(String json, Class<T> clazz) {
         try {
-            return objectMapper.readValue(json, clazz);
+            return readerFor(clazz).readValue(json);
         } catch (IOException e) {
             log.error("JSON字符串转对象失败: {}", json, e);
             throw new RuntimeException("JSON字符串转对象失败", e);
         }
     }
 
+    /**
+     * JSON字节数组转对象
+     *
+     * @param json  JSON字节数组
+     * @param clazz 目标类
+     * @param <T>   目标类型
+     * @return 对象
+     */
+    public static <T> T fromJson(byte[] json, Class<T> clazz) {
+        try {
+            return readerFor(clazz).readValue(json);
+        } catch (IOException e) {
+            log.error("JSON字节数组转对象失败: {} 字节", json == null ? 0 : json.length, e);
+            throw new RuntimeException("JSON字节数组转对象失败", e);
+        }
+    }
+
+    /**
+     * JSON输入流转对象
+     *
+     * @param in    输入流，读取后由调用方关闭
+     * @param clazz 目标类
+     * @param <T>   目标类型
+     * @return 对象
+     */
+    public static <T> T fromJson(InputStream in, Class<T> clazz) {
+        try {
+            return readerFor(clazz).readValue(in);
+        } catch (IOException e) {
+            log.error("JSON输入流转对象失败: {}", clazz.getSimpleName(), e);
+            throw new RuntimeException("JSON输入流转对象失败", e);
+        }
+    }
+
     /**
      * JSON字符串转List
      *
@@ -65,7 +202,9 @@ public class JsonUtil {
      */
     public static <T> List<T> fromJsonToList(String json, Class<T> clazz) {
         try {
-            return objectMapper.readValue(json, objectMapper.getTypeFactory().constructCollectionType(List.class, clazz));
+            ObjectReader reader = listReaders.computeIfAbsent(clazz,
+                    key -> objectMapper.readerFor(objectMapper.getTypeFactory().constructCollectionType(List.class, key)));
+            return reader.readValue(json);
         } catch (IOException e) {
             log.error("JSON字符串转List失败: {}", json, e);
             throw new RuntimeException("JSON字符串转List失败", e);
@@ -80,15 +219,42 @@ public class JsonUtil {
      */
     public static Map<String, Object> fromJsonToMap(String json) {
         try {
-            return objectMapper.readValue(json, new TypeReference<Map<String, Object>>() {});
+            return mapReader.readValue(json);
         } catch (IOException e) {
             log.error("JSON字符串转Map失败: {}", json, e);
             throw new RuntimeException("JSON字符串转Map失败", e);
         }
     }
 
+    /**
+     * 创建流式解析器
+     * 用于逐个读取大数组中的元素，不必把整个响应读入内存
+     *
+     * @param in 输入流
+     * @return JSON解析器，由调用方关闭
+     * @throws IOException 创建失败
+     */
+    public static JsonParser createParser(InputStream in) throws IOException {
+        return objectMapper.getFactory().createParser(in);
+    }
+
+    /**
+     * 从解析器当前位置读取一个对象
+     * 解析器需位于对象的START_OBJECT处，读取后位于对应的END_OBJECT处
+     *
+     * @param parser JSON解析器
+     * @param clazz  目标类
+     * @param <T>    目标类型
+     * @return 对象
+     * @throws IOException 读取失败
+     */
+    public static <T> T readValue(JsonParser parser, Class<T> clazz) throws IOException {
+        return readerFor(clazz).readValue(parser);
+    }
+
     /**
      * 获取ObjectMapper实例
+     * 修改其配置不会影响已缓存的读写器
      *
      * @return ObjectMapper实例
      */
@@ -0,0 +1,218 @@
+package com.seeyon.A8ContractPost.util;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * 同步指标
+ * 统一登记接口请求、同步步骤、OA查询、本地写入、连接池等指标，经Actuator以/actuator/metrics和/actuator/prometheus暴露。
+ * 百分位直方图在application.yml的management.metrics.distribution中按指标名开启
+ */
+@Component
+public class SyncMetrics {
+
+    /**
+     * 目标系统接口请求耗时（到收到响应头），标签：endpoint、outcome
+     */
+    public static final String API_REQUESTS = "contract.api.requests";
+
+    /**
+     * 等待接口限流许可的耗时，标签：endpoint
+     */
+    public static final String API_THROTTLE_WAIT = "contract.api.throttle.wait";
+
+    /**
+     * 接口请求重试次数，标签：endpoint、reason
+     */
+    public static final String API_RETRIES = "contract.api.retries";
+
+    /**
+     * 熔断期间被拒绝的请求数，标签：endpoint
+     */
+    public static final String API_REJECTED = "contract.api.circuit.rejected";
+
+    /**
+     * 单个合同同步各步骤的耗时，标签：step、outcome
+     */
+    public static final String SYNC_STEP = "contract.sync.step";
+
+    /**
+     * 每次同步运行的耗时，标签：type
+     */
+    public static final String SYNC_RUN = "contract.sync.run";
+
+    /**
+     * 同步运行处理的合同数，标签：type、result
+     */
+    public static final String SYNC_CONTRACTS = "contract.sync.contracts";
+
+    /**
+     * OA数据库查询耗时，标签：query
+     */
+    public static final String OA_QUERY = "contract.oa.query";
+
+    /**
+     * 本地库写入耗时，标签：operation
+     */
+    public static final String LOCAL_WRITE = "contract.local.write";
+
+    /**
+     * 登录获取Token次数，标签：reason、result
+     */
+    public static final String TOKEN_REFRESH = "contract.token.refresh";
+
+    private final MeterRegistry registry;
+
+    public SyncMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * 记录一次接口请求
+     *
+     * @param endpoint 接口名
+     * @param outcome  结果：SUCCESS、OVERLOADED（429/5xx）、ERROR（网络异常）
+     * @param nanos    耗时（纳秒）
+     */
+    public void recordApiRequest(String endpoint, String outcome, long nanos) {
+        timer(API_REQUESTS, "endpoint", endpoint, "outcome", outcome).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 记录等待接口限流许可的耗时
+     *
+     * @param endpoint 接口名
+     * @param nanos    耗时（纳秒）
+     */
+    public void recordThrottleWait(String endpoint, long nanos) {
+        timer(API_THROTTLE_WAIT, "endpoint", endpoint).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 记录一次接口请求重试
+     *
+     * @param endpoint 接口名
+     * @param reason   重试原因：STATUS、IO
+     */
+    public void incrementApiRetry(String endpoint, String reason) {
+        counter(API_RETRIES, "endpoint", endpoint, "reason", reason).increment();
+    }
+
+    /**
+     * 记录一次熔断拒绝
+     *
+     * @param endpoint 接口名
+     */
+    public void incrementApiRejected(String endpoint) {
+        counter(API_REJECTED, "endpoint", endpoint).increment();
+    }
+
+    /**
+     * 记录单个合同同步中一个步骤的耗时
+     *
+     * @param step       步骤：create、tasks、guarantees、areas
+     * @param outcome    结果：success、failure
+     * @param startNanos 开始时间（System.nanoTime）
+     */
+    public void recordStep(String step, String outcome, long startNanos) {
+        timer(SYNC_STEP, "step", step, "outcome", outcome)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 记录单个合同同步中跳过的一个步骤（内容未变化或已在检查点中确认），耗时记为0
+     *
+     * @param step 步骤：create、tasks、guarantees、areas
+     */
+    public void recordStepSkipped(String step) {
+        timer(SYNC_STEP, "step", step, "outcome", "skipped").record(0, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 记录一次同步运行
+     *
+     * @param type    运行类型：sync、incremental、retry、backfill
+     * @param nanos   耗时（纳秒）
+     * @param success 成功合同数（不含跳过的合同）
+     * @param failure 失败合同数
+     * @param skipped 内容未变化而跳过的合同数
+     */
+    public void recordRun(String type, long nanos, long success, long failure, long skipped) {
+        timer(SYNC_RUN, "type", type).record(nanos, TimeUnit.NANOSECONDS);
+        counter(SYNC_CONTRACTS, "type", type, "result", "success").increment(success);
+        counter(SYNC_CONTRACTS, "type", type, "result", "failure").increment(failure);
+        counter(SYNC_CONTRACTS, "type", type, "result", "skipped").increment(skipped);
+    }
+
+    /**
+     * 计时执行一次OA查询
+     *
+     * @param query 查询名称
+     * @param call  查询
+     * @param <T>   结果类型
+     * @return 查询结果
+     */
+    public <T> T timeOaQuery(String query, Supplier<T> call) {
+        return time(timer(OA_QUERY, "query", query), call);
+    }
+
+    /**
+     * 计时执行一次本地库写入
+     *
+     * @param operation 写入操作名称
+     * @param call      写入
+     * @param <T>       结果类型
+     * @return 写入结果
+     */
+    public <T> T timeLocalWrite(String operation, Supplier<T> call) {
+        return time(timer(LOCAL_WRITE, "operation", operation), call);
+    }
+
+    /**
+     * 记录一次登录获取Token
+     *
+     * @param reason  原因：initial（无Token或已过期）、invalid（接口提示失效）、scheduled（过期前后台刷新）
+     * @param success 是否成功
+     */
+    public void incrementTokenRefresh(String reason, boolean success) {
+        counter(TOKEN_REFRESH, "reason", reason, "result", success ? "success" : "failure").increment();
+    }
+
+    /**
+     * 登记仪表（如连接池、队列的当前值），读取时调用valueFunction
+     *
+     * @param name          指标名
+     * @param tags          标签
+     * @param target        取值对象
+     * @param valueFunction 取值函数
+     * @param <T>           取值对象类型
+     */
+    public <T> void gauge(String name, Tags tags, T target, ToDoubleFunction<T> valueFunction) {
+        Gauge.builder(name, target, valueFunction).tags(tags).register(registry);
+    }
+
+    private Timer timer(String name, String... tags) {
+        return Timer.builder(name).tags(tags).register(registry);
+    }
+
+    private Counter counter(String name, String... tags) {
+        return Counter.builder(name).tags(tags).register(registry);
+    }
+
+    private static <T> T time(Timer timer, Supplier<T> call) {
+        long start = System.nanoTime();
+        try {
+            return call.get();
+        } finally {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+}
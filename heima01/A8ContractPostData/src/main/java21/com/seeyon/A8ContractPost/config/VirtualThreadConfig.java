@@ -0,0 +1,44 @@
+package com.seeyon.A8ContractPost.config;
+
+import com.seeyon.A8ContractPost.util.ConcurrencyLimitedExecutor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.Executors;
+
+/**
+ * 虚拟线程配置
+ * 仅在使用virtual-threads构建配置（JDK 21+）编译时存在，并需设置contract.sync.virtual-threads.enabled=true。
+ * 每个合同的同步在单独的虚拟线程中执行，阻塞的HTTP/JDBC调用不再占用平台线程；
+ * 对目标系统的并发请求数由信号量限制
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "contract.sync.virtual-threads.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+    /**
+     * 合同同步执行器：每个合同一个虚拟线程，同时执行的合同数不超过max-concurrency
+     */
+    @Bean(name = "syncExecutor")
+    public ConcurrencyLimitedExecutor syncExecutor(
+            @Value("${contract.sync.virtual-threads.max-concurrency:64}") int maxConcurrency) {
+        log.info("合同同步使用虚拟线程，最大并发数: {}", maxConcurrency);
+        return new ConcurrencyLimitedExecutor(
+                Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("contract-sync-", 0).factory()),
+                maxConcurrency);
+    }
+
+    /**
+     * Tomcat请求处理也使用虚拟线程
+     */
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+        return protocolHandler -> protocolHandler.setExecutor(
+                Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("http-vt-", 0).factory()));
+    }
+}
@@ -0,0 +1,79 @@
+-- 多实例分片同步使用的共用表（SQL Server）
+--
+-- 启用 contract.sync.shard.enabled 前，由DBA在OA库中执行一次本脚本；程序启动时只检查这些表是否存在，不会自动建表。
+-- 启用分片后，同步状态、内容摘要、检查点和重试队列都保存在这些共用表中，分片转给其他实例后，
+-- 新的持有实例能看到已提交过的合同及其目标系统订单号，不会再次调用新增接口产生重复合同。
+-- 启用前各实例本地库中的同步状态、摘要不会迁移，各分片首次增量同步时会重新提交一次。
+--
+-- 已按早期版本自动建过 contract_sync_lease 表的库，只需补充水位线列：
+--   ALTER TABLE contract_sync_lease ADD watermark_time DATETIME;
+--   ALTER TABLE contract_sync_lease ADD watermark_key VARCHAR(50);
+
+-- 分片租约，分片记录由程序按 contract.sync.shard.count 补齐；水位线为该分片已处理到的 (modify_time, contract_no)
+CREATE TABLE contract_sync_lease (
+    shard_id INT NOT NULL PRIMARY KEY,
+    owner VARCHAR(100),
+    lease_until DATETIME,
+    update_time DATETIME,
+    watermark_time DATETIME,
+    watermark_key VARCHAR(50)
+);
+
+-- 实例心跳，用于按在线实例数均分分片
+CREATE TABLE contract_sync_instance (
+    instance_id VARCHAR(100) NOT NULL PRIMARY KEY,
+    heartbeat_until DATETIME,
+    update_time DATETIME
+);
+
+-- 同步失败的合同的重试队列
+CREATE TABLE contract_sync_outbox (
+    order_no VARCHAR(50) NOT NULL PRIMARY KEY,
+    attempts INT DEFAULT 0,
+    next_attempt_time DATETIME,
+    last_error VARCHAR(1000),
+    status VARCHAR(20) DEFAULT 'PENDING',
+    create_time DATETIME DEFAULT CURRENT_TIMESTAMP,
+    update_time DATETIME DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_sync_outbox_due ON contract_sync_outbox (status, next_attempt_time);
+
+-- 合同同步状态
+CREATE TABLE contract_sync_status (
+    order_no VARCHAR(50) NOT NULL PRIMARY KEY,
+    status INT DEFAULT 0,
+    message VARCHAR(500),
+    sync_time DATETIME,
+    create_time DATETIME DEFAULT CURRENT_TIMESTAMP,
+    update_time DATETIME DEFAULT CURRENT_TIMESTAMP
+);
+
+-- 每个合同上次成功提交的内容摘要及目标系统订单号
+CREATE TABLE contract_sync_digest (
+    order_no VARCHAR(50) NOT NULL PRIMARY KEY,
+    new_order_no VARCHAR(50),
+    contract_digest VARCHAR(32),
+    tasks_digest VARCHAR(32),
+    guarantees_digest VARCHAR(32),
+    areas_digest VARCHAR(32),
+    record_count INT,
+    payload_bytes BIGINT,
+    update_time DATETIME DEFAULT CURRENT_TIMESTAMP
+);
+
+-- 同步中途失败的合同已完成的步骤
+CREATE TABLE contract_sync_checkpoint (
+    order_no VARCHAR(50) NOT NULL PRIMARY KEY,
+    contract_digest VARCHAR(32),
+    new_order_no VARCHAR(50),
+    areas_digest VARCHAR(32),
+    update_time DATETIME DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE contract_sync_checkpoint_item (
+    order_no VARCHAR(50) NOT NULL,
+    step VARCHAR(20) NOT NULL,
+    item_digest VARCHAR(32) NOT NULL,
+    PRIMARY KEY (order_no, step, item_digest)
+);
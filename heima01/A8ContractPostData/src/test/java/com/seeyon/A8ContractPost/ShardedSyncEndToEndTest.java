@@ -0,0 +1,158 @@
+package com.seeyon.A8ContractPost;
+
+import com.seeyon.A8ContractPost.model.SyncProgress;
+import com.seeyon.A8ContractPost.service.SyncService;
+import com.seeyon.A8ContractPost.service.SyncShardManager;
+import com.seeyon.A8ContractPost.support.MockContractApiServer;
+import com.seeyon.A8ContractPost.support.SyncTestSupport;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 多实例分片同步端到端测试：单个实例持有全部分片，验证租约表中的分片水位线，以及OA库中的同步状态、内容摘要和重试队列
+ */
+@TestPropertySource(properties = {
+        "contract.sync.shard.enabled=true",
+        "contract.sync.shard.count=4",
+        "contract.sync.shard.instance-id=e2e",
+        "contract.sync.shard.lease-duration=5000",
+        "contract.sync.shard.renew-interval=200"
+})
+class ShardedSyncEndToEndTest extends SyncTestSupport {
+
+    private static final int SHARDS = 4;
+
+    @Autowired
+    private SyncService syncService;
+
+    @Autowired
+    private SyncShardManager syncShardManager;
+
+    @BeforeEach
+    void awaitShards() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10000;
+        while (syncShardManager.getOwnedShards().size() < SHARDS) {
+            assertTrue(System.currentTimeMillis() < deadline, "续约后应持有全部分片");
+            Thread.sleep(50);
+        }
+        oa.getJdbcTemplate().update("UPDATE contract_sync_lease SET watermark_time = NULL, watermark_key = NULL");
+    }
+
+    @Test
+    void incrementalSyncAdvancesEveryShardWatermark() {
+        oa.seed(20);
+
+        SyncProgress first = incremental(7);
+        assertEquals(20, first.getSuccessCount().get());
+        assertEquals(20, api.getRecordCount(MockContractApiServer.CONTRACT));
+        assertEquals(SHARDS, watermarkedShards());
+
+        SyncProgress second = incremental(7);
+        assertEquals(0, second.getSuccessCount().get() + second.getFailCount().get());
+    }
+
+    @Test
+    void newlyAcquiredShardResumesFromItsOwnWatermark() {
+        List<String> contractNos = oa.seed(20);
+        incremental(50);
+        long contractRequests = api.getRequestCount(MockContractApiServer.CONTRACT);
+
+        // 模拟分片0刚从其他实例转来且尚未同步过：其余分片的水位线已在最后，分片0仍要从头补齐
+        oa.getJdbcTemplate().update("UPDATE contract_sync_lease SET watermark_time = NULL, watermark_key = NULL " +
+                "WHERE shard_id = 0");
+        long shardContracts = contractNos.stream().filter(contractNo -> syncShardManager.shardOf(contractNo) == 0).count();
+        assertTrue(shardContracts > 0, "分片0应有合同");
+
+        SyncProgress progress = incremental(50);
+        assertEquals(shardContracts, progress.getSuccessCount().get());
+        // 内容未变化，不重复提交
+        assertEquals(shardContracts, progress.getSkipCount().get());
+        assertEquals(contractRequests, api.getRequestCount(MockContractApiServer.CONTRACT));
+        assertEquals(SHARDS, watermarkedShards());
+    }
+
+    @Test
+    void syncPagesThroughShardWatermarks() {
+        oa.seed(12);
+
+        SyncProgress first = sync(5);
+        assertEquals(5, first.getSuccessCount().get());
+        assertEquals(5, first.getTotal());
+        assertEquals(SHARDS, watermarkedShards());
+
+        SyncProgress second = sync(50);
+        assertEquals(7, second.getSuccessCount().get());
+        assertEquals(12, api.getRecordCount(MockContractApiServer.CONTRACT));
+
+        SyncProgress third = sync(50);
+        assertEquals(0, third.getSuccessCount().get() + third.getFailCount().get());
+    }
+
+    @Test
+    void newOwnerDoesNotResubmitContractsPushedBeforeHandover() {
+        oa.seed(20);
+        incremental(50);
+        long contractRequests = api.getRequestCount(MockContractApiServer.CONTRACT);
+        assertEquals(20, count("contract_sync_digest"));
+        assertEquals(20, count("contract_sync_status"));
+
+        // 模拟全部分片转给一个新实例：新实例本地库为空，各分片尚无水位线，只能依据OA库中的内容摘要判断已提交过的合同
+        oa.getJdbcTemplate().update("UPDATE contract_sync_lease SET watermark_time = NULL, watermark_key = NULL");
+        localJdbcTemplate.execute("DELETE FROM contract_sync_watermark");
+
+        SyncProgress progress = incremental(50);
+        assertEquals(20, progress.getSkipCount().get());
+        assertEquals(contractRequests, api.getRequestCount(MockContractApiServer.CONTRACT));
+    }
+
+    @Test
+    void failedContractsAreQueuedInSharedOutbox() {
+        oa.seed(20);
+        api.setFailureRate(0.3);
+
+        SyncProgress progress = incremental(50);
+        int failures = progress.getFailCount().get();
+        assertTrue(failures > 0, "错误注入后应有失败的合同");
+        assertEquals(failures, outboxSize());
+
+        api.setFailureRate(0);
+        SyncProgress retry = new SyncProgress();
+        syncService.retryFailed(100, retry);
+
+        assertEquals(failures, retry.getSuccessCount().get());
+        assertEquals(0, outboxSize());
+    }
+
+    private SyncProgress incremental(int pageSize) {
+        SyncProgress progress = new SyncProgress();
+        syncService.syncIncremental(pageSize, progress);
+        assertNull(progress.getError(), "同步不应整体失败");
+        return progress;
+    }
+
+    private SyncProgress sync(int batchSize) {
+        SyncProgress progress = new SyncProgress();
+        syncService.sync(batchSize, progress);
+        assertNull(progress.getError(), "同步不应整体失败");
+        return progress;
+    }
+
+    private int count(String table) {
+        Integer count = oa.getJdbcTemplate().queryForObject("SELECT COUNT(*) FROM " + table, Integer.class);
+        return count == null ? 0 : count;
+    }
+
+    private int watermarkedShards() {
+        Integer count = oa.getJdbcTemplate().queryForObject("SELECT COUNT(*) FROM contract_sync_lease " +
+                "WHERE watermark_time IS NOT NULL AND shard_id < ?", Integer.class, SHARDS);
+        return count == null ? 0 : count;
+    }
+}
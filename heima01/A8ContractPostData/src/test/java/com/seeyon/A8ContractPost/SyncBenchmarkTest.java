@@ -0,0 +1,129 @@
+package com.seeyon.A8ContractPost;
+
+import com.seeyon.A8ContractPost.model.SyncProgress;
+import com.seeyon.A8ContractPost.service.SyncService;
+import com.seeyon.A8ContractPost.support.MockContractApiServer;
+import com.seeyon.A8ContractPost.support.SyncTestSupport;
+import com.seeyon.A8ContractPost.util.SyncMetrics;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 合同同步压测：全量回填模拟OA库中的合成合同，统计每秒同步合同数和各步骤、各接口耗时的P50/P99
+ * 默认不执行，通过 mvn test -Pbenchmark 运行，可用系统属性调整规模：
+ * benchmark.contracts（合同数，默认2000）、benchmark.latency / benchmark.jitter（模拟接口延迟，毫秒，默认20 / 10）、
+ * benchmark.warmup（预热合同数，默认200）；结果追加写入 target/benchmark/sync-benchmark.txt
+ */
+@Tag("benchmark")
+@TestPropertySource(properties = {
+        // 每次都完整提交，衡量同步流程本身
+        "contract.sync.skip-unchanged=false",
+        "management.metrics.distribution.percentiles.contract=0.5,0.99",
+        "management.metrics.distribution.expiry.contract=1h"
+})
+class SyncBenchmarkTest extends SyncTestSupport {
+
+    @Autowired
+    private SyncService syncService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void backfillThroughput() throws IOException {
+        int contracts = Integer.getInteger("benchmark.contracts", 2000);
+        int warmup = Integer.getInteger("benchmark.warmup", 200);
+        long latency = Long.getLong("benchmark.latency", 20);
+        long jitter = Long.getLong("benchmark.jitter", 10);
+        api.setLatency(latency, jitter);
+
+        // 预热：类加载、JIT、连接池
+        oa.seed(warmup);
+        assertEquals(warmup, backfill().getSuccessCount().get());
+        oa.clear();
+        clearTimers();
+
+        oa.seed(contracts);
+        long start = System.nanoTime();
+        SyncProgress progress = backfill();
+        long elapsedNanos = System.nanoTime() - start;
+        assertEquals(contracts, progress.getSuccessCount().get());
+
+        List<String> lines = new ArrayList<>();
+        lines.add(String.format("[%s] 合同数: %d, 模拟接口延迟: %d+%d 毫秒",
+                LocalDateTime.now().withNano(0), contracts, latency, jitter));
+        lines.add(String.format("  吞吐: %.1f 合同/秒, 耗时 %d 毫秒", contracts * 1e9 / elapsedNanos,
+                TimeUnit.NANOSECONDS.toMillis(elapsedNanos)));
+        lines.addAll(timerLines(SyncMetrics.SYNC_STEP, "step"));
+        lines.addAll(timerLines(SyncMetrics.API_REQUESTS, "endpoint"));
+        lines.add(String.format("  模拟接口请求: 合同 %d, 任务 %d, 保证金 %d, 区域 %d",
+                api.getRequestCount(MockContractApiServer.CONTRACT), api.getRequestCount(MockContractApiServer.TASK),
+                api.getRequestCount(MockContractApiServer.GUARANTEE),
+                api.getRequestCount(MockContractApiServer.CONTRACT_AREA)));
+
+        lines.forEach(System.out::println);
+        Path report = Paths.get("target", "benchmark", "sync-benchmark.txt");
+        Files.createDirectories(report.getParent());
+        Files.write(report, lines, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    private SyncProgress backfill() {
+        SyncProgress progress = new SyncProgress();
+        syncService.backfill(0, progress);
+        return progress;
+    }
+
+    /**
+     * 移除预热期间记录的计时器，正式运行重新开始统计
+     */
+    private void clearTimers() {
+        List<Meter> meters = meterRegistry.getMeters().stream()
+                .filter(meter -> meter.getId().getName().startsWith("contract."))
+                .filter(meter -> meter instanceof Timer)
+                .collect(Collectors.toList());
+        meters.forEach(meterRegistry::remove);
+    }
+
+    private List<String> timerLines(String name, String tag) {
+        return meterRegistry.find(name).timers().stream()
+                .filter(timer -> timer.count() > 0)
+                .sorted(Comparator.comparing((Timer timer) -> timer.getId().getTag(tag))
+                        .thenComparing(timer -> String.valueOf(timer.getId().getTag("outcome"))))
+                .map(timer -> {
+                    double p50 = 0;
+                    double p99 = 0;
+                    for (ValueAtPercentile value : timer.takeSnapshot().percentileValues()) {
+                        if (value.percentile() == 0.5) {
+                            p50 = value.value(TimeUnit.MILLISECONDS);
+                        } else if (value.percentile() == 0.99) {
+                            p99 = value.value(TimeUnit.MILLISECONDS);
+                        }
+                    }
+                    return String.format("  %s{%s=%s, outcome=%s}: 次数 %d, P50 %.1f 毫秒, P99 %.1f 毫秒",
+                            name, tag, timer.getId().getTag(tag), timer.getId().getTag("outcome"),
+                            timer.count(), p50, p99);
+                })
+                .collect(Collectors.toList());
+    }
+}
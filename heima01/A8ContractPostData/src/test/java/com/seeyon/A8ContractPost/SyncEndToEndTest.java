@@ -0,0 +1,230 @@
+package com.seeyon.A8ContractPost;
+
+import com.seeyon.A8ContractPost.dao.ContractDao;
+import com.seeyon.A8ContractPost.model.Contract;
+import com.seeyon.A8ContractPost.model.SyncProgress;
+import com.seeyon.A8ContractPost.service.SyncService;
+import com.seeyon.A8ContractPost.support.MockContractApiServer;
+import com.seeyon.A8ContractPost.support.SyncTestSupport;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 合同同步端到端测试：从模拟OA库读取合同，经完整同步流程提交到模拟目标系统
+ */
+class SyncEndToEndTest extends SyncTestSupport {
+
+    @Autowired
+    private SyncService syncService;
+
+    @Autowired
+    private ContractDao contractDao;
+
+    @Test
+    void backfillSubmitsContractsWithDetails() {
+        oa.seed(20);
+
+        SyncProgress progress = backfill();
+
+        assertEquals(20, progress.getSuccessCount().get());
+        assertEquals(0, progress.getFailCount().get());
+        assertEquals(20, api.getRecordCount(MockContractApiServer.CONTRACT));
+        assertEquals(40, api.getRecordCount(MockContractApiServer.TASK));
+        assertEquals(20, api.getRecordCount(MockContractApiServer.GUARANTEE));
+        assertEquals(20, api.getRecordCount(MockContractApiServer.CONTRACT_AREA));
+        assertEquals(0, outboxSize());
+    }
+
+    @Test
+    void contractDatesAreReadAsIsoDates() {
+        List<String> contractNos = oa.seed(1);
+
+        Contract contract = contractDao.getContractsByOrderNos(contractNos).get(0);
+
+        assertEquals("2024-01-01", contract.getSigncontract_date());
+        assertEquals("2024-01-01", contract.getBegin_date());
+        assertEquals("2024-12-31", contract.getEnd_date());
+    }
+
+    @Test
+    void syncSubmitsContractsNotYetSynced() {
+        oa.seed(12);
+
+        SyncProgress first = sync(5);
+        assertEquals(5, first.getSuccessCount().get());
+        assertEquals(5, api.getRecordCount(MockContractApiServer.CONTRACT));
+
+        SyncProgress second = sync(50);
+        assertEquals(7, second.getSuccessCount().get());
+        assertEquals(12, api.getRecordCount(MockContractApiServer.CONTRACT));
+        assertEquals(24, api.getRecordCount(MockContractApiServer.TASK));
+
+        SyncProgress third = sync(50);
+        assertEquals(0, third.getSuccessCount().get() + third.getFailCount().get());
+        assertEquals(12, api.getRecordCount(MockContractApiServer.CONTRACT));
+    }
+
+    @Test
+    void syncLeavesFailedContractsToRetryQueue() {
+        oa.seed(20);
+        api.setFailureRate(0.3);
+
+        SyncProgress first = sync(50);
+        int failures = first.getFailCount().get();
+        assertTrue(failures > 0, "错误注入后应有失败的合同");
+        assertEquals(20, first.getSuccessCount().get() + failures);
+        assertEquals(failures, outboxSize());
+
+        // 水位线已越过失败的合同，再次同步不会重新读取，由重试队列处理
+        api.setFailureRate(0);
+        SyncProgress second = sync(50);
+        assertEquals(0, second.getSuccessCount().get() + second.getFailCount().get());
+        assertEquals(failures, outboxSize());
+
+        SyncProgress retry = new SyncProgress();
+        syncService.retryFailed(100, retry);
+        assertEquals(failures, retry.getSuccessCount().get());
+        assertEquals(0, outboxSize());
+    }
+
+    @Test
+    void unchangedContractsAreNotResubmitted() {
+        List<String> contractNos = oa.seed(10);
+        backfill();
+        long contractRequests = api.getRequestCount(MockContractApiServer.CONTRACT);
+        long taskRequests = api.getRequestCount(MockContractApiServer.TASK);
+
+        SyncProgress second = backfill();
+        assertEquals(10, second.getSkipCount().get());
+        assertEquals(contractRequests, api.getRequestCount(MockContractApiServer.CONTRACT));
+
+        // 只修改了合同本身，任务未变化
+        oa.touch(contractNos.subList(0, 2));
+        SyncProgress third = backfill();
+        assertEquals(8, third.getSkipCount().get());
+        assertEquals(contractRequests + 2, api.getRequestCount(MockContractApiServer.CONTRACT));
+        assertEquals(taskRequests, api.getRequestCount(MockContractApiServer.TASK));
+    }
+
+    @Test
+    void unchangedContractResumesDetailsFromCheckpoint() {
+        List<String> contractNos = oa.seed(1);
+        backfill();
+        long contractRequests = api.getRequestCount(MockContractApiServer.CONTRACT);
+        long taskRecords = api.getRecordCount(MockContractApiServer.TASK);
+
+        // 合同未变化、任务和保证金已修改，任务提交成功后保证金提交失败
+        oa.touchDetails(contractNos);
+        api.rejectNextRequests(MockContractApiServer.GUARANTEE, 1);
+        SyncProgress failed = backfill();
+        assertEquals(1, failed.getFailCount().get());
+        assertEquals(taskRecords + 2, api.getRecordCount(MockContractApiServer.TASK));
+
+        // 从检查点继续：已确认的任务不再提交，只提交保证金
+        SyncProgress resumed = backfill();
+        assertEquals(1, resumed.getSuccessCount().get());
+        assertEquals(taskRecords + 2, api.getRecordCount(MockContractApiServer.TASK));
+        assertEquals(contractRequests, api.getRequestCount(MockContractApiServer.CONTRACT));
+    }
+
+    @Test
+    void serverErrorsOnIdempotentRequestsAreRetried() {
+        oa.seed(10);
+        api.failNextRequests(MockContractApiServer.TASK, 2);
+
+        SyncProgress progress = backfill();
+
+        assertEquals(10, progress.getSuccessCount().get());
+        assertEquals(2, api.getErrorCount(MockContractApiServer.TASK));
+        assertEquals(0, outboxSize());
+    }
+
+    @Test
+    void failedContractsAreQueuedAndRetried() {
+        oa.seed(30);
+        api.setFailureRate(0.3);
+
+        SyncProgress progress = backfill();
+        int failures = progress.getFailCount().get();
+        assertTrue(failures > 0, "错误注入后应有失败的合同");
+        assertEquals(30, progress.getSuccessCount().get() + failures);
+        assertEquals(failures, outboxSize());
+
+        api.setFailureRate(0);
+        SyncProgress retry = new SyncProgress();
+        syncService.retryFailed(100, retry);
+
+        assertEquals(failures, retry.getSuccessCount().get());
+        assertEquals(0, outboxSize());
+    }
+
+    @Test
+    void throttledRequestsDoNotLoseContracts() {
+        oa.seed(20);
+        api.setLatency(10, 5);
+        api.setMaxConcurrency(2);
+
+        SyncProgress progress = backfill();
+
+        long throttled = api.getThrottledCount(MockContractApiServer.CONTRACT)
+                + api.getThrottledCount(MockContractApiServer.TASK)
+                + api.getThrottledCount(MockContractApiServer.GUARANTEE)
+                + api.getThrottledCount(MockContractApiServer.CONTRACT_AREA);
+        assertTrue(throttled > 0, "并发超过上限时应返回429");
+        assertEquals(20, progress.getSuccessCount().get() + progress.getFailCount().get());
+        assertEquals(progress.getFailCount().get(), outboxSize());
+    }
+
+    @Test
+    void invalidTokenIsRefreshed() {
+        List<String> contractNos = oa.seed(5);
+        backfill();
+        long logins = api.getRequestCount(MockContractApiServer.LOGIN);
+
+        api.invalidateToken();
+        oa.touch(contractNos);
+        SyncProgress progress = backfill();
+
+        assertEquals(5, progress.getSuccessCount().get());
+        assertEquals(0, progress.getFailCount().get());
+        assertTrue(api.getRequestCount(MockContractApiServer.LOGIN) > logins, "Token失效后应重新登录");
+    }
+
+    @Test
+    void unrecognizedTokenMessageIsBusinessFailure() {
+        List<String> contractNos = oa.seed(5);
+        backfill();
+        long logins = api.getRequestCount(MockContractApiServer.LOGIN);
+
+        // 未配置 token-invalid-messages 时，HTTP 200 的业务失败不判定为Token失效
+        api.setTokenInvalidResponse(200, "{\"state\":0,\"mess\":\"Token已失效，请重新登录\"}");
+        api.invalidateToken();
+        oa.touch(contractNos);
+        SyncProgress progress = backfill();
+
+        assertEquals(0, progress.getSuccessCount().get());
+        assertEquals(5, progress.getFailCount().get());
+        assertEquals(logins, api.getRequestCount(MockContractApiServer.LOGIN));
+        assertEquals(5, outboxSize());
+    }
+
+    private SyncProgress backfill() {
+        SyncProgress progress = new SyncProgress();
+        syncService.backfill(0, progress);
+        assertNull(progress.getError(), "同步不应整体失败");
+        return progress;
+    }
+
+    private SyncProgress sync(int batchSize) {
+        SyncProgress progress = new SyncProgress();
+        syncService.sync(batchSize, progress);
+        assertNull(progress.getError(), "同步不应整体失败");
+        return progress;
+    }
+}
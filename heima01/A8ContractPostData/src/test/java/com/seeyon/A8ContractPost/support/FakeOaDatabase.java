@@ -0,0 +1,176 @@
+package com.seeyon.A8ContractPost.support;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 基于H2内存库的模拟OA数据库
+ * 按生产SQL使用的字段建立合同、任务、保证金、区域表，并生成指定数量的合成合同；
+ * 同时按 db/shard-schema.sql 建好多实例分片使用的共用表，与生产环境中DBA预先执行脚本一致；
+ * H2以MSSQLServer模式运行，生产SQL只使用SQL Server与H2都支持的语法，测试中原样执行
+ */
+public class FakeOaDatabase {
+
+    /**
+     * 合成合同使用的区域，依次为OA中的省（2位）、市（4位）、区县（6位）、镇街（9位）编码，
+     * MockContractApiServer按同样的数据返回全国区域
+     */
+    static final String[][] AREAS = {
+            {"44", "4403", "440305", "440305001"},
+            {"44", "4401", "440106", "440106002"},
+            {"11", "1101", "110105", "110105003"},
+            {"31", "3101", "310115", "310115004"},
+    };
+
+    private static final long BASE_MODIFY_TIME = Timestamp.valueOf("2024-01-01 00:00:00").getTime();
+
+    private final String jdbcUrl;
+    private final JdbcTemplate jdbcTemplate;
+    private int contractCount;
+
+    /**
+     * @param name 内存库名称，同一JVM中同名的库共用数据
+     */
+    public FakeOaDatabase(String name) {
+        this.jdbcUrl = "jdbc:h2:mem:" + name + ";MODE=MSSQLServer;DB_CLOSE_DELAY=-1";
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(jdbcUrl, "sa", "");
+        dataSource.setDriverClassName("org.h2.Driver");
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        createTables();
+        new ResourceDatabasePopulator(new ClassPathResource("db/shard-schema.sql")).execute(dataSource);
+    }
+
+    /**
+     * @return 对应配置项spring.datasource.oa.jdbc-url
+     */
+    public String getJdbcUrl() {
+        return jdbcUrl;
+    }
+
+    public JdbcTemplate getJdbcTemplate() {
+        return jdbcTemplate;
+    }
+
+    private void createTables() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS contract (" +
+                "contract_no VARCHAR(50) PRIMARY KEY, contract_name VARCHAR(200), signcontract_date DATE, " +
+                "first_check VARCHAR(50), recheck VARCHAR(50), signcontract_man VARCHAR(50), property VARCHAR(50), " +
+                "cust_no VARCHAR(50), contract_type VARCHAR(50), project_type VARCHAR(50), link_yes VARCHAR(10), " +
+                "pur_unit VARCHAR(200), zhanl_name VARCHAR(100), industry VARCHAR(50), industry_dw VARCHAR(50), " +
+                "project VARCHAR(100), project_name VARCHAR(200), project_addr VARCHAR(200), " +
+                "contract_amount DECIMAL(18, 2), begin_date DATE, end_date DATE, o_unit VARCHAR(100), " +
+                "contract_num VARCHAR(50), note VARCHAR(500), create_code VARCHAR(50), " +
+                "Code_prov VARCHAR(10), Code_city VARCHAR(10), Code_coun VARCHAR(10), Code_town VARCHAR(20), " +
+                "dealer_agreement VARCHAR(50), year_contract VARCHAR(10), been_signed VARCHAR(10), " +
+                "ass_rat VARCHAR(20), modify_time DATETIME, create_time DATETIME)");
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS contract_task (" +
+                "contract_no VARCHAR(50), start_month VARCHAR(10), end_month VARCHAR(10), " +
+                "sale_amount DECIMAL(18, 2), return_amount DECIMAL(18, 2))");
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS contract_guarantee (" +
+                "contract_no VARCHAR(50), guarantee_no VARCHAR(50), guarantee_amount DECIMAL(18, 2), " +
+                "guarantee_note VARCHAR(200))");
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS contract_area (" +
+                "contract_no VARCHAR(50), code_prov VARCHAR(10), code_city VARCHAR(10), " +
+                "code_coun VARCHAR(10), code_town VARCHAR(20))");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_contract_modify ON contract (modify_time, contract_no)");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_contract_task ON contract_task (contract_no)");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_contract_guarantee ON contract_guarantee (contract_no)");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_contract_area ON contract_area (contract_no)");
+    }
+
+    /**
+     * 清空全部合同数据
+     */
+    public void clear() {
+        jdbcTemplate.execute("DELETE FROM contract_task");
+        jdbcTemplate.execute("DELETE FROM contract_guarantee");
+        jdbcTemplate.execute("DELETE FROM contract_area");
+        jdbcTemplate.execute("DELETE FROM contract");
+        contractCount = 0;
+    }
+
+    /**
+     * 追加生成合成合同，每个合同带2条任务、1条保证金、1条区域，内容由序号决定，重复生成结果一致
+     *
+     * @param count 合同数
+     * @return 生成的OA合同号
+     */
+    public List<String> seed(int count) {
+        List<Object[]> contracts = new ArrayList<>(count);
+        List<Object[]> tasks = new ArrayList<>(count * 2);
+        List<Object[]> guarantees = new ArrayList<>(count);
+        List<Object[]> areas = new ArrayList<>(count);
+        List<String> contractNos = new ArrayList<>(count);
+
+        for (int i = contractCount; i < contractCount + count; i++) {
+            String contractNo = contractNo(i);
+            String[] area = AREAS[i % AREAS.length];
+            Date beginDate = Date.valueOf("2024-01-01");
+            Timestamp modifyTime = new Timestamp(BASE_MODIFY_TIME + i * 1000L);
+            contracts.add(new Object[]{
+                    contractNo, "经销商合同" + i, beginDate, "初审人" + i % 7, "复审人" + i % 5, "签约人" + i % 11,
+                    "经销", "C" + (10000 + i % 997), "年度合同", "工程", "1", "采购单位" + i % 13, "战略客户" + i % 3,
+                    "建筑", "万元", "项目" + i, "项目名称" + i, "项目地址" + i, BigDecimal.valueOf(100000 + i * 37L, 2),
+                    beginDate, Date.valueOf("2024-12-31"), "执行单位" + i % 9, "HTS" + i, "合成数据", "U" + i % 17,
+                    area[0], area[1], area[2], area[3], "是", "2024", "1", "0.5", modifyTime, modifyTime});
+            tasks.add(new Object[]{contractNo, "2024-01", "2024-06", BigDecimal.valueOf(5000 + i % 100), BigDecimal.valueOf(4000)});
+            tasks.add(new Object[]{contractNo, "2024-07", "2024-12", BigDecimal.valueOf(6000 + i % 100), BigDecimal.valueOf(5000)});
+            guarantees.add(new Object[]{contractNo, "G" + i, BigDecimal.valueOf(1000 + i % 50), "保证金" + i});
+            areas.add(new Object[]{contractNo, area[0], area[1], area[2], area[3]});
+            contractNos.add(contractNo);
+        }
+
+        jdbcTemplate.batchUpdate("INSERT INTO contract (contract_no, contract_name, signcontract_date, first_check, " +
+                "recheck, signcontract_man, property, cust_no, contract_type, project_type, link_yes, pur_unit, " +
+                "zhanl_name, industry, industry_dw, project, project_name, project_addr, contract_amount, begin_date, " +
+                "end_date, o_unit, contract_num, note, create_code, Code_prov, Code_city, Code_coun, Code_town, " +
+                "dealer_agreement, year_contract, been_signed, ass_rat, modify_time, create_time) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                contracts);
+        jdbcTemplate.batchUpdate("INSERT INTO contract_task (contract_no, start_month, end_month, sale_amount, " +
+                "return_amount) VALUES (?, ?, ?, ?, ?)", tasks);
+        jdbcTemplate.batchUpdate("INSERT INTO contract_guarantee (contract_no, guarantee_no, guarantee_amount, " +
+                "guarantee_note) VALUES (?, ?, ?, ?)", guarantees);
+        jdbcTemplate.batchUpdate("INSERT INTO contract_area (contract_no, code_prov, code_city, code_coun, code_town) " +
+                "VALUES (?, ?, ?, ?, ?)", areas);
+        contractCount += count;
+        return contractNos;
+    }
+
+    /**
+     * 修改合同名称并推进修改时间，模拟OA中合同被编辑
+     *
+     * @param contractNos OA合同号
+     */
+    public void touch(List<String> contractNos) {
+        for (String contractNo : contractNos) {
+            jdbcTemplate.update("UPDATE contract SET contract_name = contract_name + '（已修改）', " +
+                    "modify_time = DATEADD(DAY, 1, modify_time) WHERE contract_no = ?", contractNo);
+        }
+    }
+
+    /**
+     * 修改合同的任务和保证金金额，合同本身不变，模拟OA中只编辑了明细
+     *
+     * @param contractNos OA合同号
+     */
+    public void touchDetails(List<String> contractNos) {
+        for (String contractNo : contractNos) {
+            jdbcTemplate.update("UPDATE contract_task SET sale_amount = sale_amount + 1 WHERE contract_no = ?", contractNo);
+            jdbcTemplate.update("UPDATE contract_guarantee SET guarantee_amount = guarantee_amount + 1 " +
+                    "WHERE contract_no = ?", contractNo);
+        }
+    }
+
+    public static String contractNo(int index) {
+        return String.format("OA%08d", index);
+    }
+}
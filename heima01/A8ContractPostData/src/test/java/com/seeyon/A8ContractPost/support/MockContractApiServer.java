@@ -0,0 +1,452 @@
+package com.seeyon.A8ContractPost.support;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.MissingNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 目标系统合同接口的本地模拟服务
+ * 覆盖登录、全国区域、合同、任务、保证金、合同区域接口，响应格式与目标系统一致；
+ * 可配置响应延迟、错误注入（HTTP 500 或业务失败）和限流（超过并发或速率时返回429），并按接口统计请求；
+ * 数据接口收到失效Token时默认返回 HTTP 401，也可改为其他响应
+ */
+public class MockContractApiServer implements AutoCloseable {
+
+    public static final String LOGIN = "DataAnalysisLogin";
+    public static final String TOWNSHIP_AREA = "ContractTownshipArea";
+    public static final String CONTRACT = "ContractAddorUpdDoc";
+    public static final String TASK = "ContractAddorUpdTask";
+    public static final String GUARANTEE = "ContractAddorUpdGuaranteeAmount";
+    public static final String CONTRACT_AREA = "ContractNationalAreaAddOrUpd";
+
+    /**
+     * 目标系统为新合同生成的合同号前缀
+     */
+    public static final String NEW_ORDER_NO_PREFIX = "HT-";
+
+    private static final int UNAUTHORIZED_STATUS = 401;
+    private static final String UNAUTHORIZED_BODY = "{\"state\":0,\"mess\":\"Unauthorized\"}";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    // 延迟配置（毫秒），按接口配置的优先
+    private volatile long latencyMillis;
+    private volatile long jitterMillis;
+    private final Map<String, long[]> endpointLatency = new ConcurrentHashMap<>();
+
+    // 错误注入
+    private volatile double errorRate;
+    private volatile double failureRate;
+    private final Map<String, AtomicInteger> pendingErrors = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> pendingFailures = new ConcurrentHashMap<>();
+
+    // 限流：并发上限、每秒请求数，0表示不限制
+    private volatile int maxConcurrency;
+    private volatile double ratePerSecond;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private double rateTokens;
+    private long rateRefillNanos = System.nanoTime();
+
+    private volatile String token = "mock-token-1";
+    private final AtomicInteger tokenVersion = new AtomicInteger(1);
+
+    // 数据接口收到失效Token时的响应，默认为HTTP 401
+    private volatile int tokenInvalidStatus = UNAUTHORIZED_STATUS;
+    private volatile String tokenInvalidBody = UNAUTHORIZED_BODY;
+
+    private final Map<String, Stats> stats = new ConcurrentHashMap<>();
+    private final AtomicLong newOrderNoSequence = new AtomicLong();
+    private final Map<String, String> contractOrderNos = new ConcurrentHashMap<>();
+
+    public MockContractApiServer() {
+        try {
+            server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 200);
+        } catch (IOException e) {
+            throw new RuntimeException("启动模拟接口服务失败", e);
+        }
+        executor = Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "mock-contract-api");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext("/api/", this::handle);
+        server.start();
+    }
+
+    /**
+     * @return 接口根地址，对应配置项contract.api.base-url
+     */
+    public String getBaseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/api";
+    }
+
+    /**
+     * 设置所有接口的响应延迟
+     *
+     * @param latencyMillis 基础延迟（毫秒）
+     * @param jitterMillis  在基础延迟上随机增加0到该值的延迟（毫秒）
+     */
+    public void setLatency(long latencyMillis, long jitterMillis) {
+        this.latencyMillis = latencyMillis;
+        this.jitterMillis = jitterMillis;
+    }
+
+    /**
+     * 单独设置某个接口的响应延迟
+     */
+    public void setLatency(String endpoint, long latencyMillis, long jitterMillis) {
+        endpointLatency.put(endpoint, new long[]{latencyMillis, jitterMillis});
+    }
+
+    /**
+     * 设置返回HTTP 500的请求比例（登录接口除外）
+     */
+    public void setErrorRate(double errorRate) {
+        this.errorRate = errorRate;
+    }
+
+    /**
+     * 让接口接下来的若干个请求返回HTTP 500，用于验证重试
+     */
+    public void failNextRequests(String endpoint, int count) {
+        pendingErrors.put(endpoint, new AtomicInteger(count));
+    }
+
+    /**
+     * 让数据接口接下来的若干个请求返回业务失败（state=0），业务失败不会被客户端自动重试
+     */
+    public void rejectNextRequests(String endpoint, int count) {
+        pendingFailures.put(endpoint, new AtomicInteger(count));
+    }
+
+    /**
+     * 设置返回业务失败（state=0）的请求比例（登录、区域接口除外）
+     */
+    public void setFailureRate(double failureRate) {
+        this.failureRate = failureRate;
+    }
+
+    /**
+     * 设置同时处理的请求上限，超过时返回429
+     */
+    public void setMaxConcurrency(int maxConcurrency) {
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    /**
+     * 设置每秒请求数上限（允许1秒的突发），超过时返回429
+     */
+    public synchronized void setRatePerSecond(double ratePerSecond) {
+        this.ratePerSecond = ratePerSecond;
+        this.rateTokens = ratePerSecond;
+        this.rateRefillNanos = System.nanoTime();
+    }
+
+    /**
+     * 设置数据接口收到失效Token时的响应，reset后恢复为HTTP 401
+     *
+     * @param status HTTP状态码
+     * @param json   响应内容
+     */
+    public void setTokenInvalidResponse(int status, String json) {
+        this.tokenInvalidStatus = status;
+        this.tokenInvalidBody = json;
+    }
+
+    /**
+     * 使当前Token失效，之后的数据请求返回Token失效，直到重新登录
+     */
+    public void invalidateToken() {
+        token = "mock-token-" + tokenVersion.incrementAndGet();
+    }
+
+    /**
+     * 清除延迟、错误注入、限流配置和请求统计
+     */
+    public void reset() {
+        setLatency(0, 0);
+        endpointLatency.clear();
+        setErrorRate(0);
+        setFailureRate(0);
+        pendingErrors.clear();
+        pendingFailures.clear();
+        setMaxConcurrency(0);
+        setRatePerSecond(0);
+        setTokenInvalidResponse(UNAUTHORIZED_STATUS, UNAUTHORIZED_BODY);
+        stats.clear();
+    }
+
+    /**
+     * @return 接口收到的请求数（含被限流、出错的请求）
+     */
+    public long getRequestCount(String endpoint) {
+        return stats(endpoint).requests.get();
+    }
+
+    /**
+     * @return 接口成功处理的数据条数（PreviousDataList中的记录数）
+     */
+    public long getRecordCount(String endpoint) {
+        return stats(endpoint).records.get();
+    }
+
+    /**
+     * @return 接口因限流返回429的次数
+     */
+    public long getThrottledCount(String endpoint) {
+        return stats(endpoint).throttled.get();
+    }
+
+    /**
+     * @return 接口返回HTTP 500的次数
+     */
+    public long getErrorCount(String endpoint) {
+        return stats(endpoint).errors.get();
+    }
+
+    /**
+     * @return 接口返回业务失败的次数
+     */
+    public long getFailureCount(String endpoint) {
+        return stats(endpoint).failures.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        String endpoint = path.substring(path.lastIndexOf('/') + 1);
+        Stats endpointStats = stats(endpoint);
+        endpointStats.requests.incrementAndGet();
+
+        int concurrent = inFlight.incrementAndGet();
+        try {
+            byte[] body = readAll(exchange.getRequestBody());
+            if ((maxConcurrency > 0 && concurrent > maxConcurrency) || !acquireRate()) {
+                endpointStats.throttled.incrementAndGet();
+                respond(exchange, 429, "{\"state\":0,\"mess\":\"Too Many Requests\"}");
+                return;
+            }
+
+            sleep(endpoint);
+
+            if (injectError(endpoint)) {
+                endpointStats.errors.incrementAndGet();
+                respond(exchange, 500, "{\"state\":0,\"mess\":\"模拟服务端错误\"}");
+                return;
+            }
+
+            switch (endpoint) {
+                case LOGIN:
+                    respond(exchange, 200, "{\"state\":1,\"mess\":\"" + token + "\",\"user\":\"mock\"}");
+                    return;
+                case TOWNSHIP_AREA:
+                    if (!token.equals(queryParam(exchange, "Token"))) {
+                        respond(exchange, 200, "{\"state\":0,\"mess\":\"Token已失效\"}");
+                        return;
+                    }
+                    respond(exchange, 200, objectMapper.writeValueAsString(townshipAreas()));
+                    return;
+                case CONTRACT:
+                case TASK:
+                case GUARANTEE:
+                case CONTRACT_AREA:
+                    handleData(exchange, endpoint, endpointStats, body);
+                    return;
+                default:
+                    respond(exchange, 404, "{\"state\":0,\"mess\":\"接口不存在\"}");
+            }
+        } catch (Exception e) {
+            respond(exchange, 500, "{\"state\":0,\"mess\":\"" + e.getClass().getSimpleName() + "\"}");
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    private void handleData(HttpExchange exchange, String endpoint, Stats endpointStats, byte[] body) throws IOException {
+        JsonNode request = objectMapper.readTree(body);
+        if (!token.equals(field(request, "token").asText(null))) {
+            respond(exchange, tokenInvalidStatus, tokenInvalidBody);
+            return;
+        }
+        if (injectFailure(endpoint)) {
+            endpointStats.failures.incrementAndGet();
+            respond(exchange, 200, "{\"state\":0,\"mess\":\"模拟业务失败\"}");
+            return;
+        }
+
+        JsonNode dataList = field(request, "previousDataList");
+        int records = dataList.isArray() ? dataList.size() : 0;
+        endpointStats.records.addAndGet(records);
+
+        ObjectNode response = objectMapper.createObjectNode();
+        response.put("state", 1);
+        response.put("mess", "成功");
+        if (CONTRACT.equals(endpoint)) {
+            // 新合同生成新合同号，再次提交同一合同时返回原合同号
+            List<String> orderNos = new ArrayList<>(records);
+            for (JsonNode item : dataList) {
+                String orderNo = item.path("order_no").asText("");
+                orderNos.add(orderNo.startsWith(NEW_ORDER_NO_PREFIX) ? orderNo : contractOrderNos.computeIfAbsent(
+                        orderNo, key -> NEW_ORDER_NO_PREFIX + newOrderNoSequence.incrementAndGet()));
+            }
+            response.put("order_no", String.join(",", orderNos));
+        }
+        respond(exchange, 200, objectMapper.writeValueAsString(response));
+    }
+
+    /**
+     * 全国区域数据，与FakeOaDatabase生成的合同区域编码一致
+     */
+    private ObjectNode townshipAreas() {
+        ObjectNode response = objectMapper.createObjectNode();
+        response.put("state", 1);
+        response.put("mess", "成功");
+        ArrayNode infoList = response.putArray("InfoList");
+        for (String[] area : FakeOaDatabase.AREAS) {
+            ObjectNode item = infoList.addObject();
+            item.put("code_prov", area[0] + "0000");
+            item.put("name_prov", "省" + area[0]);
+            item.put("code_city", area[1] + "00");
+            item.put("name_city", "市" + area[1]);
+            item.put("code_coun", area[2]);
+            item.put("name_coun", "区县" + area[2]);
+            item.put("code_town", area[3]);
+            item.put("name_town", "镇街" + area[3]);
+        }
+        return response;
+    }
+
+    private boolean injectError(String endpoint) {
+        AtomicInteger pending = pendingErrors.get(endpoint);
+        if (pending != null && pending.getAndDecrement() > 0) {
+            return true;
+        }
+        return !LOGIN.equals(endpoint) && errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate;
+    }
+
+    private boolean injectFailure(String endpoint) {
+        AtomicInteger pending = pendingFailures.get(endpoint);
+        if (pending != null && pending.getAndDecrement() > 0) {
+            return true;
+        }
+        return failureRate > 0 && ThreadLocalRandom.current().nextDouble() < failureRate;
+    }
+
+    private synchronized boolean acquireRate() {
+        if (ratePerSecond <= 0) {
+            return true;
+        }
+        long now = System.nanoTime();
+        rateTokens = Math.min(ratePerSecond, rateTokens + (now - rateRefillNanos) / 1e9 * ratePerSecond);
+        rateRefillNanos = now;
+        if (rateTokens < 1) {
+            return false;
+        }
+        rateTokens -= 1;
+        return true;
+    }
+
+    private void sleep(String endpoint) throws InterruptedException {
+        long[] latency = endpointLatency.get(endpoint);
+        long base = latency != null ? latency[0] : latencyMillis;
+        long jitter = latency != null ? latency[1] : jitterMillis;
+        long millis = base + (jitter > 0 ? ThreadLocalRandom.current().nextLong(jitter + 1) : 0);
+        if (millis > 0) {
+            TimeUnit.MILLISECONDS.sleep(millis);
+        }
+    }
+
+    private Stats stats(String endpoint) {
+        return stats.computeIfAbsent(endpoint, key -> new Stats());
+    }
+
+    /**
+     * 按字段名（忽略大小写）读取，请求字段名随序列化方式可能为Token或token
+     */
+    private static JsonNode field(JsonNode node, String name) {
+        Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> entry = fields.next();
+            if (entry.getKey().equalsIgnoreCase(name)) {
+                return entry.getValue();
+            }
+        }
+        return MissingNode.getInstance();
+    }
+
+    private static String queryParam(HttpExchange exchange, String name) {
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null) {
+            return null;
+        }
+        for (String pair : query.split("&")) {
+            int index = pair.indexOf('=');
+            if (index > 0 && pair.substring(0, index).equals(name)) {
+                try {
+                    return URLDecoder.decode(pair.substring(index + 1), "UTF-8");
+                } catch (IOException e) {
+                    return null;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+
+    private static void respond(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json;charset=UTF-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static final class Stats {
+        final AtomicLong requests = new AtomicLong();
+        final AtomicLong records = new AtomicLong();
+        final AtomicLong throttled = new AtomicLong();
+        final AtomicLong errors = new AtomicLong();
+        final AtomicLong failures = new AtomicLong();
+    }
+}
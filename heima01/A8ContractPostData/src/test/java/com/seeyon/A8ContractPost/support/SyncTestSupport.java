@@ -0,0 +1,72 @@
+package com.seeyon.A8ContractPost.support;
+
+import com.seeyon.A8ContractPost.Application;
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+/**
+ * 同步端到端测试、压测的基类
+ * 启动完整的应用上下文，OA库指向FakeOaDatabase，目标系统指向MockContractApiServer；
+ * 每个测试开始前清空模拟接口配置与统计、OA合同数据、同步日志、水位线、同步状态、检查点和重试队列
+ */
+@SpringBootTest(classes = Application.class, webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("e2e")
+public abstract class SyncTestSupport {
+
+    private static final String[] LOCAL_TABLES = {"contract_sync_log", "contract_sync_watermark"};
+
+    /**
+     * 默认在本地库中，启用多实例分片时在OA库中
+     */
+    private static final String[] STATE_TABLES = {
+            "contract_sync_status", "contract_sync_digest", "contract_sync_checkpoint", "contract_sync_checkpoint_item",
+            "contract_sync_outbox"
+    };
+
+    protected static final MockContractApiServer api = new MockContractApiServer();
+    protected static final FakeOaDatabase oa = new FakeOaDatabase("oa-e2e");
+
+    @Autowired
+    @Qualifier("localJdbcTemplate")
+    protected JdbcTemplate localJdbcTemplate;
+
+    @Value("${contract.sync.shard.enabled:false}")
+    private boolean shardEnabled;
+
+    @DynamicPropertySource
+    static void apiProperties(DynamicPropertyRegistry registry) {
+        registry.add("contract.api.base-url", api::getBaseUrl);
+        registry.add("spring.datasource.oa.jdbc-url", oa::getJdbcUrl);
+    }
+
+    @BeforeEach
+    void resetEnvironment() {
+        api.reset();
+        oa.clear();
+        for (String table : LOCAL_TABLES) {
+            localJdbcTemplate.execute("DELETE FROM " + table);
+        }
+        for (String table : STATE_TABLES) {
+            stateJdbcTemplate().execute("DELETE FROM " + table);
+        }
+    }
+
+    /**
+     * 同步状态、内容摘要、检查点和重试队列所在的库：启用多实例分片时在OA库中，否则在本地库中
+     */
+    protected JdbcTemplate stateJdbcTemplate() {
+        return shardEnabled ? oa.getJdbcTemplate() : localJdbcTemplate;
+    }
+
+    protected int outboxSize() {
+        Integer count = stateJdbcTemplate().queryForObject("SELECT COUNT(*) FROM contract_sync_outbox", Integer.class);
+        return count == null ? 0 : count;
+    }
+}